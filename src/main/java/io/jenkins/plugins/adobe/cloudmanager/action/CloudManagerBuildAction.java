@@ -26,10 +26,15 @@ package io.jenkins.plugins.adobe.cloudmanager.action;
  * #L%
  */
 
+import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.RandomAccess;
 import java.util.concurrent.CopyOnWriteArrayList;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -41,13 +46,22 @@ import hudson.model.Job;
 import hudson.model.Run;
 import io.adobe.cloudmanager.CloudManagerApi;
 import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.PipelineExecution;
 import io.adobe.cloudmanager.PipelineExecutionStepState;
 import io.adobe.cloudmanager.StepAction;
 import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
+import io.jenkins.plugins.adobe.cloudmanager.state.ExecutionSnapshots;
+import io.jenkins.plugins.adobe.cloudmanager.state.FinishedExecutionStore;
+import io.jenkins.plugins.adobe.cloudmanager.util.AsyncCloudManagerApi;
 import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
+import jenkins.model.RunAction2;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.Value;
+import lombok.experimental.NonFinal;
 import org.jenkinsci.plugins.workflow.actions.PersistentAction;
 import org.kohsuke.stapler.HttpResponse;
 import org.kohsuke.stapler.HttpResponses;
@@ -60,21 +74,51 @@ import static io.adobe.cloudmanager.PipelineExecutionStepState.Status.*;
 
 /**
  * Cloud Manager build data used for taking actions.
+ * <p>
+ *   The steps reached by the execution are kept in a {@link StepHistory} in the run's directory rather than in
+ *   {@code build.xml}, and only read when requested. Steps added before the action is attached to a run, or which
+ *   could not be written, are kept with the action instead. Steps kept in {@code build.xml} by older versions are only
+ *   moved to the history with the next step, so loading an old build never rewrites it.
+ * </p>
  */
 @Value
 @ExportedBean(defaultVisibility = 1500)
-public class CloudManagerBuildAction implements PersistentAction, Serializable {
+public class CloudManagerBuildAction implements PersistentAction, RunAction2, Serializable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CloudManagerBuildAction.class);
   private static final long serialVersionUID = 1L;
-  private static final String SONAR_LOG = "sonarLogFile";
+
+  /**
+   * Name of the additional log file of the {@code codeQuality} step.
+   */
+  public static final String SONAR_LOG = "sonarLogFile";
+
   private static final String STEP_PARAM = "step";
 
   String aioProjectName;
   CloudManagerPipelineExecution cmExecution;
 
+  // Steps not in the history; older versions stored all steps here.
+  @NonFinal
+  @EqualsAndHashCode.Exclude
+  @Getter(AccessLevel.NONE)
+  List<PipelineStep> steps;
+
+  @NonFinal
   @EqualsAndHashCode.Exclude
-  List<PipelineStep> steps = new CopyOnWriteArrayList<>();
+  @Getter(AccessLevel.NONE)
+  transient StepHistory history;
+
+  @NonFinal
+  @EqualsAndHashCode.Exclude
+  @Getter(AccessLevel.NONE)
+  transient LogCache logs;
+
+  public CloudManagerBuildAction(String aioProjectName, CloudManagerPipelineExecution cmExecution) {
+    this.aioProjectName = aioProjectName;
+    this.cmExecution = cmExecution;
+    this.steps = new CopyOnWriteArrayList<>();
+  }
 
   @Override
   public String getDisplayName() {
@@ -91,6 +135,56 @@ public class CloudManagerBuildAction implements PersistentAction, Serializable {
     return String.format("adobe-cloud-manager-p%s-p%s-e%s", cmExecution.getProgramId(), cmExecution.getPipelineId(), cmExecution.getExecutionId());
   }
 
+  @Override
+  public synchronized void onAttached(Run<?, ?> run) {
+    open(run);
+    if (moveHeld()) {
+      RunSaver.get().save(run);
+    }
+  }
+
+  @Override
+  public synchronized void onLoad(Run<?, ?> run) {
+    open(run);
+    if (steps.isEmpty() || !new File(run.getRootDir(), StepHistory.FILE_NAME).exists()) {
+      return;
+    }
+    // Moved before, but the run wasn't saved since; don't list these twice.
+    try {
+      if (Collections.indexOfSubList(history.list(), steps) >= 0) {
+        steps.clear();
+      }
+    } catch (IOException e) {
+      LOGGER.warn(Messages.CloudManagerBuildAction_warn_history(run, e.getLocalizedMessage()));
+    }
+  }
+
+  private void open(Run<?, ?> run) {
+    history = new StepHistory(new File(run.getRootDir(), StepHistory.FILE_NAME));
+    logs = new LogCache(new File(run.getRootDir(), LogCache.DIR_NAME));
+    if (steps == null) {
+      steps = new CopyOnWriteArrayList<>();
+    }
+  }
+
+  // Move the steps held by this action into the history; they leave build.xml when the run is next saved.
+  private boolean moveHeld() {
+    StepHistory history = this.history;
+    if (history == null || steps.isEmpty()) {
+      return false;
+    }
+    try {
+      for (PipelineStep step : new ArrayList<>(steps)) {
+        history.append(step);
+      }
+      steps.clear();
+      return true;
+    } catch (IOException e) {
+      LOGGER.warn(Messages.CloudManagerBuildAction_warn_history(cmExecution, e.getLocalizedMessage()));
+      return false;
+    }
+  }
+
   @CheckForNull
   public Run<?, ?> getOwningRun() {
     StaplerRequest req = Stapler.getCurrentRequest();
@@ -100,21 +194,97 @@ public class CloudManagerBuildAction implements PersistentAction, Serializable {
     return req.findAncestorObject(Run.class);
   }
 
+  /**
+   * Final status of the Cloud Manager execution, if it is known to have finished. Never calls Cloud Manager.
+   */
+  @CheckForNull
+  public PipelineExecution.Status getExecutionStatus() {
+    return FinishedExecutionStore.get().getStatus(cmExecution);
+  }
+
+  /**
+   * Read-only view of the steps reached when this was called; steps are read as they are accessed, not copied.
+   * <p>
+   *   A step which can't be read is {@code null}, so the position of each step matches {@link #getStep(String)}.
+   * </p>
+   */
+  @Nonnull
   public List<PipelineStep> getSteps() {
-    return new ArrayList<>(this.steps);
+    return new Steps(this, getStepCount());
+  }
+
+  /**
+   * Number of steps reached.
+   */
+  public int getStepCount() {
+    int count = steps == null ? 0 : steps.size();
+    StepHistory history = this.history;
+    if (history != null) {
+      try {
+        count += history.size();
+      } catch (IOException e) {
+        LOGGER.warn(Messages.CloudManagerBuildAction_warn_history(cmExecution, e.getLocalizedMessage()));
+      }
+    }
+    return count;
   }
 
+  @CheckForNull
   public PipelineStep getStep(@Nonnull String id) {
-    int i = NumberUtils.toInt(id, -1);
-    if (i >= 0 && i < getSteps().size()) {
-      return getSteps().get(i);
-    } else {
+    return getStep(NumberUtils.toInt(id, -1));
+  }
+
+  // Random access to a step, only reads the requested one from the history.
+  @CheckForNull
+  PipelineStep getStep(int i) {
+    if (i < 0) {
+      return null;
+    }
+    StepHistory history = this.history;
+    int stored = 0;
+    if (history != null) {
+      try {
+        stored = history.size();
+        if (i < stored) {
+          return history.get(i);
+        }
+      } catch (IOException e) {
+        LOGGER.warn(Messages.CloudManagerBuildAction_warn_history(cmExecution, e.getLocalizedMessage()));
+        return null;
+      }
+    }
+    try {
+      return steps == null ? null : steps.get(i - stored);
+    } catch (IndexOutOfBoundsException e) {
       return null;
     }
   }
 
-  public void addStep(@Nonnull PipelineStep step) {
-    steps.add(step);
+  /**
+   * Record the step, unless a step with the same {@link PipelineStep#key() key} was already recorded. Any steps held by
+   * this action are first moved to the history.
+   *
+   * @return {@code true} if the step was recorded, or held steps were moved, so the run should be saved; {@code false}
+   * if it is a duplicate
+   */
+  public synchronized boolean addStep(@Nonnull PipelineStep step) {
+    String key = step.key();
+    for (PipelineStep held : steps) {
+      if (key != null && key.equals(held.key())) {
+        return false;
+      }
+    }
+    boolean moved = moveHeld();
+    StepHistory history = this.history;
+    if (history != null && steps.isEmpty()) { // Keep the order, once a step is held the rest are too.
+      try {
+        return history.append(step) || moved;
+      } catch (IOException e) {
+        LOGGER.warn(Messages.CloudManagerBuildAction_warn_history(cmExecution, e.getLocalizedMessage()));
+      }
+    }
+    steps.add(step); // Kept with the action until it can be written.
+    return true;
   }
 
   private boolean canDownload() {
@@ -145,15 +315,14 @@ public class CloudManagerBuildAction implements PersistentAction, Serializable {
 
   @CheckForNull
   private PipelineStep getPipelineStep() {
-    int stepId = NumberUtils.toInt(Stapler.getCurrentRequest().getParameter(STEP_PARAM), -1);
-    if (stepId < 0 || stepId > (getSteps().size() - 1)) {
+    final PipelineStep step = getStep(NumberUtils.toInt(Stapler.getCurrentRequest().getParameter(STEP_PARAM), -1));
+    if (step == null) {
       LOGGER.warn(Messages.CloudManagerBuildAction_warn_unknownStep());
       return null;
     }
     if (!canDownload()) {
       return null;
     }
-    final PipelineStep step = getSteps().get(stepId);
     if (!step.isHasLogs()) {
       LOGGER.warn(Messages.CloudManagerBuildAction_warn_unknownStep());
       return null;
@@ -161,13 +330,34 @@ public class CloudManagerBuildAction implements PersistentAction, Serializable {
     return step;
   }
 
+  // Serve the stored copy of the log if there is one, otherwise get its location from Cloud Manager.
   @Nonnull
   private HttpResponse getLogRedirect(PipelineStep step, String fileName) {
+    final LogCache logs = isCacheable(step.getAction()) ? this.logs : null;
+    final String name = LogCache.nameOf(step.getAction(), fileName);
+    if (logs != null) {
+      try {
+        LogCache.Log log = logs.get(name);
+        if (log != null) {
+          return log;
+        }
+      } catch (IOException e) {
+        LOGGER.warn(Messages.CloudManagerBuildAction_warn_logCache(name, e.getLocalizedMessage()));
+      }
+    }
     Optional<CloudManagerApi> api = CloudManagerApiUtil.createApi().apply(getAioProjectName());
     if (api.isPresent()) {
       try {
         final CloudManagerPipelineExecution cmExecution = getCmExecution();
         String url = api.get().getExecutionStepLogDownloadUrl(cmExecution.getProgramId(), cmExecution.getPipelineId(), cmExecution.getExecutionId(), step.getAction().name(), fileName);
+        if (logs != null) {
+          // Store the copy in the background, rather than holding the request while the log downloads.
+          logs.store(name, url).whenComplete((log, t) -> {
+            if (t != null) {
+              LOGGER.warn(Messages.CloudManagerBuildAction_warn_logCache(name, AsyncCloudManagerApi.causeOf(t).getLocalizedMessage()));
+            }
+          });
+        }
         return HttpResponses.redirectTo(url);
       } catch (CloudManagerApiException e) {
         return HttpResponses.error(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, Messages.CloudManagerBuildAction_error_downloadLogs(e.getLocalizedMessage()));
@@ -177,6 +367,46 @@ public class CloudManagerBuildAction implements PersistentAction, Serializable {
     }
   }
 
+  // A log is only stored once complete: when its step, or the whole execution, has finished.
+  private boolean isCacheable(StepAction action) {
+    if (!AdobeIOConfig.configuration().isLogCacheEnabled()) {
+      return false;
+    }
+    if (getExecutionStatus() != null) {
+      return true;
+    }
+    for (PipelineStep step : getSteps()) {
+      if (step != null && step.getAction() == action && ExecutionSnapshots.isFinished(step.getStatusState())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Fixed size view of the steps, each is read from the action when accessed.
+  private static final class Steps extends AbstractList<PipelineStep> implements RandomAccess {
+    private final CloudManagerBuildAction action;
+    private final int size;
+
+    private Steps(CloudManagerBuildAction action, int size) {
+      this.action = action;
+      this.size = size;
+    }
+
+    @Override
+    public PipelineStep get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException(String.valueOf(index));
+      }
+      return action.getStep(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
   /**
    * Represents a step which a Cloud Manager Pipeline execution reached.
    * <p>
@@ -190,11 +420,38 @@ public class CloudManagerBuildAction implements PersistentAction, Serializable {
     private final StepAction action;
     private final PipelineExecutionStepState.Status status;
     private final boolean hasLogs;
+    // Publish time of the event which reported the step, in epoch milliseconds; zero if unknown.
+    private final long published;
+
+    public PipelineStep(StepAction action, PipelineExecutionStepState.Status status, boolean hasLogs) {
+      this(action, status, hasLogs, 0);
+    }
+
+    public PipelineStep(StepAction action, PipelineExecutionStepState.Status status, boolean hasLogs, long published) {
+      this.action = action;
+      this.status = status;
+      this.hasLogs = hasLogs;
+      this.published = published;
+    }
+
+    /**
+     * Identifies the step's record: a redelivered event reports the same action, status and publish time.
+     *
+     * @return the key, or {@code null} if the publish time is unknown, as repeats can't be told from redeliveries
+     */
+    @CheckForNull
+    String key() {
+      return published == 0 ? null : action + " " + status + " " + published;
+    }
 
     public String getStatus() {
       return Messages.CloudManagerBuildAction_PipelineStep_status(action, status);
     }
 
+    public PipelineExecutionStepState.Status getStatusState() {
+      return status;
+    }
+
     public boolean isHasQualityData() {
       return action == StepAction.codeQuality && (status == FINISHED || status == WAITING || status == ERROR);
     }
@@ -0,0 +1,362 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.util.LogDownload;
+import jenkins.util.SystemProperties;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+/**
+ * Compressed copies of the Cloud Manager step logs of a run, stored alongside it.
+ * <p>
+ *   A log is downloaded once and then served from its copy, so viewing it again does not call Cloud Manager, and it
+ *   remains available after the Cloud Manager download location has expired. Copies are {@link #store stored} in the
+ *   background on the {@link LogDownload} pool, at most once at a time per log, and are written to a temporary file and
+ *   moved in place, so a copy is always complete.
+ * </p>
+ * <p>
+ *   Copies are served with an ETag, taken from the CRC-32 and length in the gzip trailer, and support single byte range
+ *   requests. A full copy is sent as is to clients which accept gzip, with its own ETag. A gzip stream has no index, so a
+ *   range is read by decompressing the copy from its start; logs are small enough that this is cheaper than storing a
+ *   second, seekable copy.
+ * </p>
+ */
+final class LogCache {
+
+  /**
+   * Name of the directory of copies, in the run's directory.
+   */
+  static final String DIR_NAME = "adobe-cloud-manager-logs";
+
+  /**
+   * Time storing a copy may take, in milliseconds.
+   */
+  static final long TIMEOUT = SystemProperties.getLong(LogCache.class.getName() + ".timeout", 600000L); // 10 minutes
+
+  private static final String SUFFIX = ".log.gz";
+  private static final int BUFFER_SIZE = 65536;
+  private static final int TRAILER_SIZE = 8;
+
+  private final File dir;
+  // Copies being stored, by name.
+  private final ConcurrentMap<String, CompletableFuture<Log>> storing = new ConcurrentHashMap<>();
+
+  LogCache(@Nonnull File dir) {
+    this.dir = dir;
+  }
+
+  /**
+   * Name of the copy of a step's log.
+   *
+   * @param fileName the name of an additional log file of the step, or {@code null} for its main log
+   */
+  @Nonnull
+  static String nameOf(@Nonnull StepAction action, @CheckForNull String fileName) {
+    return fileName == null ? action.name() : action.name() + "-" + fileName;
+  }
+
+  /**
+   * Get the copy of a log, if it was stored.
+   */
+  @CheckForNull
+  Log get(@Nonnull String name) throws IOException {
+    File file = new File(dir, name + SUFFIX);
+    return file.isFile() ? Log.of(file) : null;
+  }
+
+  /**
+   * Store the copy of a log in the background, unless it is already being stored.
+   *
+   * @param name the name of the copy
+   * @param url  the log location
+   * @return completes with the copy once it is stored
+   */
+  @Nonnull
+  CompletableFuture<Log> store(@Nonnull String name, @Nonnull String url) {
+    final CompletableFuture<Log> created = new CompletableFuture<>();
+    final CompletableFuture<Log> existing = storing.putIfAbsent(name, created);
+    if (existing != null) {
+      return existing;
+    }
+    LogDownload.submit(() -> put(name, url), TIMEOUT).whenComplete((log, t) -> {
+      storing.remove(name, created);
+      if (t != null) {
+        created.completeExceptionally(t);
+      } else {
+        created.complete(log);
+      }
+    });
+    return created;
+  }
+
+  /**
+   * Download the log and store its copy, unless one was stored already.
+   *
+   * @param name the name of the copy
+   * @param url  the log location
+   */
+  @Nonnull
+  Log put(@Nonnull String name, @Nonnull String url) throws IOException {
+    Log log = get(name);
+    if (log != null) {
+      return log; // Stored by a concurrent request.
+    }
+    Files.createDirectories(dir.toPath());
+    Path tmp = Files.createTempFile(dir.toPath(), name, ".tmp");
+    try {
+      try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE)) {
+        LogDownload.download(url, os);
+      }
+      Path file = dir.toPath().resolve(name + SUFFIX);
+      Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      return Log.of(file.toFile());
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * A stored copy of a log, served as the response.
+   */
+  static final class Log implements HttpResponse {
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final String GZIP = "gzip";
+
+    private final File file;
+    private final long length;
+    private final String etag;
+    private final String gzipEtag;
+
+    private Log(File file, long length, String tag) {
+      this.file = file;
+      this.length = length;
+      this.etag = "\"" + tag + "\"";
+      this.gzipEtag = "\"" + tag + "-" + GZIP + "\"";
+    }
+
+    // The gzip trailer holds the CRC-32 and length, modulo 2^32, of the log; logs are well below 4 GiB.
+    @Nonnull
+    static Log of(@Nonnull File file) throws IOException {
+      try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+        if (raf.length() < TRAILER_SIZE) {
+          throw new IOException(Messages.LogCache_error_corrupt(file));
+        }
+        byte[] trailer = new byte[TRAILER_SIZE];
+        raf.seek(raf.length() - TRAILER_SIZE);
+        raf.readFully(trailer);
+        long crc = readInt(trailer, 0);
+        long length = readInt(trailer, 4);
+        return new Log(file, length, String.format("%08x%08x", crc, length));
+      }
+    }
+
+    private static long readInt(byte[] b, int off) {
+      return (b[off] & 0xffL) | (b[off + 1] & 0xffL) << 8 | (b[off + 2] & 0xffL) << 16 | (b[off + 3] & 0xffL) << 24;
+    }
+
+    /**
+     * Length of the log, uncompressed.
+     */
+    long getLength() {
+      return length;
+    }
+
+    @Nonnull
+    String getEtag() {
+      return etag;
+    }
+
+    /**
+     * ETag of the log sent compressed, which differs from that of the uncompressed log.
+     */
+    @Nonnull
+    String getGzipEtag() {
+      return gzipEtag;
+    }
+
+    /**
+     * Whether the {@code Accept-Encoding} header accepts gzip: listed, or covered by {@code *}, with a non-zero quality.
+     */
+    static boolean acceptsGzip(@CheckForNull String header) {
+      if (StringUtils.isBlank(header)) {
+        return false;
+      }
+      Boolean any = null;
+      for (String part : header.split(",")) {
+        String[] params = part.split(";");
+        String coding = params[0].trim();
+        boolean accepted = quality(params) > 0;
+        if (GZIP.equalsIgnoreCase(coding) || ("x-" + GZIP).equalsIgnoreCase(coding)) {
+          return accepted;
+        }
+        if ("*".equals(coding)) {
+          any = accepted;
+        }
+      }
+      return any != null && any;
+    }
+
+    // The q parameter of an Accept-Encoding entry, 1 if absent or invalid.
+    private static double quality(String[] params) {
+      for (int i = 1; i < params.length; i++) {
+        String param = params[i].trim();
+        if (param.startsWith("q=")) {
+          try {
+            return Double.parseDouble(param.substring(2).trim());
+          } catch (NumberFormatException e) {
+            return 1;
+          }
+        }
+      }
+      return 1;
+    }
+
+    /**
+     * Whether the {@code If-None-Match} header matches the ETag, using weak comparison.
+     */
+    static boolean matches(@CheckForNull String header, @Nonnull String etag) {
+      if (StringUtils.isBlank(header)) {
+        return false;
+      }
+      for (String tag : header.split(",")) {
+        tag = StringUtils.removeStart(tag.trim(), "W/");
+        if ("*".equals(tag) || etag.equals(tag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * The first and last byte requested by the {@code Range} header, or {@code null} to send the whole log.
+     * A range which starts after the log has a last byte before its first.
+     */
+    @CheckForNull
+    static long[] range(@CheckForNull String header, long length) {
+      Matcher m = header == null ? null : RANGE.matcher(header.trim());
+      if (m == null || !m.matches() || (m.group(1).isEmpty() && m.group(2).isEmpty())) {
+        return null; // No range, or one not supported, such as multiple ranges.
+      }
+      try {
+        if (m.group(1).isEmpty()) {
+          long suffix = Long.parseLong(m.group(2));
+          return suffix == 0 ? new long[] { length, -1 } : new long[] { Math.max(0, length - suffix), length - 1 };
+        }
+        long first = Long.parseLong(m.group(1));
+        long last = m.group(2).isEmpty() ? length - 1 : Long.parseLong(m.group(2));
+        if (last < first) {
+          return null; // Invalid, ignored.
+        }
+        return first >= length ? new long[] { first, -1 } : new long[] { first, Math.min(last, length - 1) };
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    /**
+     * Open the log, uncompressed, at the offset. The bytes before the offset are decompressed and skipped.
+     */
+    @Nonnull
+    InputStream open(long offset) throws IOException {
+      InputStream is = new GZIPInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE);
+      try {
+        IOUtils.skipFully(is, offset);
+        return is;
+      } catch (IOException e) {
+        is.close();
+        throw e;
+      }
+    }
+
+    @Override
+    public void generateResponse(StaplerRequest req, StaplerResponse rsp, Object node) throws IOException {
+      // Ranges are of the uncompressed log, only a full log is sent compressed.
+      String ifRange = req.getHeader("If-Range");
+      long[] range = ifRange == null || etag.equals(ifRange) ? range(req.getHeader("Range"), length) : null;
+      boolean gzip = range == null && acceptsGzip(req.getHeader("Accept-Encoding"));
+      String tag = gzip ? gzipEtag : etag;
+      rsp.setHeader("ETag", tag);
+      rsp.setHeader("Vary", "Accept-Encoding");
+      rsp.setHeader("Accept-Ranges", "bytes");
+      if (matches(req.getHeader("If-None-Match"), tag)) {
+        rsp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return;
+      }
+      if (range != null && range[1] < range[0]) {
+        rsp.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        rsp.setHeader("Content-Range", "bytes */" + length);
+        return;
+      }
+      rsp.setContentType("text/plain;charset=UTF-8");
+      if (range != null) {
+        rsp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        rsp.setHeader("Content-Range", String.format("bytes %d-%d/%d", range[0], range[1], length));
+        rsp.setContentLengthLong(range[1] - range[0] + 1);
+        try (InputStream is = open(range[0]); OutputStream os = rsp.getOutputStream()) {
+          IOUtils.copyLarge(is, os, 0, range[1] - range[0] + 1, new byte[BUFFER_SIZE]);
+        }
+      } else if (gzip) {
+        rsp.setHeader("Content-Encoding", GZIP);
+        rsp.setContentLengthLong(file.length());
+        try (OutputStream os = rsp.getOutputStream()) {
+          Files.copy(file.toPath(), os);
+        }
+      } else {
+        rsp.setContentLengthLong(length);
+        try (InputStream is = open(0); OutputStream os = rsp.getOutputStream()) {
+          IOUtils.copyLarge(is, os, new byte[BUFFER_SIZE]);
+        }
+      }
+    }
+  }
+}
@@ -31,12 +31,9 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
@@ -45,9 +42,10 @@ import org.apache.commons.lang3.StringUtils;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.model.Run;
 import io.jenkins.plugins.adobe.cloudmanager.step.execution.PipelineStepStateExecution;
+import io.jenkins.plugins.adobe.cloudmanager.step.execution.StepStateExecutions;
 import jenkins.model.RunAction2;
 import org.jenkinsci.plugins.workflow.flow.FlowExecution;
-import org.jenkinsci.plugins.workflow.flow.FlowExecutionList;
+import org.jenkinsci.plugins.workflow.flow.FlowExecutionOwner;
 import org.jenkinsci.plugins.workflow.steps.StepExecution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +56,12 @@ import org.slf4j.LoggerFactory;
  * Executions could be put into parallel blocks, so have to handle this. Also Jenkins could shut down while waiting.
  * A lot of this is modeled off of {@code InputAction}
  * </p>
+ * <p>
+ * After a restart, the executions are found through {@link StepStateExecutions} as the run's program is loaded. Until
+ * then the action reports that it is {@link #isLoading() loading}, rather than waiting on the program. Steps saved by
+ * older versions are not indexed until they resume, so once the program is loaded any missing ones are looked up in
+ * the program itself.
+ * </p>
  */
 public class PipelineWaitingAction implements RunAction2, Serializable {
   private static final Logger LOGGER = LoggerFactory.getLogger(PipelineWaitingAction.class);
@@ -113,23 +117,27 @@ public class PipelineWaitingAction implements RunAction2, Serializable {
   }
 
   /**
-   * Add the step to the list of executions, for later reloading.
+   * Add the step to the list of executions, for later reloading. Adding a step which is already known has no effect.
    */
-  public synchronized void add(@Nonnull PipelineStepStateExecution step) throws IOException, InterruptedException, TimeoutException {
+  public synchronized void add(@Nonnull PipelineStepStateExecution step) throws IOException {
     loadExecutions();
     if (executions == null) {
       throw new IOException(Messages.PipelineWaitingAction_error_loadState());
     }
-    this.executions.add(step);
-    ids.add(step.getId());
-    run.save();
+    if (!executions.contains(step)) {
+      executions.add(step);
+    }
+    if (!ids.contains(step.getId())) {
+      ids.add(step.getId());
+      RunSaver.get().save(run);
+    }
   }
 
   /**
    * Returns the execution based on the id.
    */
   @CheckForNull
-  public synchronized PipelineStepStateExecution getExecution(@Nonnull String id) throws InterruptedException, TimeoutException {
+  public synchronized PipelineStepStateExecution getExecution(@Nonnull String id) {
     loadExecutions();
     if (executions == null) {
       return null;
@@ -141,60 +149,94 @@ public class PipelineWaitingAction implements RunAction2, Serializable {
    * Lists all the stored executions. Used by the UI for form display/submission.
    */
   @Nonnull
-  public synchronized List<PipelineStepStateExecution> getExecutions() throws InterruptedException, TimeoutException {
+  public synchronized List<PipelineStepStateExecution> getExecutions() {
     loadExecutions();
     return (executions == null) ? Collections.emptyList() : new ArrayList<>(executions);
   }
 
+  /**
+   * Indicates that the executions are still being restored after a restart. Used by the UI.
+   */
+  public synchronized boolean isLoading() {
+    loadExecutions();
+    return executions == null;
+  }
+
   /**
    * Remove the specified step from the list of known executions.
    */
-  public synchronized void remove(@Nonnull PipelineStepStateExecution step) throws IOException, InterruptedException, TimeoutException {
+  public synchronized void remove(@Nonnull PipelineStepStateExecution step) throws IOException {
     loadExecutions();
     if (executions == null) {
       throw new IOException(Messages.PipelineWaitingAction_error_loadState());
     }
     executions.remove(step);
-    ids.remove(step.getId());
-    run.save();
+    if (ids.remove(step.getId())) {
+      RunSaver.get().save(run);
+    }
   }
 
   /**
    * Used by the UI for iterating over the executions and displaying.
    */
-  public PipelineStepStateExecution getDynamic(String id) throws InterruptedException, TimeoutException {
+  public PipelineStepStateExecution getDynamic(String id) {
     return getExecution(id);
   }
 
-  // Load all the executions. Be careful with the logic here, can sometimes block the VM thread - don't want that.
-  private synchronized void loadExecutions() throws InterruptedException, TimeoutException {
+  // Restore the executions from the run's index; never blocks. Steps are indexed as the run's program is loaded.
+  private synchronized void loadExecutions() {
     if (executions == null) { // Loaded after restart.
-      try {
-        Optional<FlowExecution> execution = StreamSupport.stream(FlowExecutionList.get().spliterator(), false).filter((ex) -> {
-          try {
-            return ex.getOwner().getExecutable() == run;
-          } catch (IOException e) {
-            LOGGER.warn(Messages.PipelineWaitingAction_error_loadExecutions(e.getLocalizedMessage()));
-          }
-          return false;
-        }).findFirst();
-        if (execution.isPresent()) {
-          List<StepExecution> candidates = execution.get().getCurrentExecutions(true).get(60, TimeUnit.SECONDS);
-          executions = candidates.stream()
-              .filter(se -> se instanceof PipelineStepStateExecution && ids.contains(((PipelineStepStateExecution) se).getId()))
-              .map((se) -> ((PipelineStepStateExecution) se))
-              .collect(Collectors.toList());
-          if (executions.size() < ids.size()) {
-            LOGGER.warn(Messages.PipelineWaitingAction_warn_lostExecutions(run));
-          }
-        } else {
-          LOGGER.warn(Messages.PipelineWaitingAction_warn_missingExecution(run));
+      List<PipelineStepStateExecution> found = StepStateExecutions.get().forRun(run.getExternalizableId()).stream()
+          .filter(e -> ids.contains(e.getId()))
+          .collect(Collectors.toCollection(ArrayList::new));
+      if (found.size() >= ids.size()) {
+        executions = found;
+      } else if (isProgramLoaded()) {
+        found.addAll(unindexed(found));
+        if (found.size() < ids.size()) {
+          LOGGER.warn(Messages.PipelineWaitingAction_warn_lostExecutions(run));
         }
-      } catch (InterruptedException | TimeoutException e) {
-        throw e;
-      } catch (Exception e) {
-        LOGGER.error(Messages.PipelineWaitingAction_error_loadExecutions(e.getLocalizedMessage()));
+        executions = found;
       }
     }
   }
+
+  // Whether the run's program has been loaded, after which no more of its executions will be indexed.
+  private boolean isProgramLoaded() {
+    if (!run.isBuilding() || !(run instanceof FlowExecutionOwner.Executable)) {
+      return true;
+    }
+    FlowExecution execution = getFlowExecution();
+    return execution != null && execution.getCurrentExecutions(true).isDone();
+  }
+
+  // Executions of this action which are not in the index, from the loaded program; steps saved without their run id.
+  private List<PipelineStepStateExecution> unindexed(List<PipelineStepStateExecution> found) {
+    FlowExecution execution = run.isBuilding() ? getFlowExecution() : null;
+    if (execution == null) {
+      return Collections.emptyList();
+    }
+    try {
+      List<StepExecution> current = execution.getCurrentExecutions(true).get(); // Done, does not block.
+      return current.stream()
+          .filter(PipelineStepStateExecution.class::isInstance)
+          .map(PipelineStepStateExecution.class::cast)
+          .filter(e -> ids.contains(e.getId()) && !found.contains(e))
+          .collect(Collectors.toList());
+    } catch (ExecutionException e) {
+      return Collections.emptyList();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Collections.emptyList();
+    }
+  }
+
+  @CheckForNull
+  private FlowExecution getFlowExecution() {
+    if (!(run instanceof FlowExecutionOwner.Executable)) {
+      return null;
+    }
+    FlowExecutionOwner owner = ((FlowExecutionOwner.Executable) run).asFlowExecutionOwner();
+    return owner == null ? null : owner.getOrNull();
+  }
 }
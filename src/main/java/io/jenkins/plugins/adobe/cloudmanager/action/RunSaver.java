@@ -0,0 +1,168 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.init.Terminator;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces saves of runs whose Cloud Manager actions changed.
+ * <p>
+ *   A burst of step events would otherwise rewrite a run's {@code build.xml} once per event. Instead, runs are saved
+ *   at most once per {@link #INTERVAL}, when the run completes, and when Jenkins shuts down. State which must survive a
+ *   crash within the interval is also kept by the step executions themselves, and restored when they resume.
+ * </p>
+ */
+@Extension
+public class RunSaver {
+
+  /**
+   * Time changes are held before the run is saved, in milliseconds. Zero or less saves immediately.
+   */
+  static final long INTERVAL = SystemProperties.getLong(RunSaver.class.getName() + ".interval", 1000L); // 1 second
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RunSaver.class);
+
+  private final ConcurrentMap<String, Run<?, ?>> pending = new ConcurrentHashMap<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong saves = new AtomicLong();
+
+  /**
+   * Lookup the saver for this Jenkins instance.
+   */
+  @Nonnull
+  public static RunSaver get() {
+    return ExtensionList.lookupSingleton(RunSaver.class);
+  }
+
+  /**
+   * Request that the run is saved, along with any other changes made within the interval.
+   */
+  public void save(@Nonnull Run<?, ?> run) {
+    requests.incrementAndGet();
+    if (INTERVAL <= 0) {
+      doSave(run);
+      return;
+    }
+    pending.put(run.getExternalizableId(), run);
+    if (scheduled.compareAndSet(false, true)) {
+      Timer.get().schedule(this::flush, INTERVAL, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Save all runs with pending changes.
+   */
+  public void flush() {
+    scheduled.set(false);
+    for (String id : pending.keySet()) {
+      Run<?, ?> run = pending.remove(id);
+      if (run != null) {
+        doSave(run);
+      }
+    }
+  }
+
+  /**
+   * Save the run now, if it has pending changes.
+   */
+  public void flush(@Nonnull Run<?, ?> run) {
+    Run<?, ?> removed = pending.remove(run.getExternalizableId());
+    if (removed != null) {
+      doSave(removed);
+    }
+  }
+
+  /**
+   * Number of runs waiting to be saved.
+   */
+  public int getPending() {
+    return pending.size();
+  }
+
+  /**
+   * Number of saves requested.
+   */
+  public long getRequests() {
+    return requests.get();
+  }
+
+  /**
+   * Number of times a run was actually saved.
+   */
+  public long getSaves() {
+    return saves.get();
+  }
+
+  private void doSave(Run<?, ?> run) {
+    try {
+      run.save();
+      saves.incrementAndGet();
+    } catch (IOException e) {
+      LOGGER.warn(Messages.RunSaver_warn_save(run, e.getLocalizedMessage()));
+    }
+  }
+
+  /**
+   * Save any pending changes before Jenkins stops.
+   */
+  @Terminator
+  public static void shutdown() {
+    ExtensionList<RunSaver> savers = ExtensionList.lookup(RunSaver.class);
+    if (!savers.isEmpty()) {
+      savers.get(0).flush();
+    }
+  }
+
+  /**
+   * Saves pending changes once a run completes.
+   */
+  @Extension
+  public static final class Completion extends RunListener<Run<?, ?>> {
+    @Override
+    public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+      get().flush(run);
+    }
+  }
+}
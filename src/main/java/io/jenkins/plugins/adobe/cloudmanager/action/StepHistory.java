@@ -0,0 +1,270 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import io.adobe.cloudmanager.PipelineExecutionStepState;
+import io.adobe.cloudmanager.StepAction;
+
+/**
+ * Append-only history of the steps a Cloud Manager execution reached, stored alongside a run.
+ * <p>
+ *   Each step is one line of {@code action status hasLogs published}. The file is only read when a step is requested, at
+ *   which point it is read once, start to end, to index the offset and key of each line. Any step can then be read
+ *   without loading the others; a step which isn't cached is read along with the {@link #CACHE_SIZE} following it, so
+ *   listing the steps in order opens the file once per {@link #CACHE_SIZE} steps. Only the {@link #CACHE_SIZE} most
+ *   recently used steps are kept on the heap. A partial line left by a crash is ignored, and overwritten by the next
+ *   step.
+ * </p>
+ * <p>
+ *   Appending a step whose {@link CloudManagerBuildAction.PipelineStep#key() key} is already in the history has no
+ *   effect, so redelivered events don't grow it. Steps without a publish time have no key, and are always appended.
+ * </p>
+ */
+final class StepHistory {
+
+  /**
+   * Name of the history file, in the run's directory.
+   */
+  static final String FILE_NAME = "adobe-cloud-manager-steps.log";
+
+  /**
+   * Number of recently read or appended steps kept on the heap.
+   */
+  static final int CACHE_SIZE = 16;
+
+  private static final String NONE = "-";
+
+  private final File file;
+  // Start offset of each complete line, and the end of the last one; null until first read.
+  private long[] offsets;
+  // Recently read or appended steps, by index.
+  private final Map<Integer, CloudManagerBuildAction.PipelineStep> steps = new LinkedHashMap<Integer, CloudManagerBuildAction.PipelineStep>(CACHE_SIZE, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Integer, CloudManagerBuildAction.PipelineStep> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+  // Keys of all readable steps.
+  private final Set<String> keys = new HashSet<>();
+  private int size;
+  private long end;
+
+  StepHistory(@Nonnull File file) {
+    this.file = file;
+  }
+
+  /**
+   * Append the step to the history, unless a step with the same key is already in it.
+   *
+   * @return {@code true} if the step was appended
+   */
+  synchronized boolean append(@Nonnull CloudManagerBuildAction.PipelineStep step) throws IOException {
+    index();
+    String key = step.key();
+    if (key != null && keys.contains(key)) {
+      return false;
+    }
+    byte[] line = (encode(step) + "\n").getBytes(StandardCharsets.UTF_8);
+    File parent = file.getParentFile();
+    if (parent != null && !parent.isDirectory()) {
+      Files.createDirectories(parent.toPath());
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.seek(end); // Past the last complete line.
+      raf.write(line);
+      raf.setLength(end + line.length);
+      add(end, end + line.length);
+      steps.put(size - 1, step);
+    }
+    if (key != null) {
+      keys.add(key);
+    }
+    return true;
+  }
+
+  /**
+   * Number of steps in the history.
+   */
+  synchronized int size() throws IOException {
+    index();
+    return size;
+  }
+
+  /**
+   * The step at the index, or {@code null} if there is no such step or it can't be read.
+   */
+  @CheckForNull
+  synchronized CloudManagerBuildAction.PipelineStep get(int i) throws IOException {
+    index();
+    if (i < 0 || i >= size) {
+      return null;
+    }
+    CloudManagerBuildAction.PipelineStep cached = steps.get(i);
+    if (cached != null) {
+      return cached;
+    }
+    int last = Math.min(i + CACHE_SIZE, size);
+    CloudManagerBuildAction.PipelineStep step = null;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      raf.seek(offsets[i]);
+      byte[] lines = new byte[(int) (offset(last) - offsets[i])];
+      raf.readFully(lines);
+      // Read ahead, in reverse so the requested step is the most recently used.
+      for (int j = last - 1; j >= i; j--) {
+        int from = (int) (offsets[j] - offsets[i]);
+        int to = (int) (offset(j + 1) - offsets[i]) - 1; // Without the line break.
+        CloudManagerBuildAction.PipelineStep read = decode(new String(lines, from, to - from, StandardCharsets.UTF_8));
+        if (read != null) {
+          steps.put(j, read);
+        }
+        step = read;
+      }
+    }
+    return step;
+  }
+
+  /**
+   * All readable steps, in the order they were added.
+   */
+  @Nonnull
+  synchronized List<CloudManagerBuildAction.PipelineStep> list() throws IOException {
+    index();
+    List<CloudManagerBuildAction.PipelineStep> steps = new ArrayList<>(size);
+    if (size == 0) {
+      return steps;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      for (int i = 0; i < size; i++) { // Not past the last complete line.
+        String line = reader.readLine();
+        if (line == null) {
+          break;
+        }
+        CloudManagerBuildAction.PipelineStep step = decode(line);
+        if (step != null) {
+          steps.add(step);
+        }
+      }
+    }
+    return steps;
+  }
+
+  // Start offset of the line, or the end of the last one.
+  private long offset(int i) {
+    return i < size ? offsets[i] : end;
+  }
+
+  // Build the line and key index, once, in a single pass over the file.
+  private void index() throws IOException {
+    if (offsets != null) {
+      return;
+    }
+    offsets = new long[16];
+    steps.clear();
+    keys.clear();
+    size = 0;
+    end = 0;
+    if (!file.exists()) {
+      return;
+    }
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+      ByteArrayOutputStream line = new ByteArrayOutputStream();
+      long position = 0;
+      long start = 0;
+      int b;
+      while ((b = in.read()) != -1) {
+        position++;
+        if (b != '\n') {
+          line.write(b);
+          continue;
+        }
+        add(start, position);
+        start = position;
+        CloudManagerBuildAction.PipelineStep step = decode(line.toString(StandardCharsets.UTF_8.name()));
+        if (step != null) {
+          if (step.key() != null) {
+            keys.add(step.key());
+          }
+          steps.put(size - 1, step);
+        }
+        line.reset();
+      }
+    }
+  }
+
+  private void add(long start, long stop) {
+    if (size == offsets.length) {
+      offsets = Arrays.copyOf(offsets, size * 2);
+    }
+    offsets[size++] = start;
+    end = stop;
+  }
+
+  private static String encode(CloudManagerBuildAction.PipelineStep step) {
+    return String.join(" ",
+        step.getAction() == null ? NONE : step.getAction().name(),
+        step.getStatusState() == null ? NONE : step.getStatusState().name(),
+        Boolean.toString(step.isHasLogs()),
+        Long.toString(step.getPublished()));
+  }
+
+  @CheckForNull
+  private static CloudManagerBuildAction.PipelineStep decode(String line) {
+    String[] parts = line.split(" ");
+    if (parts.length < 3) {
+      return null;
+    }
+    try {
+      StepAction action = NONE.equals(parts[0]) ? null : StepAction.valueOf(parts[0]);
+      PipelineExecutionStepState.Status status = NONE.equals(parts[1]) ? null : PipelineExecutionStepState.Status.valueOf(parts[1]);
+      long published = parts.length > 3 ? Long.parseLong(parts[3]) : 0;
+      return new CloudManagerBuildAction.PipelineStep(action, status, Boolean.parseBoolean(parts[2]), published);
+    } catch (IllegalArgumentException e) {
+      return null; // Written by a version which knew more actions or status.
+    }
+  }
+}
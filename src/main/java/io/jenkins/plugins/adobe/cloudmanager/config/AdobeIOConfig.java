@@ -28,15 +28,16 @@ package io.jenkins.plugins.adobe.cloudmanager.config;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
-import org.apache.commons.lang3.StringUtils;
-
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Extension;
 import io.jenkins.plugins.adobe.cloudmanager.webhook.CloudManagerWebHook;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.SignatureVerifiers;
 import jenkins.model.GlobalConfiguration;
 import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
@@ -55,11 +56,17 @@ public class AdobeIOConfig extends GlobalConfiguration {
   // Protect against no configurations done, and NPE.
   private static final AdobeIOConfig EMPTY_CONFIG = new AdobeIOConfig(Collections.emptyList());
 
-  private List<AdobeIOProjectConfig> projectConfigs = new ArrayList<>();
+  private volatile List<AdobeIOProjectConfig> projectConfigs = new ArrayList<>();
+
+  // Lookups by name and IMS Org, replaced as a whole whenever the project list is.
+  private transient volatile Index index;
 
   // Webhook is disabled by default - make a conscious decision to enable it.
   private boolean webhookEnabled = false;
 
+  // Logs are a redirect to Cloud Manager by default, copies use disk space.
+  private boolean logCacheEnabled = false;
+
   @SuppressFBWarnings("MC_OVERRIDABLE_METHOD_CALL_IN_CONSTRUCTOR")
   public AdobeIOConfig() {
     getConfigFile().getXStream().alias("adobe-io-project-config", AdobeIOProjectConfig.class);
@@ -96,20 +103,33 @@ public class AdobeIOConfig extends GlobalConfiguration {
    */
   @CheckForNull
   public static AdobeIOProjectConfig projectConfigFor(@Nonnull String name) {
-    return AdobeIOConfig.configuration().getProjectConfigs()
-        .stream()
-        .filter(c -> StringUtils.equals(name, c.getName()))
-        .findFirst().orElse(null);
+    return AdobeIOConfig.configuration().index().byName.get(name);
+  }
+
+  /**
+   * Helper to find all AIO Project configs for an IMS Org.
+   * <p>
+   *   Used for matching incoming events to the project(s) which can process them.
+   * </p>
+   *
+   * @param imsOrg the IMS Organization Id
+   * @return configs, in configuration order; empty if none match
+   */
+  @Nonnull
+  public static List<AdobeIOProjectConfig> projectConfigsFor(@CheckForNull String imsOrg) {
+    return AdobeIOConfig.configuration().index().byImsOrg.getOrDefault(imsOrg, Collections.emptyList());
   }
 
   @Nonnull
   public List<AdobeIOProjectConfig> getProjectConfigs() {
-    return Collections.unmodifiableList(projectConfigs);
+    return index().configs;
   }
 
   @DataBoundSetter
   public void setProjectConfigs(@Nonnull List<AdobeIOProjectConfig> projectConfigs) {
     this.projectConfigs = projectConfigs;
+    this.index = new Index(projectConfigs);
+    SignatureVerifiers.invalidateAll();
   }
 
   public boolean isWebhookEnabled() {
@@ -121,6 +141,18 @@ public class AdobeIOConfig extends GlobalConfiguration {
     this.webhookEnabled = webhookEnabled;
   }
 
+  /**
+   * Flag to indicate if step logs are downloaded once and served from a copy stored with the build.
+   */
+  public boolean isLogCacheEnabled() {
+    return logCacheEnabled;
+  }
+
+  @DataBoundSetter
+  public void setLogCacheEnabled(boolean logCacheEnabled) {
+    this.logCacheEnabled = logCacheEnabled;
+  }
+
   public String getWebhookUrl() {
     return String.format("%s/%s/", Jenkins.get().getRootUrl(), CloudManagerWebHook.URL_NAME);
   }
@@ -141,8 +173,48 @@ public class AdobeIOConfig extends GlobalConfiguration {
   @Override
   public boolean configure(StaplerRequest req, JSONObject json) throws FormException {
     projectConfigs = new ArrayList<>(); // Form binding does not save empty lists properly.
+    SignatureVerifiers.invalidateAll();
     super.configure(req, json);
+    index = new Index(projectConfigs);
     save();
     return true;
   }
+
+  // Current index, rebuilt if the project list was replaced without the setter (e.g. loaded from disk).
+  @Nonnull
+  private Index index() {
+    Index current = index;
+    List<AdobeIOProjectConfig> configs = projectConfigs;
+    if (current == null || current.source != configs) {
+      current = new Index(configs);
+      index = current;
+    }
+    return current;
+  }
+
+  /**
+   * Immutable lookups of the project configurations. Built once per change, so reads need no locking.
+   */
+  private static final class Index {
+    private final List<AdobeIOProjectConfig> source;
+    private final List<AdobeIOProjectConfig> configs;
+    private final Map<String, AdobeIOProjectConfig> byName;
+    private final Map<String, List<AdobeIOProjectConfig>> byImsOrg;
+
+    private Index(@Nonnull List<AdobeIOProjectConfig> source) {
+      this.source = source;
+      this.configs = Collections.unmodifiableList(new ArrayList<>(source));
+      Map<String, AdobeIOProjectConfig> names = new HashMap<>();
+      Map<String, List<AdobeIOProjectConfig>> orgs = new HashMap<>();
+      for (AdobeIOProjectConfig cfg : configs) {
+        names.putIfAbsent(cfg.getName(), cfg); // First one wins, same as a search would.
+        if (cfg.getImsOrganizationId() != null) {
+          orgs.computeIfAbsent(cfg.getImsOrganizationId(), k -> new ArrayList<>()).add(cfg);
+        }
+      }
+      orgs.replaceAll((k, v) -> Collections.unmodifiableList(v));
+      this.byName = Collections.unmodifiableMap(names);
+      this.byImsOrg = Collections.unmodifiableMap(orgs);
+    }
+  }
 }
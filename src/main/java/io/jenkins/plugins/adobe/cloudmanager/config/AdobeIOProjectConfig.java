@@ -99,6 +99,7 @@ public class AdobeIOProjectConfig extends AbstractDescribableImpl<AdobeIOProject
   private String technicalAccountId;
   private String clientSecretCredentialsId;
   private String privateKeyCredentialsId;
+  private String journalUrl;
 
   @DataBoundConstructor
   public AdobeIOProjectConfig() {
@@ -178,6 +179,19 @@ public class AdobeIOProjectConfig extends AbstractDescribableImpl<AdobeIOProject
     this.privateKeyCredentialsId = privateKeyCredentialsId;
   }
 
+  /**
+   * Adobe IO Journaling API endpoint for this project's event registration. Events are only pulled from the journal if this is set.
+   */
+  @CheckForNull
+  public String getJournalUrl() {
+    return journalUrl;
+  }
+
+  @DataBoundSetter
+  public void setJournalUrl(String journalUrl) {
+    this.journalUrl = StringUtils.trimToNull(journalUrl);
+  }
+
   /**
    * Attempts to authenticate to the Adobe IO project and return an Access Token.
    *
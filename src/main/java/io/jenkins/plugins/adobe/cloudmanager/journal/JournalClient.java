@@ -0,0 +1,162 @@
+package io.jenkins.plugins.adobe.cloudmanager.journal;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import hudson.ProxyConfiguration;
+import hudson.util.Secret;
+import jenkins.util.SystemProperties;
+import lombok.Value;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+
+/**
+ * Minimal client for reading batches of events from an Adobe IO Journaling API endpoint.
+ */
+final class JournalClient {
+
+  private static final String EVENTS = "events";
+  private static final String EVENT = "event";
+  private static final String BODY = "body";
+  private static final String POSITION = "position";
+  private static final String PAGE = "_page";
+  private static final String LAST = "last";
+
+  /**
+   * Time to wait for a connection to the journal, in milliseconds.
+   */
+  static final int CONNECT_TIMEOUT = SystemProperties.getInteger(JournalClient.class.getName() + ".connectTimeout", 30000); // 30 seconds
+
+  /**
+   * Time to wait for bytes from the journal, in milliseconds.
+   */
+  static final int READ_TIMEOUT = SystemProperties.getInteger(JournalClient.class.getName() + ".readTimeout", 60000); // 60 seconds
+
+  private JournalClient() {
+  }
+
+  /**
+   * Read the next batch of events after the cursor.
+   *
+   * @param journalUrl the journal endpoint
+   * @param cursor     position of the last consumed event, or {@code null} to start at the oldest available event
+   * @param limit      maximum number of events to return
+   * @param token      the access token
+   * @param apiKey     the Adobe IO project's client id
+   * @return the batch of events, which is empty if there are no new events
+   */
+  @Nonnull
+  static Batch fetch(@Nonnull String journalUrl, @CheckForNull String cursor, int limit, @Nonnull Secret token, @Nonnull String apiKey) throws IOException {
+    StringBuilder url = new StringBuilder(journalUrl).append(journalUrl.contains("?") ? '&' : '?').append("limit=").append(limit);
+    if (StringUtils.isNotBlank(cursor)) {
+      url.append("&since=").append(URLEncoder.encode(cursor, StandardCharsets.UTF_8.name()));
+    }
+    URLConnection connection = ProxyConfiguration.open(new URL(url.toString()));
+    if (!(connection instanceof HttpURLConnection)) {
+      throw new IOException(Messages.JournalClient_error_protocol(journalUrl));
+    }
+    HttpURLConnection con = (HttpURLConnection) connection;
+    con.setConnectTimeout(CONNECT_TIMEOUT);
+    con.setReadTimeout(READ_TIMEOUT);
+    try {
+      con.setRequestProperty("Authorization", "Bearer " + token.getPlainText());
+      con.setRequestProperty("x-api-key", apiKey);
+      con.setRequestProperty("Accept", "application/json");
+      int status = con.getResponseCode();
+      if (status == HttpURLConnection.HTTP_NO_CONTENT) {
+        return new Batch(Collections.emptyList(), cursor);
+      }
+      if (status != HttpURLConnection.HTTP_OK) {
+        throw new IOException(Messages.JournalClient_error_status(journalUrl, status));
+      }
+      try (InputStream is = con.getInputStream()) {
+        return parse(IOUtils.toString(is, StandardCharsets.UTF_8), cursor);
+      }
+    } finally {
+      con.disconnect();
+    }
+  }
+
+  @Nonnull
+  static Batch parse(String body, @CheckForNull String cursor) throws IOException {
+    try {
+      JSONObject json = JSONObject.fromObject(body);
+      JSONArray entries = json.optJSONArray(EVENTS);
+      if (entries == null || entries.isEmpty()) {
+        return new Batch(Collections.emptyList(), cursor);
+      }
+      List<String> events = new ArrayList<>(entries.size());
+      String next = cursor;
+      for (int i = 0; i < entries.size(); i++) {
+        JSONObject entry = entries.getJSONObject(i);
+        JSONObject event = entry.optJSONObject(EVENT);
+        if (event != null && !event.isNullObject()) {
+          // Journal entries may wrap the delivered payload with headers.
+          JSONObject body = event.optJSONObject(BODY);
+          events.add((body != null && !body.isNullObject() ? body : event).toString());
+        }
+        next = StringUtils.defaultIfBlank(entry.optString(POSITION, null), next);
+      }
+      JSONObject page = json.optJSONObject(PAGE);
+      if (page != null && !page.isNullObject()) {
+        next = StringUtils.defaultIfBlank(page.optString(LAST, null), next);
+      }
+      return new Batch(Collections.unmodifiableList(events), next);
+    } catch (JSONException e) {
+      throw new IOException(Messages.JournalClient_error_parse(e.getLocalizedMessage()), e);
+    }
+  }
+
+  /**
+   * A batch of raw event payloads, and the cursor from which to read the next batch.
+   */
+  @Value
+  static class Batch {
+    List<String> events;
+    String cursor;
+
+    boolean isEmpty() {
+      return events.isEmpty();
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package io.jenkins.plugins.adobe.cloudmanager.journal;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import hudson.util.Secret;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.event.CloudManagerEvent;
+import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
+import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.CloudManagerWebHook;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.CloudManagerEventSubscriber;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.CloudManagerSubscriberEvent;
+import jenkins.util.SystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pulls Cloud Manager events from the Adobe IO Journaling API, as an alternative to receiving them on the {@link CloudManagerWebHook}.
+ * <p>
+ *   Every Adobe IO Project with a Journal URL is read in batches from the last consumed position, which is persisted
+ *   in {@link JournalCursors}. Events are passed to the {@link CloudManagerEventSubscriber} extensions the same way
+ *   as WebHook events. The cursor is advanced once a batch is queued, so events are delivered at least once.
+ * </p>
+ */
+@Extension
+public class JournalConsumer extends AsyncPeriodicWork {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JournalConsumer.class);
+
+  /**
+   * How often journals are read.
+   */
+  static final long RECURRENCE_PERIOD = SystemProperties.getLong(JournalConsumer.class.getName() + ".recurrencePeriod", TimeUnit.SECONDS.toMillis(15));
+
+  /**
+   * Maximum number of events requested in a single batch.
+   */
+  static final int BATCH_SIZE = SystemProperties.getInteger(JournalConsumer.class.getName() + ".batchSize", 100);
+
+  /**
+   * Maximum number of batches read from a single journal per run, so one busy journal can't starve the others.
+   */
+  static final int MAX_BATCHES = SystemProperties.getInteger(JournalConsumer.class.getName() + ".maxBatches", 10);
+
+  private transient JournalCursors cursors;
+
+  public JournalConsumer() {
+    super("Adobe IO Journal Consumer");
+  }
+
+  @Override
+  public long getRecurrencePeriod() {
+    return RECURRENCE_PERIOD;
+  }
+
+  @Override
+  protected void execute(TaskListener listener) {
+    poll();
+  }
+
+  /**
+   * Read all configured journals.
+   */
+  void poll() {
+    for (AdobeIOProjectConfig config : AdobeIOConfig.configuration().getProjectConfigs()) {
+      if (StringUtils.isNotBlank(config.getJournalUrl())) {
+        consume(config);
+      }
+    }
+  }
+
+  @Nonnull
+  synchronized JournalCursors getCursors() {
+    if (cursors == null) {
+      cursors = JournalCursors.load();
+    }
+    return cursors;
+  }
+
+  // Read batches from the project's journal until it is drained, or the batch limit is reached.
+  private void consume(AdobeIOProjectConfig config) {
+    final String journalUrl = config.getJournalUrl();
+    Secret token = config.authenticate();
+    if (token == null) {
+      LOGGER.error(Messages.JournalConsumer_error_authenticate(config.getName()));
+      return;
+    }
+    CloudManagerWebHook webhook = CloudManagerWebHook.get();
+    JournalCursors cursors = getCursors();
+    try {
+      for (int i = 0; i < MAX_BATCHES; i++) {
+        JournalClient.Batch batch = JournalClient.fetch(journalUrl, cursors.get(journalUrl), BATCH_SIZE, token, StringUtils.defaultString(config.getClientId()));
+        if (batch.isEmpty()) {
+          return;
+        }
+        for (String payload : batch.getEvents()) {
+          try {
+            CloudManagerEvent.EventType type = CloudManagerEvent.EventType.from(payload);
+            if (type == null) {
+              LOGGER.debug(Messages.JournalConsumer_debug_unknownType(journalUrl));
+              continue;
+            }
+            webhook.enqueue(new CloudManagerSubscriberEvent(config.getName(), type, payload));
+          } catch (CloudManagerApiException e) {
+            LOGGER.debug(Messages.JournalConsumer_debug_unknownType(journalUrl));
+          }
+        }
+        LOGGER.debug(Messages.JournalConsumer_debug_consumed(batch.getEvents().size(), journalUrl));
+        if (StringUtils.isNotBlank(batch.getCursor())) {
+          cursors.set(journalUrl, batch.getCursor());
+        }
+        if (batch.getEvents().size() < BATCH_SIZE) {
+          return;
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.error(Messages.JournalConsumer_error_read(journalUrl, e.getLocalizedMessage()));
+    }
+  }
+}
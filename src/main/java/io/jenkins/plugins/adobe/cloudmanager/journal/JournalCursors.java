@@ -0,0 +1,112 @@
+package io.jenkins.plugins.adobe.cloudmanager.journal;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.BulkChange;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import jenkins.model.Jenkins;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Positions of the last consumed event for each Adobe IO journal, persisted under {@code JENKINS_HOME}.
+ */
+public class JournalCursors implements Saveable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JournalCursors.class);
+
+  // Journal URL -> Position
+  private Map<String, String> positions = new HashMap<>();
+
+  /**
+   * Load the cursors from disk. Starts empty if they have never been saved, or can't be read.
+   */
+  @Nonnull
+  public static JournalCursors load() {
+    JournalCursors cursors = new JournalCursors();
+    XmlFile file = getConfigFile();
+    if (file.exists()) {
+      try {
+        file.unmarshal(cursors);
+      } catch (IOException e) {
+        LOGGER.warn(Messages.JournalCursors_warn_load(file, e.getLocalizedMessage()));
+      }
+    }
+    if (cursors.positions == null) {
+      cursors.positions = new HashMap<>();
+    }
+    return cursors;
+  }
+
+  @Nonnull
+  static XmlFile getConfigFile() {
+    return new XmlFile(Jenkins.XSTREAM2, new File(Jenkins.get().getRootDir(), JournalCursors.class.getName() + ".xml"));
+  }
+
+  /**
+   * Position of the last consumed event in the journal.
+   *
+   * @param journalUrl the journal endpoint
+   * @return the position, or {@code null} if nothing has been consumed
+   */
+  @CheckForNull
+  public synchronized String get(@Nonnull String journalUrl) {
+    return positions.get(journalUrl);
+  }
+
+  /**
+   * Update, and persist, the position of the last consumed event in the journal.
+   *
+   * @param journalUrl the journal endpoint
+   * @param position   the position
+   */
+  public synchronized void set(@Nonnull String journalUrl, @Nonnull String position) throws IOException {
+    if (position.equals(positions.put(journalUrl, position))) {
+      return;
+    }
+    save();
+  }
+
+  @Override
+  public synchronized void save() throws IOException {
+    if (BulkChange.contains(this)) {
+      return;
+    }
+    XmlFile file = getConfigFile();
+    file.write(this);
+    SaveableListener.fireOnChange(this, file);
+  }
+}
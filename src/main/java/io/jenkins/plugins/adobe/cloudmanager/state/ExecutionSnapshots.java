@@ -0,0 +1,167 @@
+package io.jenkins.plugins.adobe.cloudmanager.state;
+
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.adobe.cloudmanager.PipelineExecutionStepState;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerEventUtil;
+import jenkins.util.SystemProperties;
+import lombok.Value;
+
+/**
+ * Shared snapshots of the executions and step states retrieved by the event subscribers.
+ * <p>
+ *   Snapshots are kept per Cloud Manager execution and {@link ExecutionStateView#generation generation}, so all the
+ *   subscribers handling the events of an execution, and any redelivery of them, share one API call. Every new event
+ *   for the execution moves it to a new generation, so a snapshot which predates the latest event is never used. Step
+ *   states are also keyed by the step the event links to.
+ * </p>
+ * <p>
+ *   The generation must be captured before the API call, i.e. before calling {@link #execution} or {@link #stepState}:
+ *   a snapshot is then always at least as recent as the events of its generation.
+ * </p>
+ */
+@Extension
+public class ExecutionSnapshots {
+
+  /**
+   * Time a snapshot is kept, in milliseconds.
+   */
+  static final long TTL = SystemProperties.getLong(ExecutionSnapshots.class.getName() + ".ttl", 5000L); // 5 seconds
+
+  /**
+   * Time a snapshot of a finished execution or step is kept, in milliseconds.
+   */
+  static final long FINISHED_TTL = SystemProperties.getLong(ExecutionSnapshots.class.getName() + ".finishedTtl", 600000L); // 10 minutes
+
+  /**
+   * Number of snapshots above which expired ones are purged.
+   */
+  static final int MAX_ENTRIES = SystemProperties.getInteger(ExecutionSnapshots.class.getName() + ".maxEntries", 1000);
+
+  /**
+   * Time to wait for an API call made by another subscriber, in milliseconds, before making one.
+   */
+  static final long WAIT_TIMEOUT = SystemProperties.getLong(ExecutionSnapshots.class.getName() + ".waitTimeout", 60000L); // 60 seconds
+
+  private static final Set<PipelineExecution.Status> FINISHED_EXECUTION = Collections.unmodifiableSet(EnumSet.of(
+      PipelineExecution.Status.FINISHED, PipelineExecution.Status.ERROR, PipelineExecution.Status.FAILED, PipelineExecution.Status.CANCELLED));
+
+  private static final Set<PipelineExecutionStepState.Status> FINISHED_STEP = Collections.unmodifiableSet(EnumSet.of(
+      PipelineExecutionStepState.Status.FINISHED, PipelineExecutionStepState.Status.ERROR, PipelineExecutionStepState.Status.FAILED,
+      PipelineExecutionStepState.Status.ROLLED_BACK, PipelineExecutionStepState.Status.CANCELLED));
+
+  private final SnapshotCache<Key, PipelineExecution> executions =
+      new SnapshotCache<>(TTL, FINISHED_TTL, WAIT_TIMEOUT, MAX_ENTRIES, pe -> pe != null && isFinished(pe.getStatusState()));
+
+  private final SnapshotCache<Key, PipelineExecutionStepState> stepStates =
+      new SnapshotCache<>(TTL, FINISHED_TTL, WAIT_TIMEOUT, MAX_ENTRIES, state -> state != null && isFinished(state.getStatusState()));
+
+  /**
+   * Lookup the snapshots for this Jenkins instance.
+   */
+  @Nonnull
+  public static ExecutionSnapshots get() {
+    return ExtensionList.lookupSingleton(ExecutionSnapshots.class);
+  }
+
+  /**
+   * Whether or not the execution status is final.
+   */
+  public static boolean isFinished(@CheckForNull PipelineExecution.Status status) {
+    return status != null && FINISHED_EXECUTION.contains(status);
+  }
+
+  /**
+   * Whether or not the step status is final.
+   */
+  public static boolean isFinished(@CheckForNull PipelineExecutionStepState.Status status) {
+    return status != null && FINISHED_STEP.contains(status);
+  }
+
+  /**
+   * Get the execution referenced by the event, sharing any retrieval for the same generation.
+   *
+   * @param payload    the raw event payload
+   * @param generation the {@link ExecutionStateView#generation generation} of the execution, captured before this call
+   * @param loader     retrieves the execution from the API
+   * @throws InterruptedException if interrupted while waiting for another subscriber's retrieval
+   */
+  public PipelineExecution execution(@Nonnull String payload, long generation, @Nonnull SnapshotCache.Loader<PipelineExecution> loader) throws CloudManagerApiException, InterruptedException {
+    Optional<CloudManagerPipelineExecution> execution = CloudManagerEventUtil.executionFor(payload);
+    return execution.isPresent() ? executions.get(new Key(execution.get(), generation, null), loader) : loader.load();
+  }
+
+  /**
+   * Get the step state referenced by the event, sharing any retrieval for the same step and generation.
+   *
+   * @param payload    the raw event payload
+   * @param generation the {@link ExecutionStateView#generation generation} of the execution, captured before this call
+   * @param loader     retrieves the step state from the API
+   * @throws InterruptedException if interrupted while waiting for another subscriber's retrieval
+   */
+  public PipelineExecutionStepState stepState(@Nonnull String payload, long generation, @Nonnull SnapshotCache.Loader<PipelineExecutionStepState> loader) throws CloudManagerApiException, InterruptedException {
+    Optional<CloudManagerPipelineExecution> execution = CloudManagerEventUtil.executionFor(payload);
+    Optional<String> link = CloudManagerEventUtil.linkFor(payload);
+    return execution.isPresent() && link.isPresent() ? stepStates.get(new Key(execution.get(), generation, link.get()), loader) : loader.load();
+  }
+
+  /**
+   * Cache of execution snapshots.
+   */
+  @Nonnull
+  public SnapshotCache<?, PipelineExecution> getExecutions() {
+    return executions;
+  }
+
+  /**
+   * Cache of step state snapshots.
+   */
+  @Nonnull
+  public SnapshotCache<?, PipelineExecutionStepState> getStepStates() {
+    return stepStates;
+  }
+
+  @Value
+  private static class Key {
+    CloudManagerPipelineExecution execution;
+    long generation;
+    String step;
+  }
+}
@@ -0,0 +1,98 @@
+package io.jenkins.plugins.adobe.cloudmanager.state;
+
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.OffsetDateTime;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.adobe.cloudmanager.PipelineExecutionStepState;
+import io.adobe.cloudmanager.event.CloudManagerEvent;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import lombok.Value;
+
+/**
+ * Snapshot of what is locally known about a Cloud Manager pipeline execution.
+ * <p>
+ *   The execution and current step are the most recent API responses; the event fields are from the most recent
+ *   WebHook event. The refresh time is a {@link System#nanoTime()} value, so is only comparable within this JVM.
+ * </p>
+ * <p>
+ *   The generation is incremented by each event or invalidation, so a response can be checked against the events
+ *   which arrived while it was being fetched.
+ * </p>
+ */
+@Value
+@SuppressFBWarnings(value = "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE", justification = "Generated code.")
+public class ExecutionState {
+
+  @Nonnull
+  CloudManagerPipelineExecution execution;
+  @CheckForNull
+  PipelineExecution pipelineExecution;
+  @CheckForNull
+  PipelineExecutionStepState currentStep;
+  @CheckForNull
+  CloudManagerEvent.EventType lastEvent;
+  @CheckForNull
+  OffsetDateTime lastEventPublished;
+  long refreshed;
+  long generation;
+  boolean changed;
+
+  /**
+   * Status of the execution from the last API response.
+   */
+  @CheckForNull
+  public PipelineExecution.Status getStatus() {
+    return pipelineExecution == null ? null : pipelineExecution.getStatusState();
+  }
+
+  /**
+   * Action of the current step from the last API response.
+   */
+  @CheckForNull
+  public String getCurrentAction() {
+    return currentStep == null ? null : currentStep.getAction();
+  }
+
+  /**
+   * Whether or not this snapshot can no longer be trusted.
+   * <p>
+   *   A snapshot is stale if it was never refreshed from the API, if the execution changed since the last refresh, or
+   *   if the last refresh is older than the maximum age.
+   * </p>
+   *
+   * @param maxAge maximum age of the refresh, in milliseconds
+   */
+  public boolean isStale(long maxAge) {
+    return pipelineExecution == null || changed || System.nanoTime() - refreshed > maxAge * 1_000_000L;
+  }
+}
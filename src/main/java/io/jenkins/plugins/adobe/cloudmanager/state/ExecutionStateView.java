@@ -0,0 +1,165 @@
+package io.jenkins.plugins.adobe.cloudmanager.state;
+
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.adobe.cloudmanager.PipelineExecutionStepState;
+import io.adobe.cloudmanager.event.CloudManagerEvent;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import jenkins.util.SystemProperties;
+
+/**
+ * Bounded, in-memory view of Cloud Manager pipeline execution state.
+ * <p>
+ *   The view is updated from every WebHook event and from API responses, so steps can answer questions such as
+ *   <i>what is the current step?</i> without calling Cloud Manager. An event only marks the execution as changed, as
+ *   events do not contain the state itself; the next API response refreshes it.
+ * </p>
+ * <p>
+ *   The least recently used executions are dropped once the view holds {@link #MAX_ENTRIES}.
+ * </p>
+ */
+@Extension
+public class ExecutionStateView {
+
+  /**
+   * Maximum number of executions held in the view.
+   */
+  static final int MAX_ENTRIES = SystemProperties.getInteger(ExecutionStateView.class.getName() + ".maxEntries", 1000);
+
+  /**
+   * Maximum age of an API response before it is considered stale, in milliseconds.
+   */
+  static final long MAX_AGE = SystemProperties.getLong(ExecutionStateView.class.getName() + ".maxAge", 30000L); // 30 seconds
+
+  private final Map<CloudManagerPipelineExecution, ExecutionState> states = new LinkedHashMap<CloudManagerPipelineExecution, ExecutionState>(16, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<CloudManagerPipelineExecution, ExecutionState> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  /**
+   * Lookup the execution state view for this Jenkins instance.
+   */
+  @Nonnull
+  public static ExecutionStateView get() {
+    return ExtensionList.lookupSingleton(ExecutionStateView.class);
+  }
+
+  /**
+   * Record an event for the execution, marking any previous API response as stale.
+   */
+  public synchronized void onEvent(@Nonnull CloudManagerPipelineExecution execution, @Nonnull CloudManagerEvent.EventType type, @CheckForNull OffsetDateTime published) {
+    ExecutionState state = states.get(execution);
+    if (state == null) {
+      states.put(execution, new ExecutionState(execution, null, null, type, published, 0, 1, true));
+    } else {
+      states.put(execution, new ExecutionState(execution, state.getPipelineExecution(), state.getCurrentStep(), type, published, state.getRefreshed(), state.getGeneration() + 1, true));
+    }
+  }
+
+  /**
+   * Mark the execution as changed, such as after it was advanced or cancelled.
+   */
+  public synchronized void invalidate(@Nonnull CloudManagerPipelineExecution execution) {
+    ExecutionState state = states.get(execution);
+    if (state != null) {
+      states.put(execution, new ExecutionState(execution, state.getPipelineExecution(), state.getCurrentStep(), state.getLastEvent(), state.getLastEventPublished(), state.getRefreshed(), state.getGeneration() + 1, true));
+    }
+  }
+
+  /**
+   * The current generation of the execution; capture it before fetching state from the API, and pass it to {@link #update}.
+   */
+  public synchronized long generation(@Nonnull CloudManagerPipelineExecution execution) {
+    ExecutionState state = states.get(execution);
+    return state == null ? 0 : state.getGeneration();
+  }
+
+  /**
+   * Record an API response for the execution. Any previously known step is dropped, as it may no longer be current.
+   *
+   * @param generation the {@link #generation} of the execution before the response was fetched
+   */
+  public void update(@Nonnull CloudManagerPipelineExecution execution, long generation, @Nonnull PipelineExecution pipelineExecution) {
+    update(execution, generation, pipelineExecution, null);
+  }
+
+  /**
+   * Record an API response for the execution and a step. The step is only kept as the current step if it is running
+   * or waiting. The execution remains changed if an event arrived while the response was being fetched.
+   *
+   * @param generation the {@link #generation} of the execution before the response was fetched
+   */
+  public synchronized void update(@Nonnull CloudManagerPipelineExecution execution, long generation, @Nonnull PipelineExecution pipelineExecution, @CheckForNull PipelineExecutionStepState step) {
+    ExecutionState state = states.get(execution);
+    CloudManagerEvent.EventType lastEvent = state == null ? null : state.getLastEvent();
+    OffsetDateTime published = state == null ? null : state.getLastEventPublished();
+    long current = state == null ? 0 : state.getGeneration();
+    states.put(execution, new ExecutionState(execution, pipelineExecution, isCurrent(step) ? step : null, lastEvent, published, System.nanoTime(), current, current != generation));
+  }
+
+  private static boolean isCurrent(@CheckForNull PipelineExecutionStepState step) {
+    return step != null && (step.getStatusState() == PipelineExecutionStepState.Status.RUNNING || step.getStatusState() == PipelineExecutionStepState.Status.WAITING);
+  }
+
+  /**
+   * The state of the execution, regardless of its age.
+   */
+  @CheckForNull
+  public synchronized ExecutionState get(@Nonnull CloudManagerPipelineExecution execution) {
+    return states.get(execution);
+  }
+
+  /**
+   * The state of the execution, only if it has not gone stale.
+   */
+  @CheckForNull
+  public ExecutionState fresh(@Nonnull CloudManagerPipelineExecution execution) {
+    ExecutionState state = get(execution);
+    return state == null || state.isStale(MAX_AGE) ? null : state;
+  }
+
+  /**
+   * Number of executions currently held in the view.
+   */
+  public synchronized int size() {
+    return states.size();
+  }
+}
@@ -0,0 +1,273 @@
+package io.jenkins.plugins.adobe.cloudmanager.state;
+
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.Util;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk store of Cloud Manager executions which have finished, and so will not change.
+ * <p>
+ *   Each execution is written as a compressed JSON document, named by the SHA-256 of the execution's identifiers. The
+ *   store keeps an index of the documents in least recently used order, with the status of those already read. The index
+ *   is built from the directory listing in the background, the first time the store is used; until then lookups find
+ *   nothing. When the store holds more than {@link #MAX_ENTRIES} documents, the least recently read or written are
+ *   removed. Documents are read without holding the store's lock, so lookups from pages don't wait on each other.
+ * </p>
+ * <p>
+ *   The store is best effort: any failure to read or write only means Cloud Manager is asked again.
+ * </p>
+ */
+@Extension
+public class FinishedExecutionStore {
+
+  /**
+   * Maximum number of stored executions.
+   */
+  static final int MAX_ENTRIES = SystemProperties.getInteger(FinishedExecutionStore.class.getName() + ".maxEntries", 10000);
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FinishedExecutionStore.class);
+
+  private static final String EXTENSION = ".json.gz";
+  private static final String PROGRAM_ID = "programId";
+  private static final String PIPELINE_ID = "pipelineId";
+  private static final String ID = "id";
+  private static final String STATUS = "status";
+
+  private final File root;
+  private final int maxEntries;
+
+  // Status by file name, least recently used first; null until the document is read. Guarded by this.
+  private final Map<String, PipelineExecution.Status> index = new LinkedHashMap<>(16, 0.75f, true);
+  // Set once loading the index has started, complete once it is loaded. Guarded by this.
+  private CompletableFuture<Void> loading;
+
+  public FinishedExecutionStore() {
+    this(new File(Jenkins.get().getRootDir(), FinishedExecutionStore.class.getName()), MAX_ENTRIES);
+  }
+
+  FinishedExecutionStore(@Nonnull File root, int maxEntries) {
+    this.root = root;
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Lookup the store for this Jenkins instance.
+   */
+  @Nonnull
+  public static FinishedExecutionStore get() {
+    return ExtensionList.lookupSingleton(FinishedExecutionStore.class);
+  }
+
+  /**
+   * Store the execution, if it has finished. Waits for the index to be loaded.
+   */
+  public void put(@Nonnull CloudManagerPipelineExecution execution, @Nonnull PipelineExecution pe) {
+    PipelineExecution.Status status = pe.getStatusState();
+    if (!ExecutionSnapshots.isFinished(status)) {
+      return;
+    }
+    JSONObject document = new JSONObject();
+    document.put(PROGRAM_ID, execution.getProgramId());
+    document.put(PIPELINE_ID, execution.getPipelineId());
+    document.put(ID, execution.getExecutionId());
+    document.put(STATUS, status.name());
+    try {
+      loading().join();
+      File file = fileFor(execution);
+      write(file, document.toString().getBytes(StandardCharsets.UTF_8));
+      List<String> evicted = new ArrayList<>();
+      synchronized (this) {
+        index.put(file.getName(), status);
+        Iterator<String> names = index.keySet().iterator();
+        while (index.size() > maxEntries && names.hasNext()) {
+          evicted.add(names.next());
+          names.remove();
+        }
+      }
+      for (String name : evicted) {
+        Files.deleteIfExists(new File(root, name).toPath());
+      }
+    } catch (IOException e) {
+      LOGGER.warn(Messages.FinishedExecutionStore_warn_write(execution.getExecutionId(), e.getLocalizedMessage()));
+    }
+  }
+
+  /**
+   * The final status of the execution, or {@code null} if it isn't stored, or the index isn't loaded yet.
+   */
+  @CheckForNull
+  public PipelineExecution.Status getStatus(@Nonnull CloudManagerPipelineExecution execution) {
+    try {
+      File file = fileFor(execution);
+      synchronized (this) {
+        if (!loading().isDone() || !index.containsKey(file.getName())) {
+          return null;
+        }
+        PipelineExecution.Status status = index.get(file.getName()); // Also marks it as most recently used.
+        if (status != null) {
+          return status;
+        }
+      }
+      // Read outside of the lock, the document was indexed from the directory but not yet read.
+      JSONObject document = read(file);
+      if (document == null || !StringUtils.equals(execution.getProgramId(), document.optString(PROGRAM_ID))
+          || !StringUtils.equals(execution.getPipelineId(), document.optString(PIPELINE_ID))
+          || !StringUtils.equals(execution.getExecutionId(), document.optString(ID))) {
+        // Missing or corrupted, drop it so it can be stored again.
+        synchronized (this) {
+          index.remove(file.getName());
+        }
+        Files.deleteIfExists(file.toPath());
+        return null;
+      }
+      PipelineExecution.Status status = PipelineExecution.Status.valueOf(document.getString(STATUS));
+      synchronized (this) {
+        index.replace(file.getName(), status);
+      }
+      touch(file);
+      return status;
+    } catch (IOException | JSONException | IllegalArgumentException e) {
+      LOGGER.warn(Messages.FinishedExecutionStore_warn_read(execution.getExecutionId(), e.getLocalizedMessage()));
+      return null;
+    }
+  }
+
+  /**
+   * Number of stored executions, once the index is loaded.
+   */
+  public synchronized int size() {
+    return index.size();
+  }
+
+  /**
+   * Load the index in the background, if it isn't already.
+   *
+   * @return completes once the index is loaded
+   */
+  @Nonnull
+  synchronized CompletableFuture<Void> loading() {
+    if (loading == null) {
+      loading = CompletableFuture.runAsync(this::load, Timer.get());
+    }
+    return loading;
+  }
+
+  // Index the documents on disk, in order of last use; documents are only read when looked up.
+  private void load() {
+    File[] files = root.listFiles((dir, name) -> name.endsWith(EXTENSION));
+    if (files == null) {
+      return;
+    }
+    Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+    synchronized (this) {
+      for (File file : files) {
+        index.putIfAbsent(file.getName(), null);
+      }
+    }
+  }
+
+  private File fileFor(CloudManagerPipelineExecution execution) throws IOException {
+    String key = String.join("/", execution.getProgramId(), execution.getPipelineId(), execution.getExecutionId());
+    return new File(root, hash(key.getBytes(StandardCharsets.UTF_8)) + EXTENSION);
+  }
+
+  // Writes are not serialized, each uses its own temporary file.
+  private static void write(File file, byte[] content) throws IOException {
+    Util.createDirectories(file.getParentFile().toPath());
+    Path tmp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+    try {
+      try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+        out.write(content);
+      }
+      Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  // The document, or null if it is missing or can't be decompressed; the gzip trailer's checksum detects corruption.
+  @CheckForNull
+  private static JSONObject read(File file) {
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+      return JSONObject.fromObject(new String(IOUtils.toByteArray(in), StandardCharsets.UTF_8));
+    } catch (IOException | JSONException e) {
+      return null;
+    }
+  }
+
+  private static void touch(File file) {
+    if (!file.setLastModified(System.currentTimeMillis())) {
+      LOGGER.debug(Messages.FinishedExecutionStore_debug_touch(file));
+    }
+  }
+
+  private static String hash(byte[] content) throws IOException {
+    try {
+      return Util.toHexString(MessageDigest.getInstance("SHA-256").digest(content));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+  }
+}
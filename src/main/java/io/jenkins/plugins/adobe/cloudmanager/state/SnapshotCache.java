@@ -0,0 +1,201 @@
+package io.jenkins.plugins.adobe.cloudmanager.state;
+
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+
+import io.adobe.cloudmanager.CloudManagerApiException;
+
+/**
+ * Short lived cache of Cloud Manager API responses, with single-flight loading.
+ * <p>
+ *   Callers which ask for the same key while it is being loaded wait for, and share, that one load. They wait no longer
+ *   than the wait timeout, then load the value themselves. A loaded value is kept for the TTL; values which are
+ *   finished, and will not change, are kept for the longer finished TTL. Failed loads are not cached.
+ * </p>
+ */
+public class SnapshotCache<K, V> {
+
+  /**
+   * Loads a value from the Cloud Manager API.
+   */
+  @FunctionalInterface
+  public interface Loader<V> {
+    V load() throws CloudManagerApiException;
+  }
+
+  /**
+   * Time callers wait for a load by another caller, in milliseconds, unless set.
+   */
+  static final long DEFAULT_WAIT_TIMEOUT = 60000L; // 60 seconds
+
+  private final long ttl;
+  private final long finishedTtl;
+  private final long waitTimeout;
+  private final int maxEntries;
+  private final Predicate<V> finished;
+  private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong loads = new AtomicLong();
+
+  /**
+   * Create a new cache.
+   *
+   * @param ttl         time a value is kept, in milliseconds
+   * @param finishedTtl time a finished value is kept, in milliseconds
+   * @param maxEntries  number of entries above which expired entries are purged
+   * @param finished    whether or not a value is finished
+   */
+  public SnapshotCache(long ttl, long finishedTtl, int maxEntries, @Nonnull Predicate<V> finished) {
+    this(ttl, finishedTtl, DEFAULT_WAIT_TIMEOUT, maxEntries, finished);
+  }
+
+  /**
+   * Create a new cache.
+   *
+   * @param ttl         time a value is kept, in milliseconds
+   * @param finishedTtl time a finished value is kept, in milliseconds
+   * @param waitTimeout time to wait for a load by another caller, in milliseconds
+   * @param maxEntries  number of entries above which expired entries are purged
+   * @param finished    whether or not a value is finished
+   */
+  public SnapshotCache(long ttl, long finishedTtl, long waitTimeout, int maxEntries, @Nonnull Predicate<V> finished) {
+    this.ttl = ttl;
+    this.finishedTtl = finishedTtl;
+    this.waitTimeout = waitTimeout;
+    this.maxEntries = maxEntries;
+    this.finished = finished;
+  }
+
+  /**
+   * Get the value for the key, loading it if it isn't cached or has expired.
+   *
+   * @throws InterruptedException if interrupted while waiting for a load by another caller
+   */
+  public V get(@Nonnull K key, @Nonnull Loader<V> loader) throws CloudManagerApiException, InterruptedException {
+    final long now = System.nanoTime();
+    final Entry<V> created = new Entry<>();
+    Entry<V> entry = entries.compute(key, (k, e) -> e == null || e.isExpired(now) ? created : e);
+    if (entry != created) {
+      try {
+        V value = await(entry.future, waitTimeout);
+        hits.incrementAndGet();
+        return value;
+      } catch (TimeoutException e) {
+        // The shared load is stuck, don't hold this caller on it any longer.
+        loads.incrementAndGet();
+        return loader.load();
+      }
+    }
+
+    loads.incrementAndGet();
+    try {
+      V value = loader.load();
+      entry.expires = System.nanoTime() + (finished.test(value) ? finishedTtl : ttl) * 1_000_000L;
+      entry.future.complete(value);
+      purge();
+      return value;
+    } catch (Throwable t) {
+      // Any failure, including an Error, must release callers waiting on this load.
+      entries.remove(key, entry);
+      entry.future.completeExceptionally(t);
+      throw t;
+    }
+  }
+
+  /**
+   * Drop the cached value for the key.
+   */
+  public void invalidate(@Nonnull K key) {
+    entries.remove(key);
+  }
+
+  /**
+   * Number of requests answered by a cached or in flight load.
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Number of requests which loaded the value from the API.
+   */
+  public long getLoads() {
+    return loads.get();
+  }
+
+  /**
+   * Number of entries currently held.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  // Expired entries are only removed once the cache has grown, lookups replace them otherwise.
+  private void purge() {
+    if (entries.size() > maxEntries) {
+      final long now = System.nanoTime();
+      entries.entrySet().removeIf(e -> e.getValue().isExpired(now));
+    }
+  }
+
+  private static <V> V await(CompletableFuture<V> future, long timeout) throws CloudManagerApiException, InterruptedException, TimeoutException {
+    try {
+      return future.get(timeout, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof CloudManagerApiException) {
+        throw (CloudManagerApiException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private static final class Entry<V> {
+    private final CompletableFuture<V> future = new CompletableFuture<>();
+    // Set before the future is completed.
+    private volatile long expires;
+
+    private boolean isExpired(long now) {
+      return future.isCompletedExceptionally() || (future.isDone() && now - expires > 0);
+    }
+  }
+}
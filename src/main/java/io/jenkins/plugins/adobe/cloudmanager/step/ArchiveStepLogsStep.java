@@ -0,0 +1,141 @@
+package io.jenkins.plugins.adobe.cloudmanager.step;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import io.jenkins.plugins.adobe.cloudmanager.step.execution.ArchiveStepLogsExecution;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Downloads the logs of the finished Cloud Manager pipeline steps to the workspace.
+ * <p>
+ *   The pipeline execution needs to be in the Job/Build context. Only steps which Cloud Manager reported as finished,
+ *   with logs, are downloaded.
+ * </p>
+ */
+public class ArchiveStepLogsStep extends Step {
+
+  /**
+   * Default directory, in the workspace, to which logs are written.
+   */
+  static final String DEFAULT_DIR = "cloudmanager-logs";
+  /**
+   * Default number of logs downloaded at the same time.
+   */
+  static final int DEFAULT_PARALLELISM = 4;
+  /**
+   * Maximum number of logs downloaded at the same time.
+   */
+  static final int MAX_PARALLELISM = 10;
+
+  private String dir = DEFAULT_DIR;
+  private int parallelism = DEFAULT_PARALLELISM;
+  private boolean archive = false;
+
+  @DataBoundConstructor
+  public ArchiveStepLogsStep() {
+  }
+
+  /**
+   * Directory in the workspace to which the logs are written.
+   */
+  @Nonnull
+  public String getDir() {
+    return dir;
+  }
+
+  @DataBoundSetter
+  public void setDir(String dir) {
+    this.dir = StringUtils.defaultIfBlank(dir, DEFAULT_DIR);
+  }
+
+  /**
+   * Number of logs downloaded at the same time.
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  @DataBoundSetter
+  public void setParallelism(int parallelism) {
+    this.parallelism = Math.max(1, Math.min(parallelism, MAX_PARALLELISM));
+  }
+
+  /**
+   * Flag to indicate whether or not the downloaded logs are also archived as build artifacts.
+   */
+  public boolean isArchive() {
+    return archive;
+  }
+
+  @DataBoundSetter
+  public void setArchive(boolean archive) {
+    this.archive = archive;
+  }
+
+  @Override
+  public StepExecution start(StepContext context) throws Exception {
+    return new ArchiveStepLogsExecution(context, dir, parallelism, archive);
+  }
+
+  @Extension
+  public static final class DescriptorImpl extends StepDescriptor {
+
+    @Override
+    public String getFunctionName() {
+      return "acmArchiveStepLogs";
+    }
+
+    @Nonnull
+    @Override
+    public String getDisplayName() {
+      return Messages.ArchiveStepLogsStep_displayName();
+    }
+
+    @Override
+    public Set<? extends Class<?>> getRequiredContext() {
+      return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(Run.class, TaskListener.class, FilePath.class, Launcher.class)));
+    }
+  }
+}
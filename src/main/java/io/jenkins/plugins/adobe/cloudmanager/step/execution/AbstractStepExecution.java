@@ -35,9 +35,11 @@ import hudson.AbortException;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import io.adobe.cloudmanager.CloudManagerApi;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
 import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
+import io.jenkins.plugins.adobe.cloudmanager.util.AsyncCloudManagerApi;
 import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
@@ -75,6 +77,13 @@ public abstract class AbstractStepExecution extends StepExecution {
     return id;
   }
 
+  /**
+   * Indicates if the run of this execution is associated with the Cloud Manager pipeline execution.
+   */
+  public boolean isFor(@Nonnull CloudManagerPipelineExecution cmExecution) throws IOException, InterruptedException {
+    return cmExecution.equals(getBuildData().getCmExecution());
+  }
+
 
   /**
    * Retrieve the configured Adobe IO Project configured based on the information configured in the Run.
@@ -106,6 +115,15 @@ public abstract class AbstractStepExecution extends StepExecution {
     return CloudManagerApiUtil.createApi().apply(getBuildData().getAioProjectName()).orElseThrow(() -> new AbortException(Messages.AbstractStepExecution_error_missingBuildData()));
   }
 
+  /**
+   * Build a non-blocking Cloud Manager API based on the configured Adobe IO Project.
+   */
+  @Nonnull
+  protected AsyncCloudManagerApi getAsyncApi() throws IOException, InterruptedException {
+    final String aioProjectName = getBuildData().getAioProjectName();
+    return AsyncCloudManagerApi.of(() -> CloudManagerApiUtil.createApi().apply(aioProjectName).orElseThrow(() -> new AbortException(Messages.AbstractStepExecution_error_missingBuildData())));
+  }
+
   /**
    * Helper to get the Run from the context.
    */
@@ -26,25 +26,43 @@ package io.jenkins.plugins.adobe.cloudmanager.step.execution;
  * #L%
  */
 
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import hudson.AbortException;
-import io.adobe.cloudmanager.CloudManagerApi;
 import io.adobe.cloudmanager.CloudManagerApiException;
 import io.adobe.cloudmanager.PipelineExecution;
 import io.adobe.cloudmanager.PipelineExecutionStepState;
 import io.adobe.cloudmanager.StepAction;
 import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.state.ExecutionState;
+import io.jenkins.plugins.adobe.cloudmanager.state.ExecutionStateView;
+import io.jenkins.plugins.adobe.cloudmanager.util.AsyncCloudManagerApi;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
 
 /**
  * Execution for a {@link io.jenkins.plugins.adobe.cloudmanager.step.AdvancePipelineStep}, advancing the remote Cloud Manager pipeline.
+ * <p>
+ *   The current step is read from the {@link ExecutionStateView} when it is fresh, otherwise it is retrieved from Cloud Manager.
+ *   API calls are composed on the {@link AsyncCloudManagerApi}, so no Pipeline thread waits on the network.
+ * </p>
+ * <p>
+ *   After a restart the advance is attempted again. If it was already sent before the restart, and the pipeline has
+ *   since moved on, the step completes rather than failing on the new state.
+ * </p>
  */
 public class AdvancePipelineExecution extends AbstractStepExecution {
 
   private static final long serialVersionUID = 1L;
 
   private final List<StepAction> actions;
+  // Whether or not the advance was sent to Cloud Manager.
+  private volatile boolean requested;
+  private transient volatile CompletableFuture<?> pending;
+  private transient volatile boolean stopped;
 
   public AdvancePipelineExecution(StepContext context, List<StepAction> actions) {
     super(context);
@@ -53,27 +71,78 @@ public class AdvancePipelineExecution extends AbstractStepExecution {
 
   @Override
   public void doStart() throws Exception {
-    try {
-      CloudManagerPipelineExecution build = getBuildData().getCmExecution();
-      CloudManagerApi api = getApi();
-      PipelineExecution pe = api.getExecution(build.getProgramId(), build.getPipelineId(), build.getExecutionId());
+    advance();
+  }
+
+  @Override
+  public void doResume() throws IOException, InterruptedException {
+    advance();
+  }
+
+  @Override
+  public void doStop() throws Exception {
+    // Stopping fails the step, the pending calls must not complete it again.
+    stopped = true;
+    CompletableFuture<?> future = pending;
+    if (future != null) {
+      future.cancel(true);
+    }
+  }
 
-      PipelineExecutionStepState step = api.getCurrentStep(pe);
-      StepAction stepAction = StepAction.valueOf(step.getAction());
-      if (actions.contains(stepAction)) {
-        getTaskListener().getLogger().println(Messages.AdvancePipelineExecution_info_advancingPipeline(stepAction));
-        api.advanceExecution(pe);
+  private void advance() throws IOException, InterruptedException {
+    final CloudManagerPipelineExecution build = getBuildData().getCmExecution();
+    final PrintStream logger = getTaskListener().getLogger();
+    final AsyncCloudManagerApi api = getAsyncApi();
+    final ExecutionStateView view = ExecutionStateView.get();
+    final ExecutionState state = view.fresh(build);
+
+    final CompletableFuture<Current> current;
+    if (state != null && state.getCurrentStep() != null) {
+      current = CompletableFuture.completedFuture(new Current(state.getPipelineExecution(), state.getCurrentStep()));
+    } else {
+      final long generation = view.generation(build);
+      current = api.getExecution(build).thenCompose(pe -> api.getCurrentStep(pe).thenApply(step -> {
+        view.update(build, generation, pe, step);
+        return new Current(pe, step);
+      }));
+    }
+    final CompletableFuture<?> advanced = current.thenCompose(c -> {
+      StepAction stepAction = StepAction.valueOf(c.step.getAction());
+      if (!actions.contains(stepAction)) {
+        if (requested) {
+          // Advanced before a restart.
+          return CompletableFuture.completedFuture(null);
+        }
+        throw new CompletionException(new AbortException(Messages.AdvancePipelineExecution_error_invalidPipelineState(stepAction)));
+      }
+      logger.println(Messages.AdvancePipelineExecution_info_advancingPipeline(stepAction));
+      requested = true;
+      getContext().saveState();
+      return api.advanceExecution(c.pe);
+    });
+    pending = advanced;
+    advanced.whenComplete((result, t) -> {
+      if (stopped) {
+        return;
+      }
+      if (t == null) {
+        view.invalidate(build);
         getContext().onSuccess(null);
       } else {
-        throw new AbortException(Messages.AdvancePipelineExecution_error_invalidPipelineState(stepAction));
+        Throwable cause = AsyncCloudManagerApi.causeOf(t);
+        getContext().onFailure(cause instanceof CloudManagerApiException ? new AbortException(cause.getLocalizedMessage()) : cause);
       }
-    } catch (CloudManagerApiException e) {
-      throw new AbortException(e.getLocalizedMessage());
-    }
+    });
   }
 
-  @Override
-  public boolean isAsync() {
-    return false;
+  // The execution and its current step.
+  private static final class Current {
+    private final PipelineExecution pe;
+    private final PipelineExecutionStepState step;
+
+    private Current(PipelineExecution pe, PipelineExecutionStepState step) {
+      this.pe = pe;
+      this.step = step;
+    }
   }
 }
@@ -0,0 +1,265 @@
+package io.jenkins.plugins.adobe.cloudmanager.step.execution;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.AbortException;
+import hudson.FilePath;
+import hudson.Launcher;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
+import io.jenkins.plugins.adobe.cloudmanager.state.ExecutionSnapshots;
+import io.jenkins.plugins.adobe.cloudmanager.util.AsyncCloudManagerApi;
+import io.jenkins.plugins.adobe.cloudmanager.util.LogDownload;
+import jenkins.util.BuildListenerAdapter;
+import jenkins.util.SystemProperties;
+import lombok.Value;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+
+/**
+ * Execution for a {@link io.jenkins.plugins.adobe.cloudmanager.step.ArchiveStepLogsStep}.
+ * Downloads the logs of the finished Cloud Manager steps to the workspace, and optionally archives them.
+ * <p>
+ *   The logs are those of the finished steps recorded on the build. If none were recorded, such as when no step waited on
+ *   step events, and the execution has finished, they are those of its finished step states with logs instead.
+ * </p>
+ * <p>
+ *   Logs are downloaded by a fixed number of lanes, each starting its next download once the previous one is written.
+ *   Downloads, and archiving them, run on the bounded {@link LogDownload} pool, shared by all builds, so long transfers never
+ *   hold the API pool. A log which can't be downloaded is reported, and does not stop the others.
+ * </p>
+ */
+public class ArchiveStepLogsExecution extends AbstractStepExecution {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Time a single log download may take, in milliseconds.
+   */
+  static final long TIMEOUT = SystemProperties.getLong(ArchiveStepLogsExecution.class.getName() + ".timeout", 600000L); // 10 minutes
+
+  private final String dir;
+  private final int parallelism;
+  private final boolean archive;
+  private transient volatile CompletableFuture<?> pending;
+  private transient volatile boolean stopped;
+
+  public ArchiveStepLogsExecution(StepContext context, String dir, int parallelism, boolean archive) {
+    super(context);
+    this.dir = dir;
+    this.parallelism = parallelism;
+    this.archive = archive;
+  }
+
+  @Override
+  public void doStart() throws Exception {
+    download();
+  }
+
+  @Override
+  public void doResume() throws IOException, InterruptedException {
+    download(); // Partial downloads are not kept, start over.
+  }
+
+  @Override
+  public void doStop() throws Exception {
+    stopped = true;
+    CompletableFuture<?> running = pending;
+    if (running != null) {
+      running.cancel(true);
+    }
+  }
+
+  /**
+   * The logs of the finished steps, in the order the steps were reached.
+   */
+  @Nonnull
+  static List<LogFile> logFiles(@Nonnull CloudManagerBuildAction data) {
+    Set<StepAction> actions = new LinkedHashSet<>();
+    for (CloudManagerBuildAction.PipelineStep step : data.getSteps()) {
+      if (step != null && step.isHasLogs() && ExecutionSnapshots.isFinished(step.getStatusState())) {
+        actions.add(step.getAction());
+      }
+    }
+    return logFiles(actions);
+  }
+
+  @Nonnull
+  private static List<LogFile> logFiles(@Nonnull Set<StepAction> actions) {
+    List<LogFile> files = new ArrayList<>();
+    for (StepAction action : actions) {
+      files.add(new LogFile(action, null, action.name() + ".log"));
+      if (action == StepAction.codeQuality) {
+        files.add(new LogFile(action, CloudManagerBuildAction.SONAR_LOG, action.name() + "-sonar.log"));
+      }
+    }
+    return files;
+  }
+
+  private void download() throws IOException, InterruptedException {
+    final FilePath workspace = Objects.requireNonNull(getContext().get(FilePath.class));
+    final Batch batch = new Batch(getAsyncApi(), getBuildData().getCmExecution(), workspace.child(dir), getTaskListener().getLogger());
+    final List<LogFile> recorded = logFiles(getBuildData());
+    final List<LogFile> files = new ArrayList<>();
+    pending = (recorded.isEmpty() ? discover(batch) : CompletableFuture.completedFuture(recorded))
+        .thenCompose(found -> {
+          files.addAll(found);
+          batch.queue.addAll(found);
+          batch.logger.println(Messages.ArchiveStepLogsExecution_start(found.size(), batch.target.getRemote()));
+          CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(parallelism, found.size())];
+          for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = batch.next();
+          }
+          return CompletableFuture.allOf(lanes);
+        })
+        .thenCompose(v -> archive && !batch.downloaded.isEmpty() ? LogDownload.submit(() -> archive(workspace, batch), TIMEOUT) : CompletableFuture.completedFuture(null))
+        .whenComplete((r, t) -> {
+          if (stopped) {
+            return;
+          }
+          if (t != null) {
+            fail(AsyncCloudManagerApi.causeOf(t));
+          } else {
+            batch.logger.println(Messages.ArchiveStepLogsExecution_complete(batch.downloaded.size(), files.size()));
+            getContext().onSuccess(null);
+          }
+        });
+  }
+
+  // No finished steps were recorded, look up which steps of a finished execution have a log from its step states.
+  private CompletableFuture<List<LogFile>> discover(Batch batch) {
+    return batch.api.getExecution(batch.execution).thenCompose(pe -> {
+      if (!ExecutionSnapshots.isFinished(pe.getStatusState())) {
+        batch.logger.println(Messages.ArchiveStepLogsExecution_warn_running());
+        return CompletableFuture.completedFuture(new ArrayList<>());
+      }
+      batch.logger.println(Messages.ArchiveStepLogsExecution_discover());
+      List<CompletableFuture<StepAction>> lookups = new ArrayList<>();
+      for (StepAction action : StepAction.values()) {
+        lookups.add(batch.api.getStepState(pe, action).handle((state, t) ->
+            state != null && state.hasLogs() && ExecutionSnapshots.isFinished(state.getStatusState()) ? action : null));
+      }
+      return CompletableFuture.allOf(lookups.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+        Set<StepAction> actions = new LinkedHashSet<>();
+        for (CompletableFuture<StepAction> lookup : lookups) {
+          StepAction action = lookup.join();
+          if (action != null) {
+            actions.add(action);
+          }
+        }
+        return logFiles(actions);
+      });
+    });
+  }
+
+  private Void archive(FilePath workspace, Batch batch) throws IOException, InterruptedException {
+    Map<String, String> artifacts = new TreeMap<>();
+    for (String name : batch.downloaded) {
+      String path = dir + "/" + name;
+      artifacts.put(path, path);
+    }
+    getRun().pickArtifactManager().archive(workspace, Objects.requireNonNull(getContext().get(Launcher.class)), BuildListenerAdapter.wrap(getTaskListener()), artifacts);
+    batch.logger.println(Messages.ArchiveStepLogsExecution_archived(artifacts.size()));
+    return null;
+  }
+
+  private void fail(Throwable cause) {
+    if (cause instanceof AbortException) {
+      getContext().onFailure(cause);
+    } else if (cause instanceof CloudManagerApiException) {
+      getContext().onFailure(new AbortException(Messages.ArchiveStepLogsExecution_error_CloudManagerApiException(cause.getLocalizedMessage())));
+    } else {
+      getContext().onFailure(new AbortException(cause.getLocalizedMessage()));
+    }
+  }
+
+  /**
+   * A log to download.
+   */
+  @Value
+  static class LogFile {
+    StepAction action;
+    @CheckForNull
+    String fileName;
+    String name;
+  }
+
+  // State shared by the download lanes of one run of this execution.
+  private final class Batch {
+    private final AsyncCloudManagerApi api;
+    private final CloudManagerPipelineExecution execution;
+    private final FilePath target;
+    private final PrintStream logger;
+    private final Queue<LogFile> queue = new ConcurrentLinkedQueue<>();
+    private final SortedSet<String> downloaded = new ConcurrentSkipListSet<>();
+
+    private Batch(AsyncCloudManagerApi api, CloudManagerPipelineExecution execution, FilePath target, PrintStream logger) {
+      this.api = api;
+      this.execution = execution;
+      this.target = target;
+      this.logger = logger;
+    }
+
+    // Download the next log in the queue, then continue with the one after it.
+    private CompletableFuture<Void> next() {
+      final LogFile file = queue.poll();
+      if (file == null || stopped) {
+        return CompletableFuture.completedFuture(null);
+      }
+      return api.getStepLogUrl(execution, file.getAction(), file.getFileName())
+          .thenCompose(url -> LogDownload.submit(() -> LogDownload.download(url, target.child(file.getName())), TIMEOUT))
+          .handle((count, t) -> {
+            if (t != null) {
+              logger.println(Messages.ArchiveStepLogsExecution_warn_download(file.getName(), AsyncCloudManagerApi.causeOf(t).getLocalizedMessage()));
+            } else {
+              downloaded.add(file.getName());
+              logger.println(Messages.ArchiveStepLogsExecution_downloaded(file.getName(), count));
+            }
+            return (Void) null;
+          })
+          .thenCompose(v -> next());
+    }
+  }
+}
@@ -29,7 +29,6 @@ package io.jenkins.plugins.adobe.cloudmanager.step.execution;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
@@ -40,7 +39,6 @@ import org.jenkinsci.plugins.workflow.steps.BodyExecutionCallback;
 import org.jenkinsci.plugins.workflow.steps.FlowInterruptedException;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
 import org.jenkinsci.plugins.workflow.steps.StepExecution;
-import org.jenkinsci.plugins.workflow.steps.StepExecutionIterator;
 import static io.adobe.cloudmanager.PipelineExecution.Status.*;
 
 /**
@@ -130,19 +128,13 @@ public class PipelineEndExecution extends AbstractStepExecution {
   public void occurred(@Nonnull PipelineExecution pe) throws IOException, InterruptedException {
     status = pe.getStatusState();
     getContext().saveState();
-    StepExecutionIterator.all().stream().map((sei) -> {
-      sei.apply((se) -> {
-        try {
-          if (se instanceof PipelineStepStateExecution && ((PipelineStepStateExecution) se).getRun() == getRun()) {
-            ((PipelineStepStateExecution) se).doEndQuietly();
-          }
-        } catch (IOException | InterruptedException e) {
-          getContext().onFailure(e);
-        }
-        return null;
-      });
-      return sei;
-    }).collect(Collectors.toList());
+    for (PipelineStepStateExecution execution : StepStateExecutions.get().forRun(getRun().getExternalizableId())) {
+      try {
+        execution.doEndQuietly();
+      } catch (IOException | InterruptedException e) {
+        getContext().onFailure(e);
+      }
+    }
     getTaskListener().getLogger().println(Messages.PipelineEndExecution_occurred(pe.getId(), pe.getStatusState()));
     if (empty) {
       end();
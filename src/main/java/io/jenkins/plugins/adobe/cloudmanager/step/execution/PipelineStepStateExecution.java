@@ -27,12 +27,12 @@ package io.jenkins.plugins.adobe.cloudmanager.step.execution;
  */
 
 import java.io.IOException;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.TimeoutException;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.servlet.ServletException;
@@ -53,6 +53,8 @@ import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
 import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
 import io.jenkins.plugins.adobe.cloudmanager.action.PipelineStepDecisionAction;
 import io.jenkins.plugins.adobe.cloudmanager.action.PipelineWaitingAction;
+import io.jenkins.plugins.adobe.cloudmanager.action.RunSaver;
+import io.jenkins.plugins.adobe.cloudmanager.state.ExecutionStateView;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.steps.FlowInterruptedException;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
@@ -89,6 +91,8 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
 
   // Used as the reason for a waiting action. If its set - then we're waiting for user input.
   private StepAction reason;
+  // Run this execution is indexed under, see StepStateExecutions.
+  private String runId;
 
   public PipelineStepStateExecution(StepContext context, Set<StepAction> actions, boolean autoApprove, boolean advance, boolean waitingPause) {
     super(context);
@@ -106,12 +110,20 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
   // Execution Logic
   @Override
   public void doStart() throws Exception {
+    runId = getRun().getExternalizableId();
+    StepStateExecutions.get().add(runId, this);
     getTaskListener().getLogger().println(Messages.PipelineStepStateExecution_waiting());
   }
 
   @Override
   public void doResume() throws IOException, InterruptedException {
-    if (reason == null) {
+    if (runId == null) {
+      runId = getRun().getExternalizableId();
+    }
+    StepStateExecutions.get().add(runId, this);
+    if (reason != null) {
+      restoreWaiting();
+    } else {
       getTaskListener().getLogger().println(Messages._PipelineStepStateExecution_waiting());
     }
   }
@@ -119,6 +131,15 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
   @Override
   public void doStop() throws Exception {
     doFinish();
+    unindex();
+  }
+
+  // Index as soon as this is loaded, so a pipeline end event received right after a restart will still find it.
+  private Object readResolve() {
+    if (runId != null) {
+      StepStateExecutions.get().add(runId, this);
+    }
+    return this;
   }
 
   // Methods for filtering incoming events
@@ -148,12 +169,20 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
   }
 
   // Event handling
-  public void process(PipelineExecution pe, PipelineExecutionStepState stepState) throws IOException, InterruptedException, TimeoutException {
+  public void process(PipelineExecution pe, PipelineExecutionStepState stepState) throws IOException, InterruptedException {
+    process(pe, stepState, null);
+  }
+
+  /**
+   * Process the step state, reported by an event published at the specified time. The time identifies redelivered
+   * events, so they are only recorded once in the build's step history.
+   */
+  public void process(PipelineExecution pe, PipelineExecutionStepState stepState, @CheckForNull OffsetDateTime published) throws IOException, InterruptedException {
     if (isApplicable(pe) && isApplicable(stepState)) {
       if (waitingPause && stepState.getStatusState() == WAITING) {
-        waiting(pe, stepState);
+        waiting(pe, stepState, published);
       } else {
-        occurred(pe, stepState);
+        occurred(pe, stepState, published);
       }
     }
   }
@@ -161,19 +190,19 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
   /**
    * Process an <i>occurred</i> event. Essentially, an event that does not require user input, but that should generate some informational message.
    */
-  private void occurred(@Nonnull PipelineExecution pe, @Nonnull PipelineExecutionStepState state) throws IOException, InterruptedException {
+  private void occurred(@Nonnull PipelineExecution pe, @Nonnull PipelineExecutionStepState state, @CheckForNull OffsetDateTime published) throws IOException, InterruptedException {
     try {
-      PipelineExecutionStepState.Status status = logStepAction(pe, state);
+      PipelineExecutionStepState.Status status = logStepAction(pe, state, published);
       doFinish();
       if (advance && (ENDED_STATUS.contains(status) || status == WAITING)) {
         if (status == FINISHED || status == ROLLED_BACK || status == WAITING) {
-          getContext().onSuccess(null);
+          succeed();
         } else if (status == CANCELLED) {
           FlowInterruptedException e = new FlowInterruptedException(Result.ABORTED, new Cancellation());
-          getContext().onFailure(e);
+          fail(e);
         } else {
           FlowInterruptedException e = new FlowInterruptedException(Result.FAILURE, new io.jenkins.plugins.adobe.cloudmanager.step.execution.Failure());
-          getContext().onFailure(e);
+          fail(e);
         }
       }
     } catch (IllegalArgumentException e) {
@@ -184,10 +213,10 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
   /**
    * Process an <i>waiting</i> event. Waiting events pause this step/pipeline/run until a user action is taken.
    */
-  private void waiting(@Nonnull PipelineExecution pe, @Nonnull PipelineExecutionStepState state) throws IOException, InterruptedException, TimeoutException {
+  private void waiting(@Nonnull PipelineExecution pe, @Nonnull PipelineExecutionStepState state, @CheckForNull OffsetDateTime published) throws IOException, InterruptedException {
     try {
       reason = StepAction.valueOf(state.getAction());
-      logStepAction(pe, state);
+      logStepAction(pe, state, published);
       if (WAITING_ACTIONS.contains(reason)) {
         if (autoApprove) {
           approveStep();
@@ -202,15 +231,18 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
     } catch (IllegalArgumentException e) {
       getTaskListener().getLogger().println(Messages.PipelineStepStateExecution_unknownStepAction(state.getAction()));
     } catch (CloudManagerApiException e) {
-      getContext().onFailure(e);
+      fail(e);
     }
   }
 
-  private PipelineExecutionStepState.Status logStepAction(@Nonnull PipelineExecution pe, @Nonnull PipelineExecutionStepState state) throws IOException, InterruptedException {
+  private PipelineExecutionStepState.Status logStepAction(@Nonnull PipelineExecution pe, @Nonnull PipelineExecutionStepState state, @CheckForNull OffsetDateTime published) throws IOException, InterruptedException {
     StepAction action = StepAction.valueOf(state.getAction());
     PipelineExecutionStepState.Status status = state.getStatusState();
     getTaskListener().getLogger().println(Messages.PipelineStepStateExecution_occurred(pe.getId(), action, status));
-    getBuildData().addStep(new CloudManagerBuildAction.PipelineStep(action, status, isHasLogs(state, status)));
+    long time = published == null ? 0 : published.toInstant().toEpochMilli();
+    if (getBuildData().addStep(new CloudManagerBuildAction.PipelineStep(action, status, isHasLogs(state, status), time))) {
+      RunSaver.get().save(getRun());
+    }
     return status;
   }
 
@@ -263,10 +295,11 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
       preCancelCheck();
       CloudManagerPipelineExecution cmExecution = getRun().getAction(CloudManagerBuildAction.class).getCmExecution();
       getApi().cancelExecution(cmExecution.getProgramId(), cmExecution.getPipelineId(), cmExecution.getExecutionId());
+      ExecutionStateView.get().invalidate(cmExecution);
       doFinish();
     } catch (CloudManagerApiException e) {
       doFinish();
-      getContext().onFailure(e);
+      fail(e);
     }
     return HttpResponses.redirectTo("../..");
   }
@@ -282,7 +315,7 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
     // This may be blocking VM threads....
     getTaskListener().getLogger().println(Messages.PipelineStepStateExecution_endQuietly());
     doFinish();
-    getContext().onSuccess(null);
+    succeed();
   }
 
   // Process the request to complete the wait event as "successful."
@@ -300,7 +333,7 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
       doFinish();
     } catch (AbortException | CloudManagerApiException e) {
       doFinish();
-      getContext().onFailure(e);
+      fail(e);
     }
     return HttpResponses.redirectTo("../..");
   }
@@ -347,7 +380,7 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
   }
 
   // Wait for the user input
-  private void startWaiting() throws IOException, InterruptedException, TimeoutException {
+  private void startWaiting() throws IOException, InterruptedException {
     getContext().saveState();
     getAction().add(this);
     String url = String.format("/%s%s/", getRun().getUrl(), getAction().getUrlName());
@@ -356,10 +389,37 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
     node.addAction(new PauseAction("Pipeline Execution Step State"));
   }
 
+  // The run is saved lazily, so the waiting action may not have been stored before a crash; this execution's state was.
+  private void restoreWaiting() throws InterruptedException {
+    try {
+      getAction().add(this);
+    } catch (IOException e) {
+      LOGGER.warn(Messages.PipelineStepStateExecution_warn_restoreWaiting(e.getLocalizedMessage()));
+    }
+  }
+
   // Advance the step.
   private void approveStep() throws IOException, InterruptedException, CloudManagerApiException {
     CloudManagerPipelineExecution cmExecution = getRun().getAction(CloudManagerBuildAction.class).getCmExecution();
     getApi().advanceExecution(cmExecution.getProgramId(), cmExecution.getPipelineId(), cmExecution.getExecutionId());
+    ExecutionStateView.get().invalidate(cmExecution);
+  }
+
+  // Complete this step; it will no longer receive events.
+  private void succeed() {
+    unindex();
+    getContext().onSuccess(null);
+  }
+
+  private void fail(Throwable cause) {
+    unindex();
+    getContext().onFailure(cause);
+  }
+
+  private void unindex() {
+    if (runId != null) {
+      StepStateExecutions.get().remove(runId, this);
+    }
   }
 
   // Clean up this when done. Regardless of result.
@@ -368,7 +428,7 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
       try {
         getAction().remove(this);
         getRun().removeAction(getAction());
-      } catch (IOException | InterruptedException | TimeoutException e) {
+      } catch (IOException | InterruptedException e) {
         LOGGER.warn(Messages.PipelineStepStateExecution_warn_actionRemoval());
       } finally {
         try {
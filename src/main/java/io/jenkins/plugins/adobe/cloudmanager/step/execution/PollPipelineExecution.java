@@ -27,23 +27,25 @@ package io.jenkins.plugins.adobe.cloudmanager.step.execution;
  */
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import hudson.AbortException;
 import hudson.Util;
-import hudson.model.TaskListener;
-import io.adobe.cloudmanager.CloudManagerApi;
 import io.adobe.cloudmanager.CloudManagerApiException;
 import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
-import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
-import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
+import io.jenkins.plugins.adobe.cloudmanager.state.FinishedExecutionStore;
+import io.jenkins.plugins.adobe.cloudmanager.util.AsyncCloudManagerApi;
 import jenkins.util.Timer;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
 
 /**
  * Execution for a {@link io.jenkins.plugins.adobe.cloudmanager.step.PollPipelineStep}.
  * Periodically checks if the specified Cloud Manager execution is complete.
+ * <p>
+ *   Each check is scheduled once the previous one completes, and is made through the {@link AsyncCloudManagerApi}.
+ * </p>
  */
 public class PollPipelineExecution extends AbstractStepExecution {
 
@@ -52,6 +54,8 @@ public class PollPipelineExecution extends AbstractStepExecution {
   private final long recurrencePeriod;
   private final boolean quiet;
   protected transient volatile ScheduledFuture<?> task;
+  private transient volatile CompletableFuture<?> pending;
+  private transient volatile boolean stopped;
 
   public PollPipelineExecution(StepContext context, long recurrencePeriod, boolean quiet) {
     super(context);
@@ -71,48 +75,78 @@ public class PollPipelineExecution extends AbstractStepExecution {
 
   @Override
   public void doStop() throws Exception {
+    stopped = true;
     if (task != null) {
       task.cancel(true);
       task = null;
     }
+    CompletableFuture<?> check = pending;
+    if (check != null) {
+      check.cancel(true);
+    }
   }
 
   protected void createTask() {
-    task = Timer.get().scheduleWithFixedDelay(() -> {
-      try {
-        AdobeIOProjectConfig aioProject = getAioProject();
-        if (checkExecution(aioProject.getName())) {
-          task.cancel(true);
-          task = null;
-          getContext().onSuccess(null);
-        }
-      } catch (IOException | InterruptedException e) {
-        task.cancel(true);
-        task = null;
-        getContext().onFailure(e);
-      }
-    }, 0, recurrencePeriod, TimeUnit.MILLISECONDS);
+    schedule(0);
   }
 
-  private boolean checkExecution(String aioProjectName) throws AbortException {
+  // Schedule the next check. The API call runs on its own pool, so no Timer thread waits on Cloud Manager.
+  private void schedule(long delay) {
+    if (!stopped) {
+      task = Timer.get().schedule(this::checkExecution, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void checkExecution() {
+    if (stopped) {
+      return;
+    }
     try {
-      CloudManagerApi api = CloudManagerApiUtil.createApi().apply(aioProjectName).orElseThrow(() -> new AbortException(Messages.AbstractStepExecution_error_missingBuildData()));
+      getAioProject();
       CloudManagerPipelineExecution execution = getBuildData().getCmExecution();
-      if (api.isExecutionRunning(execution.getProgramId(), execution.getPipelineId(), execution.getExecutionId())) {
-        if (!quiet) {
-          getContext().get(TaskListener.class).getLogger().println(Messages.PollPipelineExecution_waiting(Util.getTimeSpanString(recurrencePeriod)));
-        }
-        return false;
+      // A stored execution has finished, no need to ask Cloud Manager.
+      if (FinishedExecutionStore.get().getStatus(execution) != null) {
+        complete();
+        return;
       }
-      getContext().get(TaskListener.class).getLogger().println(Messages.PollPipelineExecution_complete());
-    } catch (AbortException e) {
-      throw e;
-    } catch (CloudManagerApiException e) {
-      throw new AbortException(Messages.PollPipelineExecution_error_CloudManagerApiException(e.getLocalizedMessage()));
-    } catch (Exception e) {
-      throw new AbortException(e.getLocalizedMessage());
+      pending = getAsyncApi().isExecutionRunning(execution).whenComplete((running, t) -> {
+        if (stopped) {
+          return; // Already completed by stop, including the cancellation of this check.
+        }
+        try {
+          if (t != null) {
+            fail(AsyncCloudManagerApi.causeOf(t));
+          } else if (running) {
+            if (!quiet) {
+              getTaskListener().getLogger().println(Messages.PollPipelineExecution_waiting(Util.getTimeSpanString(recurrencePeriod)));
+            }
+            schedule(recurrencePeriod);
+          } else {
+            complete();
+          }
+        } catch (IOException | InterruptedException e) {
+          getContext().onFailure(e);
+        }
+      });
+    } catch (IOException | InterruptedException e) {
+      getContext().onFailure(e);
     }
-    return true;
   }
 
+  private void complete() throws IOException, InterruptedException {
+    task = null;
+    getTaskListener().getLogger().println(Messages.PollPipelineExecution_complete());
+    getContext().onSuccess(null);
+  }
+
+  private void fail(Throwable cause) {
+    task = null;
+    if (cause instanceof AbortException) {
+      getContext().onFailure(cause);
+    } else if (cause instanceof CloudManagerApiException) {
+      getContext().onFailure(new AbortException(Messages.PollPipelineExecution_error_CloudManagerApiException(cause.getLocalizedMessage())));
+    } else {
+      getContext().onFailure(new AbortException(cause.getLocalizedMessage()));
+    }
+  }
 }
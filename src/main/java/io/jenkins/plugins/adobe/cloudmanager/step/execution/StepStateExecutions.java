@@ -0,0 +1,112 @@
+package io.jenkins.plugins.adobe.cloudmanager.step.execution;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+
+/**
+ * Index of the active {@link PipelineStepStateExecution}s of each run.
+ * <p>
+ *   Lets a {@link PipelineEndExecution} end the step state executions of its own run, without walking every running
+ *   flow on the controller. Executions add themselves when started or loaded, and remove themselves when they complete;
+ *   anything left is dropped when the run is finalized.
+ * </p>
+ */
+@Extension
+public class StepStateExecutions {
+
+  private final ConcurrentMap<String, Set<PipelineStepStateExecution>> runs = new ConcurrentHashMap<>();
+
+  /**
+   * Lookup the index for this Jenkins instance.
+   */
+  @Nonnull
+  public static StepStateExecutions get() {
+    return ExtensionList.lookupSingleton(StepStateExecutions.class);
+  }
+
+  /**
+   * Add an active execution of the run, identified by its {@link Run#getExternalizableId()}.
+   */
+  void add(@Nonnull String runId, @Nonnull PipelineStepStateExecution execution) {
+    runs.compute(runId, (k, executions) -> {
+      if (executions == null) {
+        executions = ConcurrentHashMap.newKeySet();
+      }
+      executions.add(execution);
+      return executions;
+    });
+  }
+
+  /**
+   * Remove an execution of the run, once it completes.
+   */
+  void remove(@Nonnull String runId, @Nonnull PipelineStepStateExecution execution) {
+    runs.computeIfPresent(runId, (k, executions) -> {
+      executions.remove(execution);
+      return executions.isEmpty() ? null : executions;
+    });
+  }
+
+  /**
+   * The active executions of the run.
+   */
+  @Nonnull
+  List<PipelineStepStateExecution> forRun(@Nonnull String runId) {
+    Set<PipelineStepStateExecution> executions = runs.get(runId);
+    return executions == null ? Collections.emptyList() : new ArrayList<>(executions);
+  }
+
+  /**
+   * Number of runs with active executions.
+   */
+  public int size() {
+    return runs.size();
+  }
+
+  /**
+   * Drops any executions left over when a run is done.
+   */
+  @Extension
+  public static final class Cleanup extends RunListener<Run<?, ?>> {
+    @Override
+    public void onFinalized(Run<?, ?> run) {
+      get().runs.remove(run.getExternalizableId());
+    }
+  }
+}
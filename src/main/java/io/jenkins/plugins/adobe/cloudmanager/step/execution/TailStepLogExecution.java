@@ -0,0 +1,238 @@
+package io.jenkins.plugins.adobe.cloudmanager.step.execution;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import hudson.AbortException;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.adobe.cloudmanager.PipelineExecutionStepState;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.state.ExecutionSnapshots;
+import io.jenkins.plugins.adobe.cloudmanager.util.AsyncCloudManagerApi;
+import io.jenkins.plugins.adobe.cloudmanager.util.LogDownload;
+import io.jenkins.plugins.adobe.cloudmanager.util.LogTail;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+
+/**
+ * Execution for a {@link io.jenkins.plugins.adobe.cloudmanager.step.TailStepLogStep}.
+ * Periodically reads new bytes of a Cloud Manager step's log and writes them to the build console.
+ * <p>
+ *   The number of bytes already written is kept, and each read only requests the bytes after it. A read is at most one
+ *   chunk; the next is scheduled once the previous one was written, immediately if the chunk was full, so the console is
+ *   never written faster than it accepts bytes. The offset is saved with the step after each chunk, so a restart resumes
+ *   the log where it left off.
+ * </p>
+ * <p>
+ *   A compressed log can't be read in parts; it is decompressed and written as a whole once the step has ended.
+ * </p>
+ */
+public class TailStepLogExecution extends AbstractStepExecution {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Maximum number of bytes read from the log at a time.
+   */
+  static final long CHUNK_SIZE = SystemProperties.getLong(TailStepLogExecution.class.getName() + ".chunkSize", 1048576L); // 1 MiB
+
+  private final StepAction action;
+  private final long recurrencePeriod;
+  private long offset;
+  private boolean seen;
+  private boolean compressed;
+  private transient volatile ScheduledFuture<?> task;
+  private transient volatile CompletableFuture<?> pending;
+  private transient volatile boolean stopped;
+
+  public TailStepLogExecution(StepContext context, StepAction action, long recurrencePeriod) {
+    super(context);
+    this.action = action;
+    this.recurrencePeriod = recurrencePeriod;
+  }
+
+  @Override
+  public void doStart() throws Exception {
+    getTaskListener().getLogger().println(Messages.TailStepLogExecution_start(action));
+    schedule(0);
+  }
+
+  @Override
+  public void doResume() {
+    schedule(0);
+  }
+
+  @Override
+  public void doStop() throws Exception {
+    stopped = true;
+    if (task != null) {
+      task.cancel(true);
+      task = null;
+    }
+    CompletableFuture<?> read = pending;
+    if (read != null) {
+      read.cancel(true);
+    }
+  }
+
+  // Schedule the next read. API calls and the read run on their own pool, so no Timer thread waits on the network.
+  private void schedule(long delay) {
+    if (!stopped) {
+      task = Timer.get().schedule(this::tail, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void tail() {
+    try {
+      final CloudManagerPipelineExecution execution = getBuildData().getCmExecution();
+      final AsyncCloudManagerApi api = getAsyncApi();
+      final PrintStream logger = getTaskListener().getLogger();
+      pending = api.getExecution(execution)
+          .thenCompose(pe -> isActive(api, pe, logger))
+          .thenCompose(active -> read(api, execution, logger).thenCompose(count -> {
+            if (count < 0) {
+              schedule(recurrencePeriod); // Read failed, try again later.
+            } else if (count >= CHUNK_SIZE) {
+              schedule(0); // More is available, keep reading.
+            } else if (active == null || (!active && (seen || offset > 0 || compressed))) {
+              return finish(api, execution, logger);
+            } else {
+              schedule(recurrencePeriod);
+            }
+            return CompletableFuture.<Void>completedFuture(null);
+          }))
+          .whenComplete((r, t) -> {
+            if (stopped) {
+              return;
+            }
+            if (t != null) {
+              fail(AsyncCloudManagerApi.causeOf(t));
+            }
+          });
+    } catch (IOException | InterruptedException e) {
+      if (!stopped) {
+        getContext().onFailure(e);
+      }
+    }
+  }
+
+  // Whether the step is the current one; null once the execution has finished. Assumed active if the current step can't be found, so the log isn't cut short.
+  private CompletableFuture<Boolean> isActive(AsyncCloudManagerApi api, PipelineExecution pe, PrintStream logger) {
+    if (ExecutionSnapshots.isFinished(pe.getStatusState())) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return api.getCurrentStep(pe).handle((current, t) -> {
+      if (t != null) {
+        logger.println(Messages.TailStepLogExecution_warn_currentStep(action, AsyncCloudManagerApi.causeOf(t).getLocalizedMessage()));
+        return true;
+      }
+      boolean active = current != null && action.name().equals(current.getAction()) && !isFinished(current);
+      seen |= active;
+      return active;
+    });
+  }
+
+  private static boolean isFinished(PipelineExecutionStepState current) {
+    return current.getStatusState() == PipelineExecutionStepState.Status.FINISHED;
+  }
+
+  // Read the next chunk of the log. A log which can not be located yet, or is compressed, has nothing to read; a failed read returns -1.
+  private CompletableFuture<Long> read(AsyncCloudManagerApi api, CloudManagerPipelineExecution execution, PrintStream logger) {
+    if (compressed) {
+      return CompletableFuture.completedFuture(0L);
+    }
+    return api.getStepLogUrl(execution, action).handle((url, t) -> url).thenCompose(url -> {
+      if (url == null) {
+        return CompletableFuture.completedFuture(0L);
+      }
+      return AsyncCloudManagerApi.submit(() -> {
+        long count = LogTail.read(url, offset, CHUNK_SIZE, logger);
+        if (count > 0) {
+          offset += count;
+          getContext().saveState();
+        }
+        return count;
+      }).exceptionally(e -> {
+        Throwable cause = AsyncCloudManagerApi.causeOf(e);
+        if (cause instanceof LogTail.CompressedLogException) {
+          compressed = true;
+          getContext().saveState();
+          logger.println(Messages.TailStepLogExecution_compressed(action));
+          return 0L;
+        }
+        logger.println(Messages.TailStepLogExecution_warn_read(action, cause.getLocalizedMessage()));
+        return -1L;
+      });
+    });
+  }
+
+  // Complete once the step has ended, first writing a compressed log as a whole.
+  private CompletableFuture<Void> finish(AsyncCloudManagerApi api, CloudManagerPipelineExecution execution, PrintStream logger) {
+    if (!compressed) {
+      complete(logger);
+      return CompletableFuture.completedFuture(null);
+    }
+    return api.getStepLogUrl(execution, action)
+        .thenCompose(url -> AsyncCloudManagerApi.submit(() -> LogDownload.download(url, logger)))
+        .thenAccept(count -> {
+          offset = count;
+          complete(logger);
+        });
+  }
+
+  private void complete(PrintStream logger) {
+    task = null;
+    if (stopped) {
+      return;
+    }
+    String message = offset > 0 ? Messages.TailStepLogExecution_complete(action) : Messages.TailStepLogExecution_noLog(action);
+    logger.println(message);
+    getContext().onSuccess(null);
+  }
+
+  private void fail(Throwable cause) {
+    task = null;
+    if (stopped) {
+      return;
+    }
+    if (cause instanceof AbortException) {
+      getContext().onFailure(cause);
+    } else if (cause instanceof CloudManagerApiException) {
+      getContext().onFailure(new AbortException(Messages.TailStepLogExecution_error_CloudManagerApiException(cause.getLocalizedMessage())));
+    } else {
+      getContext().onFailure(new AbortException(cause.getLocalizedMessage()));
+    }
+  }
+}
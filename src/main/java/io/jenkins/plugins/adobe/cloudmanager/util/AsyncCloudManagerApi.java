@@ -0,0 +1,261 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.AbortException;
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.adobe.cloudmanager.PipelineExecutionStepState;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import jenkins.util.SystemProperties;
+
+/**
+ * Non-blocking facade over the {@link CloudManagerApi}.
+ * <p>
+ *   Calls run on the I/O executor (see {@link IoExecutors}) and return {@link CompletableFuture}s, so callers can compose them rather than hold
+ *   a thread while waiting on the network. Each call is limited by a timeout; a call which times out or is cancelled
+ *   has its thread interrupted. Authentication is also done on the pool, when the first call is made.
+ * </p>
+ */
+public class AsyncCloudManagerApi {
+
+  /**
+   * Maximum number of API calls which run at the same time, on platform threads.
+   */
+  static final int POOL_SIZE = SystemProperties.getInteger(AsyncCloudManagerApi.class.getName() + ".poolSize", 10);
+
+  /**
+   * Default time an API call may take, in milliseconds.
+   */
+  static final long TIMEOUT = SystemProperties.getLong(AsyncCloudManagerApi.class.getName() + ".timeout", 60000L); // 60 seconds
+
+  private static final ExecutorService EXECUTOR = IoExecutors.create(AsyncCloudManagerApi.class.getSimpleName(), POOL_SIZE);
+
+  /**
+   * A call to the Cloud Manager API.
+   */
+  @FunctionalInterface
+  public interface Call<T> {
+    T apply(CloudManagerApi api) throws CloudManagerApiException;
+  }
+
+  private final Callable<CloudManagerApi> factory;
+  private volatile CompletableFuture<CloudManagerApi> api;
+
+  private AsyncCloudManagerApi(Callable<CloudManagerApi> factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Create a facade for the Adobe IO Project. No work is done until the first call.
+   */
+  @Nonnull
+  public static AsyncCloudManagerApi forProject(@Nonnull String aioProjectName) {
+    return of(() -> CloudManagerApiUtil.createApi().apply(aioProjectName)
+        .orElseThrow(() -> new AbortException(Messages.AsyncCloudManagerApi_error_createApi(aioProjectName))));
+  }
+
+  /**
+   * Create a facade using the factory to build the API. The factory is called on the pool, when the first call is made.
+   */
+  @Nonnull
+  public static AsyncCloudManagerApi of(@Nonnull Callable<CloudManagerApi> factory) {
+    return new AsyncCloudManagerApi(factory);
+  }
+
+  /**
+   * Make a call with the default timeout.
+   */
+  @Nonnull
+  public <T> CompletableFuture<T> call(@Nonnull Call<T> call) {
+    return call(call, TIMEOUT);
+  }
+
+  /**
+   * Make a call, failing with a {@link java.util.concurrent.TimeoutException} if it takes longer than the timeout.
+   *
+   * @param call    the call to make
+   * @param timeout the timeout, in milliseconds
+   */
+  @Nonnull
+  public <T> CompletableFuture<T> call(@Nonnull Call<T> call, long timeout) {
+    final CompletableFuture<T> result = new CompletableFuture<>();
+    api().whenComplete((a, t) -> {
+      if (t != null) {
+        result.completeExceptionally(causeOf(t));
+      } else if (!result.isDone()) {
+        CompletableFuture<T> running = submit(() -> call.apply(a), timeout);
+        running.whenComplete((r, e) -> {
+          if (e != null) {
+            result.completeExceptionally(causeOf(e));
+          } else {
+            result.complete(r);
+          }
+        });
+        // Cancelling the returned future cancels the running call.
+        result.whenComplete((r, e) -> {
+          if (e != null) {
+            running.cancel(true);
+          }
+        });
+      }
+    });
+    return result;
+  }
+
+  @Nonnull
+  public CompletableFuture<PipelineExecution> getExecution(@Nonnull CloudManagerPipelineExecution execution) {
+    return call(a -> a.getExecution(execution.getProgramId(), execution.getPipelineId(), execution.getExecutionId()));
+  }
+
+  @Nonnull
+  public CompletableFuture<PipelineExecutionStepState> getCurrentStep(@Nonnull PipelineExecution pe) {
+    return call(a -> a.getCurrentStep(pe));
+  }
+
+  /**
+   * Get the state of one of the execution's steps.
+   */
+  @Nonnull
+  public CompletableFuture<PipelineExecutionStepState> getStepState(@Nonnull PipelineExecution pe, @Nonnull StepAction action) {
+    return call(a -> a.getExecutionStepState(pe, action.name()));
+  }
+
+  @Nonnull
+  public CompletableFuture<Boolean> isExecutionRunning(@Nonnull CloudManagerPipelineExecution execution) {
+    return call(a -> a.isExecutionRunning(execution.getProgramId(), execution.getPipelineId(), execution.getExecutionId()));
+  }
+
+  @Nonnull
+  public CompletableFuture<Void> advanceExecution(@Nonnull PipelineExecution pe) {
+    return call(a -> {
+      a.advanceExecution(pe);
+      return null;
+    });
+  }
+
+  @Nonnull
+  public CompletableFuture<String> getStepLogUrl(@Nonnull CloudManagerPipelineExecution execution, @Nonnull StepAction action) {
+    return getStepLogUrl(execution, action, null);
+  }
+
+  /**
+   * Get the download location of a step's log.
+   *
+   * @param fileName the name of an additional log file of the step, or {@code null} for its main log
+   */
+  @Nonnull
+  public CompletableFuture<String> getStepLogUrl(@Nonnull CloudManagerPipelineExecution execution, @Nonnull StepAction action, @CheckForNull String fileName) {
+    return call(a -> a.getExecutionStepLogDownloadUrl(execution.getProgramId(), execution.getPipelineId(), execution.getExecutionId(), action.name(), fileName));
+  }
+
+  /**
+   * Run other blocking I/O, such as reading a log, on the pool with the default timeout.
+   */
+  @Nonnull
+  public static <T> CompletableFuture<T> submit(@Nonnull Callable<T> task) {
+    return submit(task, TIMEOUT);
+  }
+
+  /**
+   * Unwrap the cause of a failed future's exception.
+   */
+  @Nonnull
+  public static Throwable causeOf(@Nonnull Throwable t) {
+    return t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+  }
+
+  // Authenticate once, on the pool; a failure is retried by the next call.
+  private CompletableFuture<CloudManagerApi> api() {
+    CompletableFuture<CloudManagerApi> result = api;
+    if (result == null) {
+      synchronized (this) {
+        result = api;
+        if (result == null) {
+          result = submit(factory, TIMEOUT);
+          api = result;
+          result.whenComplete((a, t) -> {
+            if (t != null) {
+              api = null;
+            }
+          });
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Run other blocking I/O on the pool, failing with a {@link java.util.concurrent.TimeoutException} if it takes longer than the timeout.
+   *
+   * @param task    the task to run
+   * @param timeout the timeout, in milliseconds
+   */
+  @Nonnull
+  public static <T> CompletableFuture<T> submit(@Nonnull Callable<T> task, long timeout) {
+    return submit(EXECUTOR, task, timeout);
+  }
+
+  /**
+   * Run blocking I/O on another pool, such as one dedicated to long transfers, failing with a
+   * {@link java.util.concurrent.TimeoutException} if it takes longer than the timeout.
+   *
+   * @param executor the pool on which the task runs
+   * @param task     the task to run
+   * @param timeout  the timeout, in milliseconds
+   */
+  @Nonnull
+  public static <T> CompletableFuture<T> submit(@Nonnull ExecutorService executor, @Nonnull Callable<T> task, long timeout) {
+    final CompletableFuture<T> result = new CompletableFuture<>();
+    final Future<?> running = executor.submit(() -> {
+      try {
+        result.complete(task.call());
+      } catch (Exception e) {
+        result.completeExceptionally(e);
+      }
+    });
+    // Interrupt the call if the caller gives up on it.
+    result.orTimeout(timeout, TimeUnit.MILLISECONDS).whenComplete((r, t) -> {
+      if (t != null) {
+        running.cancel(true);
+      }
+    });
+    return result;
+  }
+}
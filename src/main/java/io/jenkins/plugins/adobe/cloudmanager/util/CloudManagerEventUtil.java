@@ -0,0 +1,124 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Utility for reading routing information directly from a raw Cloud Manager event payload, without any API calls.
+ */
+public class CloudManagerEventUtil {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CloudManagerEventUtil.class);
+
+  private static final String EVENT = "event";
+  private static final String OBJECT = "activitystreams:object";
+  private static final String ID = "@id";
+  private static final String PUBLISHED = "activitystreams:published";
+
+  // Links are of the form: .../program/{programId}/pipeline/{pipelineId}/execution/{executionId}[/phase/{phaseId}/step/{stepId}]
+  private static final Pattern EXECUTION_LINK = Pattern.compile("/program/([^/]+)/pipeline/([^/]+)/execution/([^/?#]+)");
+
+  /**
+   * Find the Cloud Manager pipeline execution which the event references.
+   *
+   * @param payload the raw event payload
+   * @return the referenced execution, or empty if the payload does not contain a link to one
+   */
+  @Nonnull
+  public static Optional<CloudManagerPipelineExecution> executionFor(String payload) {
+    Optional<String> link = linkFor(payload);
+    if (!link.isPresent()) {
+      return Optional.empty();
+    }
+    Matcher m = EXECUTION_LINK.matcher(link.get());
+    if (!m.find()) {
+      return Optional.empty();
+    }
+    return Optional.of(new CloudManagerPipelineExecution(m.group(1), m.group(2), m.group(3)));
+  }
+
+  /**
+   * Find the link to the Cloud Manager object (execution or step state) which the event references.
+   *
+   * @param payload the raw event payload
+   * @return the link, or empty if the payload does not contain one
+   */
+  @Nonnull
+  public static Optional<String> linkFor(String payload) {
+    JSONObject event = eventFor(payload);
+    JSONObject object = event == null ? null : event.optJSONObject(OBJECT);
+    String link = object == null ? null : object.optString(ID, null);
+    return StringUtils.isBlank(link) ? Optional.empty() : Optional.of(link);
+  }
+
+  /**
+   * Find the time at which the event was published.
+   *
+   * @param payload the raw event payload
+   * @return the published time, or empty if it is missing or can't be parsed
+   */
+  @Nonnull
+  public static Optional<OffsetDateTime> publishedFor(String payload) {
+    JSONObject event = eventFor(payload);
+    String published = event == null ? null : event.optString(PUBLISHED, null);
+    if (StringUtils.isBlank(published)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(OffsetDateTime.parse(published));
+    } catch (DateTimeParseException e) {
+      LOGGER.debug(Messages.CloudManagerEventUtil_debug_published(published));
+      return Optional.empty();
+    }
+  }
+
+  private static JSONObject eventFor(String payload) {
+    if (StringUtils.isBlank(payload)) {
+      return null;
+    }
+    try {
+      return JSONObject.fromObject(payload).optJSONObject(EVENT);
+    } catch (JSONException e) {
+      LOGGER.debug(Messages.CloudManagerEventUtil_debug_parse(e.getLocalizedMessage()));
+      return null;
+    }
+  }
+}
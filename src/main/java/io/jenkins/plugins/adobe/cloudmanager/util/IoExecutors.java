@@ -0,0 +1,244 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.util.SystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the executors which run blocking calls to IMS and Cloud Manager.
+ * <p>
+ *   When {@link #VIRTUAL_THREADS} is enabled and the JVM supports them (Java 21+), each task runs on its own virtual
+ *   thread, so a task waiting on the network does not hold an OS thread. The pool size still bounds how many tasks run
+ *   at once, and waiting tasks are started in the order of the work queue. Otherwise, or on older JVMs, a bounded pool
+ *   of daemon platform threads is used. Virtual threads are looked up reflectively, as the plugin targets Java 11.
+ * </p>
+ */
+public final class IoExecutors {
+
+  /**
+   * Opt in to running blocking calls on virtual threads, when available.
+   */
+  static final boolean VIRTUAL_THREADS = SystemProperties.getBoolean(IoExecutors.class.getName() + ".virtualThreads");
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(IoExecutors.class);
+
+  private IoExecutors() {
+  }
+
+  /**
+   * Create an executor for blocking calls, using a bounded platform pool with an unbounded work queue as the fallback.
+   *
+   * @param name     name used for the threads
+   * @param poolSize number of tasks run at once
+   */
+  @Nonnull
+  public static ExecutorService create(@Nonnull String name, int poolSize) {
+    return create(name, poolSize, new LinkedBlockingQueue<>());
+  }
+
+  /**
+   * Create an executor for blocking calls.
+   *
+   * @param name     name used for the threads
+   * @param poolSize number of tasks run at once
+   * @param queue    work queue of tasks waiting to run
+   */
+  @Nonnull
+  public static ExecutorService create(@Nonnull String name, int poolSize, @Nonnull BlockingQueue<Runnable> queue) {
+    if (VIRTUAL_THREADS) {
+      ExecutorService virtual = virtual(name);
+      if (virtual != null) {
+        LOGGER.info(Messages.IoExecutors_info_virtual(name));
+        return new Bounded(virtual, poolSize, queue);
+      }
+      LOGGER.warn(Messages.IoExecutors_warn_unavailable(name, System.getProperty("java.version")));
+    }
+    return platform(name, poolSize, queue);
+  }
+
+  /**
+   * Number of tasks waiting to run on an executor created by this class.
+   */
+  public static int getQueued(@Nonnull ExecutorService executor) {
+    if (executor instanceof ThreadPoolExecutor) {
+      return ((ThreadPoolExecutor) executor).getQueue().size();
+    }
+    if (executor instanceof Bounded) {
+      return ((Bounded) executor).queue.size();
+    }
+    return 0;
+  }
+
+  /**
+   * Whether or not this JVM supports virtual threads.
+   */
+  public static boolean isVirtualThreadsAvailable() {
+    return virtualFactory("probe") != null;
+  }
+
+  /**
+   * An executor which starts a virtual thread per task, or {@code null} if this JVM does not support them.
+   */
+  @CheckForNull
+  static ExecutorService virtual(@Nonnull String name) {
+    ThreadFactory factory = virtualFactory(name);
+    if (factory == null) {
+      return null;
+    }
+    try {
+      Method perTask = java.util.concurrent.Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      return (ExecutorService) perTask.invoke(null, factory);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * A bounded pool of daemon platform threads; idle threads are released.
+   */
+  @Nonnull
+  static ExecutorService platform(@Nonnull String name, int poolSize, @Nonnull BlockingQueue<Runnable> queue) {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, queue,
+        new NamingThreadFactory(new DaemonThreadFactory(), name));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Runs at most the pool size of tasks at once on an executor which starts a thread per task, taking waiting tasks
+   * from the queue in its order.
+   */
+  static final class Bounded extends AbstractExecutorService {
+
+    private final ExecutorService threads;
+    private final int poolSize;
+    private final Semaphore permits;
+    private final BlockingQueue<Runnable> queue;
+    private volatile boolean shutdown;
+
+    Bounded(@Nonnull ExecutorService threads, int poolSize, @Nonnull BlockingQueue<Runnable> queue) {
+      this.threads = threads;
+      this.poolSize = poolSize;
+      this.permits = new Semaphore(poolSize);
+      this.queue = queue;
+    }
+
+    @Override
+    public void execute(@Nonnull Runnable task) {
+      if (shutdown) {
+        throw new RejectedExecutionException();
+      }
+      queue.add(task);
+      drain();
+    }
+
+    // Start queued tasks while permits are available; each finished task releases its permit and drains again.
+    private void drain() {
+      while (!queue.isEmpty() && permits.tryAcquire()) {
+        final Runnable next = queue.poll();
+        if (next == null) {
+          permits.release();
+          continue;
+        }
+        threads.execute(() -> {
+          try {
+            next.run();
+          } finally {
+            permits.release();
+            drain();
+          }
+        });
+      }
+      if (shutdown && queue.isEmpty() && permits.availablePermits() == poolSize) {
+        threads.shutdown();
+      }
+    }
+
+    @Override
+    public void shutdown() {
+      shutdown = true;
+      drain();
+    }
+
+    @Nonnull
+    @Override
+    public List<Runnable> shutdownNow() {
+      shutdown = true;
+      List<Runnable> waiting = new ArrayList<>();
+      queue.drainTo(waiting);
+      threads.shutdownNow();
+      return waiting;
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return threads.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+      return threads.awaitTermination(timeout, unit);
+    }
+  }
+
+  // Equivalent of Thread.ofVirtual().name(name + "-", 0).factory()
+  @CheckForNull
+  private static ThreadFactory virtualFactory(String name) {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+      return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return null;
+    }
+  }
+}
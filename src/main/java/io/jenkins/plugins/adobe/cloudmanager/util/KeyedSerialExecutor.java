@@ -0,0 +1,181 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs tasks one at a time for each key, while tasks for different keys run in parallel.
+ * <p>
+ *   Each task is held for a short reorder window after it is submitted. Within a key, pending tasks are run in order
+ *   of their timestamp rather than their arrival, so a late arriving but earlier task is still run first.
+ * </p>
+ * <p>
+ *   A task may be asynchronous, in which case the key's next task waits for it to complete without holding a thread.
+ * </p>
+ */
+public class KeyedSerialExecutor<K> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KeyedSerialExecutor.class);
+
+  private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingLong(e -> e.timestamp).thenComparingLong(e -> e.sequence);
+
+  private final ScheduledExecutorService executor;
+  private final long window;
+  private final ConcurrentMap<K, Lane> lanes = new ConcurrentHashMap<>();
+  private final AtomicLong sequence = new AtomicLong();
+
+  /**
+   * Create a new executor.
+   *
+   * @param executor the executor on which tasks are run
+   * @param window   the reorder window, in milliseconds
+   */
+  public KeyedSerialExecutor(@Nonnull ScheduledExecutorService executor, long window) {
+    this.executor = executor;
+    this.window = Math.max(0, window);
+  }
+
+  /**
+   * Submit a task for the specified key.
+   *
+   * @param key       the key to which the task belongs
+   * @param timestamp the timestamp used to order tasks of the same key
+   * @param task      the task to run
+   */
+  public void submit(@Nonnull K key, long timestamp, @Nonnull Runnable task) {
+    submitAsync(key, timestamp, () -> {
+      task.run();
+      return null;
+    });
+  }
+
+  /**
+   * Submit an asynchronous task for the specified key. The key's next task is not run until the stage returned by
+   * this one completes, but no thread is held while waiting for it.
+   *
+   * @param key       the key to which the task belongs
+   * @param timestamp the timestamp used to order tasks of the same key
+   * @param task      the task to run, returning the stage which completes it, or {@code null} if it is already complete
+   */
+  public void submitAsync(@Nonnull K key, long timestamp, @Nonnull Supplier<? extends CompletionStage<?>> task) {
+    final Entry entry = new Entry(timestamp, sequence.getAndIncrement(), System.currentTimeMillis() + window, task);
+    lanes.compute(key, (k, lane) -> {
+      if (lane == null) {
+        lane = new Lane();
+      }
+      lane.pending.add(entry);
+      if (!lane.scheduled) {
+        lane.scheduled = true;
+        executor.schedule(() -> drain(k), window, TimeUnit.MILLISECONDS);
+      }
+      return lane;
+    });
+  }
+
+  /**
+   * Number of keys which currently have pending or running tasks.
+   */
+  public int getActiveKeys() {
+    return lanes.size();
+  }
+
+  // Run all ready tasks for the key; reschedules itself if the next task is still inside the reorder window, and
+  // resumes once an asynchronous task completes.
+  private void drain(K key) {
+    final AtomicReference<Entry> next = new AtomicReference<>();
+    while (true) {
+      next.set(null);
+      lanes.computeIfPresent(key, (k, lane) -> {
+        Entry head = lane.pending.peek();
+        if (head == null) {
+          return null; // Nothing left, release the key.
+        }
+        long delay = head.readyAt - System.currentTimeMillis();
+        if (delay > 0) {
+          executor.schedule(() -> drain(k), delay, TimeUnit.MILLISECONDS);
+        } else {
+          next.set(lane.pending.poll());
+        }
+        return lane;
+      });
+      Entry entry = next.get();
+      if (entry == null) {
+        return;
+      }
+      CompletionStage<?> stage;
+      try {
+        stage = entry.task.get();
+      } catch (RuntimeException e) {
+        LOGGER.error(Messages.KeyedSerialExecutor_error_task(key, e.getLocalizedMessage()));
+        continue;
+      }
+      if (stage != null && !stage.toCompletableFuture().isDone()) {
+        stage.whenComplete((r, t) -> {
+          if (t != null) {
+            LOGGER.error(Messages.KeyedSerialExecutor_error_task(key, t.getLocalizedMessage()));
+          }
+          executor.execute(() -> drain(key));
+        });
+        return;
+      }
+    }
+  }
+
+  // Pending tasks for a key, only accessed within the map's compute operations.
+  private static final class Lane {
+    private final PriorityQueue<Entry> pending = new PriorityQueue<>(ORDER);
+    private boolean scheduled;
+  }
+
+  private static final class Entry {
+    private final long timestamp;
+    private final long sequence;
+    private final long readyAt;
+    private final Supplier<? extends CompletionStage<?>> task;
+
+    private Entry(long timestamp, long sequence, long readyAt, Supplier<? extends CompletionStage<?>> task) {
+      this.timestamp = timestamp;
+      this.sequence = sequence;
+      this.readyAt = readyAt;
+      this.task = task;
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of durations, using fixed microsecond buckets.
+ * <p>
+ *   Bucket counts are cumulative when read, i.e. each bucket includes all observations less than or equal to its bound.
+ *   Durations are recorded in microseconds, so that sub-millisecond work such as parsing or signature validation is
+ *   spread over buckets, and adds up in the sum.
+ * </p>
+ */
+public class LatencyHistogram {
+
+  /**
+   * Upper bounds of the buckets, in microseconds. Observations larger than the last bound are only in the count.
+   */
+  public static final long[] BOUNDS = {
+      10, 50, 100, 250, 500, 1000, 5000, 10000, 25000, 50000, 100000, 250000, 500000,
+      1000000, 2500000, 5000000, 10000000, 30000000, 60000000
+  };
+
+  private final LongAdder[] buckets = new LongAdder[BOUNDS.length];
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  public LatencyHistogram() {
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Record a duration.
+   */
+  public void observe(long duration, TimeUnit unit) {
+    long micros = unit.toMicros(duration);
+    for (int i = 0; i < BOUNDS.length; i++) {
+      if (micros <= BOUNDS[i]) {
+        buckets[i].increment();
+        break;
+      }
+    }
+    count.increment();
+    sum.add(micros);
+    max.accumulate(micros);
+  }
+
+  /**
+   * Record the time elapsed since the start, from {@link System#nanoTime()}.
+   */
+  public void observeSince(long startNanos) {
+    observe(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Cumulative counts for each of the {@link #BOUNDS}.
+   */
+  public long[] getBuckets() {
+    long[] result = new long[BOUNDS.length];
+    long total = 0;
+    for (int i = 0; i < BOUNDS.length; i++) {
+      total += buckets[i].sum();
+      result[i] = total;
+    }
+    return result;
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Sum of all observations, in microseconds.
+   */
+  public long getSum() {
+    return sum.sum();
+  }
+
+  /**
+   * Largest observation, in microseconds.
+   */
+  public long getMax() {
+    return max.get();
+  }
+}
@@ -0,0 +1,166 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.Nonnull;
+
+import hudson.FilePath;
+import hudson.ProxyConfiguration;
+import jenkins.util.SystemProperties;
+
+/**
+ * Downloads a log to a file, which may be on an agent.
+ * <p>
+ *   The log is streamed from the connection to the file through a fixed size buffer, and is decompressed on the way if
+ *   it is gzip compressed. No more than the buffer is held in memory, whatever the size of the log.
+ * </p>
+ * <p>
+ *   Downloads can be {@link #submit submitted} to their own bounded pool, shared by all builds, so long transfers never
+ *   hold the threads of the Cloud Manager API pool.
+ * </p>
+ */
+public final class LogDownload {
+
+  /**
+   * Size of the buffer used to copy bytes to the file.
+   */
+  static final int BUFFER_SIZE = 65536;
+
+  /**
+   * Time to wait for a connection to the log store, in milliseconds.
+   */
+  static final int CONNECT_TIMEOUT = SystemProperties.getInteger(LogDownload.class.getName() + ".connectTimeout", 30000); // 30 seconds
+
+  /**
+   * Time to wait for bytes from the log store, in milliseconds.
+   */
+  static final int READ_TIMEOUT = SystemProperties.getInteger(LogDownload.class.getName() + ".readTimeout", 60000); // 60 seconds
+
+  /**
+   * Maximum number of logs downloaded at once.
+   */
+  static final int POOL_SIZE = SystemProperties.getInteger(LogDownload.class.getName() + ".poolSize", 4);
+
+  private static final ExecutorService EXECUTOR = IoExecutors.create(LogDownload.class.getSimpleName(), POOL_SIZE);
+
+  private LogDownload() {
+  }
+
+  /**
+   * Run a download on the download pool, failing with a {@link java.util.concurrent.TimeoutException} if it takes longer
+   * than the timeout.
+   *
+   * @param task    the download
+   * @param timeout the timeout, in milliseconds
+   */
+  @Nonnull
+  public static <T> CompletableFuture<T> submit(@Nonnull Callable<T> task, long timeout) {
+    return AsyncCloudManagerApi.submit(EXECUTOR, task, timeout);
+  }
+
+  /**
+   * Download the log, replacing the file.
+   *
+   * @param url    the log location
+   * @param target the file to write
+   * @return the number of bytes written, after decompression
+   */
+  public static long download(@Nonnull String url, @Nonnull FilePath target) throws IOException, InterruptedException {
+    try (OutputStream os = target.write()) {
+      return download(url, os);
+    } catch (IOException e) {
+      target.delete(); // Don't leave a partial log.
+      throw e;
+    }
+  }
+
+  /**
+   * Download the log to the output, which is not closed.
+   *
+   * @param url the log location
+   * @param out the output to which the log is written
+   * @return the number of bytes written, after decompression
+   */
+  public static long download(@Nonnull String url, @Nonnull OutputStream out) throws IOException {
+    URLConnection connection = ProxyConfiguration.open(new URL(url));
+    if (!(connection instanceof HttpURLConnection)) {
+      throw new IOException(Messages.LogDownload_error_protocol(url));
+    }
+    HttpURLConnection con = (HttpURLConnection) connection;
+    con.setConnectTimeout(CONNECT_TIMEOUT);
+    con.setReadTimeout(READ_TIMEOUT);
+    try {
+      int status = con.getResponseCode();
+      if (status != HttpURLConnection.HTTP_OK) {
+        throw new IOException(Messages.LogDownload_error_status(status));
+      }
+      try (InputStream is = decompress(con.getInputStream())) {
+        return copy(Channels.newChannel(is), Channels.newChannel(out));
+      }
+    } finally {
+      con.disconnect();
+    }
+  }
+
+  // Logs may be served compressed, with or without a Content-Encoding; detect them by the gzip header.
+  @Nonnull
+  static InputStream decompress(@Nonnull InputStream in) throws IOException {
+    InputStream is = new BufferedInputStream(in, BUFFER_SIZE);
+    is.mark(2);
+    int magic = is.read() | (is.read() << 8);
+    is.reset();
+    return magic == GZIPInputStream.GZIP_MAGIC ? new GZIPInputStream(is, BUFFER_SIZE) : is;
+  }
+
+  static long copy(@Nonnull ReadableByteChannel in, @Nonnull WritableByteChannel out) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    long count = 0;
+    while (in.read(buffer) != -1) {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        count += out.write(buffer);
+      }
+      buffer.clear();
+    }
+    return count;
+  }
+}
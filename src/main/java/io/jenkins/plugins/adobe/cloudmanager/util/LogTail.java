@@ -0,0 +1,144 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.io.IOUtils;
+
+import hudson.ProxyConfiguration;
+import jenkins.util.SystemProperties;
+
+/**
+ * Reads a log incrementally, from an offset, using HTTP range requests.
+ * <p>
+ *   Only the bytes after the offset are transferred, and at most one chunk is read per request. Bytes are written to the
+ *   output as they are received, so a slow output slows the read rather than being buffered in memory.
+ * </p>
+ * <p>
+ *   A compressed log can't be read from an offset, so it is reported with a {@link CompressedLogException} rather than
+ *   written to the output.
+ * </p>
+ */
+public final class LogTail {
+
+  /**
+   * Size of the buffer used to copy bytes to the output.
+   */
+  static final int BUFFER_SIZE = 8192;
+
+  /**
+   * Time to wait for a connection to the log store, in milliseconds.
+   */
+  static final int CONNECT_TIMEOUT = SystemProperties.getInteger(LogTail.class.getName() + ".connectTimeout", 30000); // 30 seconds
+
+  /**
+   * Time to wait for bytes from the log store, in milliseconds.
+   */
+  static final int READ_TIMEOUT = SystemProperties.getInteger(LogTail.class.getName() + ".readTimeout", 60000); // 60 seconds
+
+  private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+  private LogTail() {
+  }
+
+  /**
+   * Read the bytes of the log after the offset.
+   *
+   * @param url    the log location
+   * @param offset number of bytes of the log already read
+   * @param limit  maximum number of bytes to read
+   * @param out    the output to which bytes are written
+   * @return the number of bytes written, {@code 0} if the log has no bytes after the offset
+   * @throws CompressedLogException if the log is gzip compressed
+   */
+  public static long read(@Nonnull String url, long offset, long limit, @Nonnull OutputStream out) throws IOException {
+    URLConnection connection = ProxyConfiguration.open(new URL(url));
+    if (!(connection instanceof HttpURLConnection)) {
+      throw new IOException(Messages.LogTail_error_protocol(url));
+    }
+    HttpURLConnection con = (HttpURLConnection) connection;
+    con.setConnectTimeout(CONNECT_TIMEOUT);
+    con.setReadTimeout(READ_TIMEOUT);
+    try {
+      con.setRequestProperty("Range", String.format("bytes=%d-%d", offset, offset + limit - 1));
+      int status = con.getResponseCode();
+      if (status == HTTP_RANGE_NOT_SATISFIABLE) {
+        return 0; // Nothing after the offset, yet.
+      }
+      if (status != HttpURLConnection.HTTP_PARTIAL && status != HttpURLConnection.HTTP_OK) {
+        throw new IOException(Messages.LogTail_error_status(status));
+      }
+      if ("gzip".equalsIgnoreCase(con.getContentEncoding())) {
+        throw new CompressedLogException(url);
+      }
+      try (InputStream is = new BufferedInputStream(con.getInputStream(), BUFFER_SIZE)) {
+        // A server which ignores the range sends the whole log, skip what was already read.
+        long skip = status == HttpURLConnection.HTTP_OK ? offset : 0;
+        if ((offset == 0 || skip > 0) && isGzip(is)) {
+          throw new CompressedLogException(url);
+        }
+        long count = IOUtils.copyLarge(is, out, skip, limit, new byte[BUFFER_SIZE]);
+        out.flush();
+        return count;
+      } catch (EOFException e) {
+        return 0; // Log is shorter than the offset.
+      }
+    } finally {
+      con.disconnect();
+    }
+  }
+
+  // Whether the stream starts with the gzip header, without consuming it.
+  private static boolean isGzip(InputStream is) throws IOException {
+    is.mark(2);
+    int magic = is.read() | (is.read() << 8);
+    is.reset();
+    return magic == GZIPInputStream.GZIP_MAGIC;
+  }
+
+  /**
+   * Thrown when the log is gzip compressed, so can only be read as a whole.
+   */
+  public static final class CompressedLogException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    CompressedLogException(String url) {
+      super(Messages.LogTail_error_compressed(url));
+    }
+  }
+}
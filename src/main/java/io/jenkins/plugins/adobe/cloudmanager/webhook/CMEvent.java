@@ -26,15 +26,38 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook;
  * #L%
  */
 
+import java.util.Collections;
+import java.util.List;
+
 import io.adobe.cloudmanager.event.CloudManagerEvent;
+import lombok.AllArgsConstructor;
 import lombok.Value;
 
 /**
  * A Cloud Manager Event received from a WebHook call. Helper for validation essentially.
+ * <p>
+ *   For a batched delivery, the payload is the entire request body and each contained event is listed separately.
+ * </p>
  */
 @Value
+@AllArgsConstructor
 public class CMEvent {
   CloudManagerEvent.EventType eventType;
   String imsOrg;
   String payload;
+  /**
+   * Events contained in a batched delivery, in order. Entries which could not be parsed have no type.
+   */
+  List<CMEvent> events;
+
+  public CMEvent(CloudManagerEvent.EventType eventType, String imsOrg, String payload) {
+    this(eventType, imsOrg, payload, Collections.emptyList());
+  }
+
+  /**
+   * Whether or not this is a batched delivery of several events.
+   */
+  public boolean isBatch() {
+    return !events.isEmpty();
+  }
 }
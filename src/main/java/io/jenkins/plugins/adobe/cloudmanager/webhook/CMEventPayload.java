@@ -33,8 +33,10 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import javax.servlet.ServletException;
@@ -52,6 +54,8 @@ import io.adobe.cloudmanager.event.PipelineExecutionStartEvent;
 import io.adobe.cloudmanager.event.PipelineExecutionStepEndEvent;
 import io.adobe.cloudmanager.event.PipelineExecutionStepStartEvent;
 import io.adobe.cloudmanager.event.PipelineExecutionStepWaitingEvent;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
 import org.kohsuke.stapler.AnnotationHandler;
 import org.kohsuke.stapler.InjectedParameter;
 import org.kohsuke.stapler.StaplerRequest;
@@ -75,6 +79,9 @@ public @interface CMEventPayload {
 
     public static final String CHALLENGE_PARAM = "challenge";
 
+    // Batched deliveries are a JSON array of events.
+    private static final String BATCH_START = "[";
+
     // Functions are based on Request MIME Type.
     private static final Map<String, Function<StaplerRequest, CMEvent>> PROCESSORS;
     static {
@@ -98,7 +105,9 @@ public @interface CMEventPayload {
         LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_unknownContentType(contentType));
         return null;
       }
+      long start = System.nanoTime();
       CMEvent event = PROCESSORS.get(contentType).apply(request);
+      WebHookMetrics.getParseTime().observeSince(start);
       if (event != null) {
         LOGGER.trace(Messages.CMEventPayload_PayloadHandler_trace_payload(event.getPayload()));
       }
@@ -125,41 +134,83 @@ public @interface CMEventPayload {
       return (request) -> {
         try {
           String body = IOUtils.toString(request.getInputStream(), StandardCharsets.UTF_8);
-
-          EventType type = EventType.from(body);
-          String imsOrg = null;
-          try {
-            switch (type) {
-              case PIPELINE_STARTED:
-                imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionStartEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
-                break;
-              case PIPELINE_ENDED:
-                imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionEndEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
-                break;
-              case STEP_STARTED:
-                imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionStepStartEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
-                break;
-              case STEP_WAITING:
-                imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionStepWaitingEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
-                break;
-              case STEP_ENDED:
-                imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionStepEndEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
-                break;
-            }
-          } catch (NullPointerException e) {
-            // Protect against poorly formatted or incomplete JSON
-            // Any of the method chains above could return null - this is easier than checking each
-            LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_eventParse(body));
-            return null;
+          if (StringUtils.startsWith(StringUtils.trimToEmpty(body), BATCH_START)) {
+            return fromBatch(body);
           }
-          return new CMEvent(type, imsOrg, body);
+          return fromEvent(body);
         } catch (IOException e) {
           LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_io(e.getLocalizedMessage()));
-        } catch (CloudManagerApiException e) {
-          LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_eventParse(e.getLocalizedMessage()));
         }
         return null;
       };
     }
+
+    /**
+     * Processes a batch of events from a POST body. Each event is parsed on its own, so one bad entry doesn't reject the delivery.
+     * All events in a batch must be for the same IMS Org, as the signature is only validated once.
+     */
+    protected static CMEvent fromBatch(String body) {
+      final JSONArray entries;
+      try {
+        entries = JSONArray.fromObject(body);
+      } catch (JSONException e) {
+        LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_eventParse(e.getLocalizedMessage()));
+        return null;
+      }
+      List<CMEvent> events = new ArrayList<>(entries.size());
+      String imsOrg = null;
+      for (Object entry : entries) {
+        String payload = entry.toString();
+        CMEvent event = fromEvent(payload);
+        if (event == null) {
+          events.add(new CMEvent(null, null, payload));
+          continue;
+        }
+        if (imsOrg == null) {
+          imsOrg = event.getImsOrg();
+        } else if (!StringUtils.equals(imsOrg, event.getImsOrg())) {
+          LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_mixedImsOrg(imsOrg, event.getImsOrg()));
+          return null;
+        }
+        events.add(event);
+      }
+      return new CMEvent(null, imsOrg, body, Collections.unmodifiableList(events));
+    }
+
+    // Parse a single event, null if it can't be parsed.
+    private static CMEvent fromEvent(String body) {
+      try {
+        EventType type = EventType.from(body);
+        String imsOrg = null;
+        try {
+          switch (type) {
+            case PIPELINE_STARTED:
+              imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionStartEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
+              break;
+            case PIPELINE_ENDED:
+              imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionEndEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
+              break;
+            case STEP_STARTED:
+              imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionStepStartEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
+              break;
+            case STEP_WAITING:
+              imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionStepWaitingEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
+              break;
+            case STEP_ENDED:
+              imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionStepEndEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
+              break;
+          }
+        } catch (NullPointerException e) {
+          // Protect against poorly formatted or incomplete JSON
+          // Any of the method chains above could return null - this is easier than checking each
+          LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_eventParse(body));
+          return null;
+        }
+        return new CMEvent(type, imsOrg, body);
+      } catch (CloudManagerApiException e) {
+        LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_eventParse(e.getLocalizedMessage()));
+      }
+      return null;
+    }
   }
 }
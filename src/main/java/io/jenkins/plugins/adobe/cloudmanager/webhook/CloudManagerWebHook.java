@@ -27,7 +27,15 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook;
  */
 
 import java.io.IOException;
-import java.util.stream.Collectors;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -38,13 +46,23 @@ import javax.ws.rs.HttpMethod;
 import org.apache.commons.lang3.StringUtils;
 
 import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.init.Terminator;
 import hudson.model.UnprotectedRootAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
+import io.jenkins.plugins.adobe.cloudmanager.state.ExecutionStateView;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerEventUtil;
+import io.jenkins.plugins.adobe.cloudmanager.util.KeyedSerialExecutor;
 import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.CloudManagerEventSubscriber;
 import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.CloudManagerSubscriberEvent;
-import jenkins.model.Jenkins;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.EventPriority;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.SubscriberDispatcher;
+import jenkins.util.SystemProperties;
 import jenkins.util.Timer;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
 import org.kohsuke.stapler.HttpResponse;
 import org.kohsuke.stapler.HttpResponses;
 import org.kohsuke.stapler.StaplerRequest;
@@ -60,6 +78,54 @@ public class CloudManagerWebHook implements UnprotectedRootAction {
   public static final String URL_NAME = "aio-cloud-manager-webhook";
   private static final Logger LOGGER = LoggerFactory.getLogger(CloudManagerWebHook.class);
 
+  /**
+   * Time to hold events before processing, so events for the same execution which arrive out of order can be reordered.
+   */
+  static final long REORDER_WINDOW = SystemProperties.getLong(CloudManagerWebHook.class.getName() + ".reorderWindow", 500L); // 500 milliseconds
+
+  /**
+   * System property naming the file to which accepted events are recorded, see {@link TrafficRecorder}. Recording is disabled if not set.
+   */
+  public static final String RECORD_FILE_PROPERTY = CloudManagerWebHook.class.getName() + ".recordFile";
+
+  @CheckForNull
+  private final TrafficRecorder recorder = TrafficRecorder.forFile(SystemProperties.getString(RECORD_FILE_PROPERTY));
+
+  /**
+   * Queue depth at which low priority events for an execution are coalesced with one not yet dispatched.
+   */
+  static final long COALESCE_DEPTH = SystemProperties.getLong(CloudManagerWebHook.class.getName() + ".coalesceDepth", 100L);
+
+  /**
+   * Queue depth at which low priority events are dropped.
+   */
+  static final long SHED_DEPTH = SystemProperties.getLong(CloudManagerWebHook.class.getName() + ".shedDepth", 1000L);
+
+  // Low priority events not yet dispatched, by execution; used to coalesce under load.
+  private final ConcurrentMap<CloudManagerPipelineExecution, Pending> pendingLow = new ConcurrentHashMap<>();
+
+  // Events for the same Cloud Manager execution are processed in order, different executions in parallel.
+  private final KeyedSerialExecutor<CloudManagerPipelineExecution> executor = new KeyedSerialExecutor<>(Timer.get(), REORDER_WINDOW);
+
+  /**
+   * The WebHook instance.
+   */
+  @Nonnull
+  public static CloudManagerWebHook get() {
+    return ExtensionList.lookupSingleton(CloudManagerWebHook.class);
+  }
+
+  /**
+   * Close the recording, if any, before Jenkins stops.
+   */
+  @Terminator
+  public static void closeRecorder() {
+    ExtensionList<CloudManagerWebHook> hooks = ExtensionList.lookup(CloudManagerWebHook.class);
+    if (!hooks.isEmpty() && hooks.get(0).recorder != null) {
+      hooks.get(0).recorder.close();
+    }
+  }
+
   @Override
   public String getIconFileName() {
     return null;
@@ -80,36 +146,190 @@ public class CloudManagerWebHook implements UnprotectedRootAction {
    * <p>
    *   Calls any {@link CloudManagerEventSubscriber} extensions with the payload information.
    *   These calls are performed asynchronously, as we don't want to block the calling request.
+   *   Each subscriber runs in its own task, see {@link SubscriberDispatcher}.
+   * </p>
+   * <p>
+   *   Events for the same Cloud Manager execution are processed one at a time, in order of their published time.
+   * </p>
+   * <p>
+   *   A batched delivery is validated once, then each contained event is queued individually. The response lists any
+   *   events which could not be accepted, so the remainder of the batch is still processed.
    * </p>
    */
   @RequireCMEventPayload
   public HttpResponse doIndex(StaplerRequest request, final @Nonnull @CMEventPayload CMEvent event) {
     LOGGER.trace(String.format("Payload: %s", event.getPayload()));
     if (StringUtils.equals(HttpMethod.GET, request.getMethod())) {
+      WebHookMetrics.request(WebHookMetrics.CHALLENGE, WebHookMetrics.Result.ACCEPTED);
       return doGet(event.getPayload());
     }
 
-    // Do the notifications async - Don't block the Request thread.
-    Timer.get().submit(() -> {
-      String aioProjectName = AdobeIOConfig.configuration().getProjectConfigs()
-          .stream()
-          .filter(cfg -> {
-            String orgId = cfg.getImsOrganizationId();
-            return orgId != null && orgId.equals(event.getImsOrg());
-          })
-          .findFirst()
-          .map(AdobeIOProjectConfig::getName)
-          .orElse(null);
-      if (aioProjectName == null || StringUtils.isBlank(aioProjectName)) {
-        LOGGER.error(Messages.CloudManagerWebHook_error_missingAIOProject(event.getImsOrg()));
+    if (event.isBatch()) {
+      return doBatch(event);
+    }
+    String aioProjectName = projectNameFor(event);
+    if (StringUtils.isBlank(aioProjectName)) {
+      WebHookMetrics.request(event.getEventType().name(), WebHookMetrics.Result.NO_PROJECT);
+      LOGGER.error(Messages.CloudManagerWebHook_error_missingAIOProject(event.getImsOrg()));
+      return HttpResponses.ok();
+    }
+    WebHookMetrics.request(event.getEventType().name(), WebHookMetrics.Result.ACCEPTED);
+    accept(event, aioProjectName);
+    return HttpResponses.ok();
+  }
+
+  // Queue each event in the batch, reporting those which could not be accepted by their index.
+  private HttpResponse doBatch(CMEvent batch) {
+    List<CMEvent> events = batch.getEvents();
+    JSONArray failed = new JSONArray();
+    int accepted = 0;
+    for (int i = 0; i < events.size(); i++) {
+      CMEvent event = events.get(i);
+      String reason = null;
+      if (event.getEventType() == null) {
+        WebHookMetrics.request(WebHookMetrics.UNKNOWN, WebHookMetrics.Result.UNPARSEABLE);
+        reason = Messages.CloudManagerWebHook_error_unparseable();
+      } else {
+        String aioProjectName = projectNameFor(event);
+        if (StringUtils.isBlank(aioProjectName)) {
+          WebHookMetrics.request(event.getEventType().name(), WebHookMetrics.Result.NO_PROJECT);
+          reason = Messages.CloudManagerWebHook_error_missingAIOProject(event.getImsOrg());
+        } else {
+          WebHookMetrics.request(event.getEventType().name(), WebHookMetrics.Result.ACCEPTED);
+          accept(event, aioProjectName);
+          accepted++;
+        }
+      }
+      if (reason != null) {
+        failed.add(new JSONObject().element("index", i).element("reason", reason));
+      }
+    }
+    if (!failed.isEmpty()) {
+      LOGGER.warn(Messages.CloudManagerWebHook_warn_batchFailures(failed.size(), events.size()));
+    }
+    return HttpResponses.okJSON(new JSONObject().element("accepted", accepted).element("failed", failed));
+  }
+
+  // Record, if enabled, and queue a verified event.
+  private void accept(CMEvent event, String aioProjectName) {
+    CloudManagerSubscriberEvent subscriberEvent = new CloudManagerSubscriberEvent(aioProjectName, event.getEventType(), event.getPayload());
+    if (recorder != null) {
+      recorder.record(event.getImsOrg(), subscriberEvent);
+    }
+    enqueue(subscriberEvent);
+  }
+
+  // First Adobe IO Project configured for the event's IMS Org.
+  @CheckForNull
+  private String projectNameFor(CMEvent event) {
+    return AdobeIOConfig.projectConfigsFor(event.getImsOrg())
+        .stream()
+        .findFirst()
+        .map(AdobeIOProjectConfig::getName)
+        .orElse(null);
+  }
+
+  /**
+   * Queue an event for processing by the {@link CloudManagerEventSubscriber} extensions.
+   * <p>
+   *   Used by both the WebHook and the pull based consumers, so events are processed the same regardless of how they were received.
+   * </p>
+   * <p>
+   *   Under load, {@link EventPriority#LOW} events are first coalesced with a pending event for the same execution, then dropped.
+   *   Coalescing keeps only the latest of the two, queued at its own timestamp, so events for an execution stay in order.
+   *   Higher priority events are always queued, and are dispatched to subscribers ahead of lower priority ones.
+   * </p>
+   */
+  public void enqueue(@Nonnull CloudManagerSubscriberEvent event) {
+    final Optional<CloudManagerPipelineExecution> execution = CloudManagerEventUtil.executionFor(event.getPayload());
+    final Optional<OffsetDateTime> published = execution.isPresent() ? CloudManagerEventUtil.publishedFor(event.getPayload()) : Optional.empty();
+    // Even an event which is shed means the execution's state has moved on.
+    execution.ifPresent(e -> ExecutionStateView.get().onEvent(e, event.getType(), published.orElse(null)));
+    final long depth = WebHookMetrics.getQueueDepth();
+    final Supplier<CompletableFuture<Void>> task;
+    if (EventPriority.of(event.getType()) == EventPriority.LOW) {
+      if (depth >= SHED_DEPTH) {
+        WebHookMetrics.shed();
+        LOGGER.debug(Messages.CloudManagerWebHook_debug_shed(event.getType(), depth));
         return;
       }
-      Jenkins.get().getExtensionList(CloudManagerEventSubscriber.class).stream()
-          .filter(CloudManagerEventSubscriber.interested(event.getEventType()))
-          .map(CloudManagerEventSubscriber.process(new CloudManagerSubscriberEvent(aioProjectName, event.getEventType(), event.getPayload())))
-          .collect(Collectors.toList());
-    });
-    return HttpResponses.ok();
+      if (execution.isPresent()) {
+        long timestamp = timestampOf(published);
+        if (depth >= COALESCE_DEPTH) {
+          Pending pending = pendingLow.get(execution.get());
+          if (pending != null && timestamp < pending.timestamp) {
+            // A later event is already waiting, this one is superseded by it.
+            WebHookMetrics.coalesced();
+            return;
+          }
+          if (pending != null && pending.cancel()) {
+            // The earlier event is dropped, and this one is queued in its own place, after any events between the two.
+            WebHookMetrics.coalesced();
+          }
+        }
+        task = coalescable(execution.get(), event, timestamp);
+      } else {
+        task = dispatchable(event);
+      }
+    } else {
+      task = dispatchable(event);
+    }
+
+    // Do the notifications async - Don't block the calling thread.
+    if (execution.isPresent()) {
+      executor.submitAsync(execution.get(), timestampOf(published), task);
+    } else {
+      Timer.get().submit(task::get);
+    }
+  }
+
+  // Task which dispatches the event, completing once all subscribers have.
+  private static Supplier<CompletableFuture<Void>> dispatchable(CloudManagerSubscriberEvent event) {
+    final long queued = WebHookMetrics.queued();
+    return () -> {
+      WebHookMetrics.dequeued(queued);
+      return SubscriberDispatcher.dispatch(event);
+    };
+  }
+
+  // Task which dispatches the event, unless a later one for the same execution cancels it first.
+  private Supplier<CompletableFuture<Void>> coalescable(CloudManagerPipelineExecution execution, CloudManagerSubscriberEvent event, long timestamp) {
+    final long queued = WebHookMetrics.queued();
+    final Pending pending = new Pending(event, timestamp);
+    pendingLow.put(execution, pending);
+    return () -> {
+      WebHookMetrics.dequeued(queued);
+      pendingLow.remove(execution, pending);
+      CloudManagerSubscriberEvent current = pending.event.getAndSet(null);
+      return current == null ? CompletableFuture.completedFuture(null) : SubscriberDispatcher.dispatch(current);
+    };
+  }
+
+  private static long timestampOf(Optional<OffsetDateTime> published) {
+    return published.map(p -> p.toInstant().toEpochMilli()).orElse(System.currentTimeMillis());
+  }
+
+  // A queued low priority event, and the timestamp at which it is ordered.
+  private static final class Pending {
+    private final AtomicReference<CloudManagerSubscriberEvent> event;
+    private final long timestamp;
+
+    private Pending(CloudManagerSubscriberEvent event, long timestamp) {
+      this.event = new AtomicReference<>(event);
+      this.timestamp = timestamp;
+    }
+
+    // Drop the event if it hasn't been dispatched yet.
+    private boolean cancel() {
+      return event.getAndSet(null) != null;
+    }
+  }
+
+  /**
+   * Number of Cloud Manager executions which currently have events waiting or being processed.
+   */
+  public int getActiveExecutions() {
+    return executor.getActiveKeys();
   }
 
   // Helper for processing the challenge request.
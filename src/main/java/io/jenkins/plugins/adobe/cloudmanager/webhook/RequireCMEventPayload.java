@@ -31,21 +31,12 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.InvocationTargetException;
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.servlet.ServletException;
 import javax.ws.rs.HttpMethod;
 
-import org.apache.commons.lang3.StringUtils;
-
-import hudson.util.Secret;
-import io.adobe.cloudmanager.CloudManagerApiException;
-import io.adobe.cloudmanager.event.CloudManagerEvent;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
-import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
-import io.jenkins.plugins.adobe.cloudmanager.util.CredentialsUtil;
 import org.kohsuke.stapler.HttpResponses;
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.StaplerResponse;
@@ -80,12 +71,18 @@ public @interface RequireCMEventPayload {
 
     /**
      * Runs the validation logic - any issues will raise an exception back to the caller.
+     * <p>
+     *   Challenge requests only echo their parameter, so they skip the signature check. Registration and health probes
+     *   from Adobe I/O are then answered without loading any client secrets.
+     * </p>
      */
     @Override
     public Object invoke(StaplerRequest request, StaplerResponse response, Object instance, Object[] arguments) throws IllegalAccessException, InvocationTargetException, ServletException {
       requiresWebhookEnabled();
       requiresValidPayload(arguments);
-      requiresValidSignature(arguments);
+      if (!isChallenge(request)) {
+        requiresValidSignature(arguments);
+      }
 
       return target.invoke(request, response, instance, arguments);
     }
@@ -96,6 +93,7 @@ public @interface RequireCMEventPayload {
     protected void requiresWebhookEnabled() throws InvocationTargetException {
       AdobeIOConfig config = AdobeIOConfig.all().get(AdobeIOConfig.class);
       if (config == null || !config.isWebhookEnabled()) {
+        WebHookMetrics.request(WebHookMetrics.UNKNOWN, WebHookMetrics.Result.DISABLED);
         LOGGER.warn(Messages.RequireCMEventPayload_Processor_warn_webhookDisabled());
         throw new InvocationTargetException(HttpResponses.error(SC_NOT_FOUND, "Not Found"));
       }
@@ -109,44 +107,56 @@ public @interface RequireCMEventPayload {
       isTrue(args[1] instanceof CMEvent, Messages.RequireCMEventPayload_Processor_error_invalidArgs());
 
       CMEvent event = (CMEvent) args[1];
-      isTrue(event != null, Messages.RequireCMEventPayload_Processor_error_missingBody());
-      StaplerRequest request = (StaplerRequest) args[0];
-      if (HttpMethod.POST.equals(request.getMethod())) {
-        isTrue(event.getEventType() != null, Messages.RequireCMEventPayload_Processor_error_missingBody());
+      try {
+        isTrue(event != null, Messages.RequireCMEventPayload_Processor_error_missingBody());
+        StaplerRequest request = (StaplerRequest) args[0];
+        if (HttpMethod.POST.equals(request.getMethod())) {
+          isTrue(event.isBatch() || event.getEventType() != null, Messages.RequireCMEventPayload_Processor_error_missingBody());
+        }
+      } catch (InvocationTargetException e) {
+        WebHookMetrics.request(WebHookMetrics.UNKNOWN, WebHookMetrics.Result.INVALID);
+        throw e;
       }
     }
 
+    /**
+     * Whether or not the request is an Adobe I/O challenge.
+     */
+    protected boolean isChallenge(@Nonnull StaplerRequest request) {
+      return HttpMethod.GET.equals(request.getMethod());
+    }
+
     /**
      * Precheck to ensure that the request contains a valid signature and that the payload matches.
+     * <p>
+     *   Uses the cached {@link SignatureVerifiers}, so credentials aren't looked up for every request.
+     * </p>
      */
     protected void requiresValidSignature(Object[] args) throws InvocationTargetException {
       StaplerRequest request = (StaplerRequest) args[0];
+      final CMEvent event = (CMEvent) args[1];
       Optional<String> header = Optional.ofNullable(request.getHeader(SIGNATURE_HEADER));
+      if (!header.isPresent()) {
+        signatureFailed(event);
+      }
       isTrue(header.isPresent(), Messages.RequireCMEventPayload_Processor_error_missingSignature());
 
-      final CMEvent event = (CMEvent) args[1];
-      List<Secret> secrets = AdobeIOConfig.configuration().getProjectConfigs().stream()
-          // Challenge requests will have a blank IMS Org
-          .filter(cfg -> StringUtils.isBlank(event.getImsOrg()) || StringUtils.equals(cfg.getImsOrganizationId(), event.getImsOrg()))
-          .map(AdobeIOProjectConfig::getClientSecretCredentialsId)
-          .map(CredentialsUtil::clientSecretFor)
-          .filter(Optional::isPresent)
-          .map(Optional::get)
-          .collect(Collectors.toList());
-      isTrue(!secrets.isEmpty(), Messages.RequireCMEventPayload_Processor_error_missingAIOProject());
-
-      final String digest = header.get();
-      isTrue(
-          secrets.stream().anyMatch(s -> {
-            try {
-              return CloudManagerEvent.isValidSignature(event.getPayload(), digest, s.getPlainText());
-            } catch (CloudManagerApiException e) {
-              LOGGER.warn(Messages.RequireCMEventPayload_Processor_warn_signatureValidationError(e.getLocalizedMessage()));
-              return false;
-            }
-          }),
-          Messages.RequireCMEventPayload_Processor_error_missingSignature()
-      );
+      SignatureVerifiers verifiers = SignatureVerifiers.get();
+      long start = System.nanoTime();
+      boolean known = verifiers.hasVerifiers(event.getImsOrg());
+      boolean valid = known && verifiers.isValid(event.getImsOrg(), event.getPayload(), header.get());
+      WebHookMetrics.getSignatureTime().observeSince(start);
+      if (!valid) {
+        signatureFailed(event);
+      }
+      isTrue(known, Messages.RequireCMEventPayload_Processor_error_missingAIOProject());
+      isTrue(valid, Messages.RequireCMEventPayload_Processor_error_missingSignature());
+    }
+
+    // Record a request rejected for its signature.
+    private static void signatureFailed(CMEvent event) {
+      WebHookMetrics.signatureFailed();
+      WebHookMetrics.request(WebHookMetrics.typeOf(event), WebHookMetrics.Result.INVALID_SIGNATURE);
     }
   }
 
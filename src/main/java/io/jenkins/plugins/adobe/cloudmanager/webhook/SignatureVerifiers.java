@@ -0,0 +1,252 @@
+package io.jenkins.plugins.adobe.cloudmanager.webhook;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.cloudbees.plugins.credentials.CredentialsStore;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import hudson.util.Secret;
+import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
+import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
+import io.jenkins.plugins.adobe.cloudmanager.util.CredentialsUtil;
+import jenkins.model.Jenkins;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of initialized signature verifiers for each configured Adobe IO Project, by IMS Org.
+ * <p>
+ *   Client secrets are only resolved from the credential stores when the cache is built. Secrets are looked up in the
+ *   context of Jenkins, so folder and user credential stores are never consulted. The cache is rebuilt when the Adobe IO
+ *   configuration, the system credentials or any other credential store which saves its state change. Credential
+ *   providers which resolve secrets remotely (e.g. from a vault) don't notify of changes: for them, a failed verification
+ *   will rebuild the cache, at most once per {@link #MIN_REFRESH_PERIOD}, so a rotated secret can be rejected for up to
+ *   that long.
+ * </p>
+ */
+@Extension
+public class SignatureVerifiers extends SaveableListener {
+
+  /**
+   * Minimum time between rebuilds triggered by a failed verification.
+   */
+  static final long MIN_REFRESH_PERIOD = 10000; // 10 seconds
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SignatureVerifiers.class);
+  private static final String ALGORITHM = "HmacSHA256";
+
+  private volatile Snapshot snapshot;
+  private long generation;
+
+  /**
+   * Lookup the verifier cache for this Jenkins instance.
+   */
+  @Nonnull
+  public static SignatureVerifiers get() {
+    return ExtensionList.lookupSingleton(SignatureVerifiers.class);
+  }
+
+  /**
+   * Drop the cached verifiers of this Jenkins instance, if it is running.
+   */
+  public static void invalidateAll() {
+    Jenkins jenkins = Jenkins.getInstanceOrNull();
+    if (jenkins != null) {
+      jenkins.getExtensionList(SignatureVerifiers.class).forEach(SignatureVerifiers::invalidate);
+    }
+  }
+
+  /**
+   * Indicates if there are any verifiers for the IMS Org. A blank IMS Org (e.g. a challenge request) matches all projects.
+   */
+  public boolean hasVerifiers(@CheckForNull String imsOrg) {
+    return !current().verifiersFor(imsOrg).isEmpty();
+  }
+
+  /**
+   * Verify the signature of the payload against the client secrets of the projects for the IMS Org.
+   *
+   * @param imsOrg    the IMS Org of the event, blank matches all projects
+   * @param payload   the raw request body
+   * @param signature the Base64 encoded signature header value
+   * @return true if any of the project's secrets generated a matching signature
+   */
+  public boolean isValid(@CheckForNull String imsOrg, @Nonnull String payload, @Nonnull String signature) {
+    byte[] digest;
+    try {
+      digest = Base64.getDecoder().decode(signature.trim());
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+    Snapshot current = current();
+    if (current.matches(imsOrg, body, digest)) {
+      return true;
+    }
+    // Credentials could have changed without notification, rebuild the cache - but don't let invalid requests force constant rebuilds.
+    if (System.currentTimeMillis() - current.created > MIN_REFRESH_PERIOD) {
+      invalidate();
+      return current().matches(imsOrg, body, digest);
+    }
+    return false;
+  }
+
+  /**
+   * Drop the cached verifiers, they will be rebuilt on next use.
+   */
+  public synchronized void invalidate() {
+    generation++;
+    snapshot = null;
+  }
+
+  @Override
+  public void onChange(Saveable o, XmlFile file) {
+    if (o instanceof SystemCredentialsProvider || o instanceof CredentialsStore || o instanceof AdobeIOConfig) {
+      invalidate();
+    }
+  }
+
+  @Nonnull
+  private Snapshot current() {
+    Snapshot s = snapshot;
+    if (s != null) {
+      return s;
+    }
+    long gen;
+    synchronized (this) {
+      if (snapshot != null) {
+        return snapshot;
+      }
+      gen = generation;
+    }
+    // Build outside of the lock, credential lookups can be slow.
+    s = build();
+    synchronized (this) {
+      if (gen == generation && snapshot == null) {
+        snapshot = s;
+      }
+    }
+    return s;
+  }
+
+  @Nonnull
+  private static Snapshot build() {
+    Map<String, List<Verifier>> byOrg = new HashMap<>();
+    List<Verifier> all = new ArrayList<>();
+    for (AdobeIOProjectConfig cfg : AdobeIOConfig.configuration().getProjectConfigs()) {
+      Optional<Secret> secret = CredentialsUtil.clientSecretFor(cfg.getClientSecretCredentialsId());
+      if (!secret.isPresent()) {
+        continue;
+      }
+      try {
+        Verifier verifier = new Verifier(secret.get().getPlainText().getBytes(StandardCharsets.UTF_8));
+        all.add(verifier);
+        byOrg.computeIfAbsent(StringUtils.defaultString(cfg.getImsOrganizationId()), k -> new ArrayList<>()).add(verifier);
+      } catch (GeneralSecurityException | IllegalArgumentException e) {
+        LOGGER.warn(Messages.SignatureVerifiers_warn_createVerifier(cfg.getName(), e.getLocalizedMessage()));
+      }
+    }
+    return new Snapshot(byOrg, all);
+  }
+
+  // Immutable set of verifiers, replaced as a whole when rebuilt.
+  private static final class Snapshot {
+    private final Map<String, List<Verifier>> byOrg;
+    private final List<Verifier> all;
+    private final long created = System.currentTimeMillis();
+
+    private Snapshot(Map<String, List<Verifier>> byOrg, List<Verifier> all) {
+      this.byOrg = byOrg;
+      this.all = all;
+    }
+
+    @Nonnull
+    private List<Verifier> verifiersFor(@CheckForNull String imsOrg) {
+      if (StringUtils.isBlank(imsOrg)) {
+        return all;
+      }
+      return byOrg.getOrDefault(imsOrg, Collections.emptyList());
+    }
+
+    private boolean matches(@CheckForNull String imsOrg, byte[] body, byte[] digest) {
+      for (Verifier v : verifiersFor(imsOrg)) {
+        if (v.verify(body, digest)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  // Holds the key material, with a MAC instance per thread as they are not thread safe.
+  private static final class Verifier {
+    private final Mac prototype;
+    private final ThreadLocal<Mac> mac;
+
+    private Verifier(byte[] secret) throws GeneralSecurityException {
+      prototype = Mac.getInstance(ALGORITHM);
+      prototype.init(new SecretKeySpec(secret, ALGORITHM));
+      mac = ThreadLocal.withInitial(this::copy);
+    }
+
+    private Mac copy() {
+      synchronized (prototype) {
+        try {
+          return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    }
+
+    private boolean verify(byte[] body, byte[] digest) {
+      // doFinal resets the MAC for the next use.
+      return MessageDigest.isEqual(mac.get().doFinal(body), digest);
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package io.jenkins.plugins.adobe.cloudmanager.webhook;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.CloudManagerSubscriberEvent;
+import net.sf.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records accepted, signature verified, WebHook events to a file; one JSON object per line.
+ * <p>
+ *   Each line contains the time the event was received ({@code received}, epoch milliseconds), its {@code imsOrg},
+ *   {@code type} and {@code payload}, so it can be signed and replayed for load tests.
+ * </p>
+ */
+public class TrafficRecorder {
+
+  public static final String RECEIVED = "received";
+  public static final String IMS_ORG = "imsOrg";
+  public static final String TYPE = "type";
+  public static final String PAYLOAD = "payload";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TrafficRecorder.class);
+
+  private final File file;
+  private Writer writer;
+  private boolean failed;
+
+  private TrafficRecorder(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Create a recorder for the file, appending to it if it exists.
+   *
+   * @param path the file to which events are written
+   * @return the recorder, or {@code null} if the path is blank
+   */
+  @CheckForNull
+  public static TrafficRecorder forFile(@CheckForNull String path) {
+    return StringUtils.isBlank(path) ? null : new TrafficRecorder(new File(path));
+  }
+
+  @Nonnull
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Write the event. Failures are logged once, and further events are dropped; recording never affects event processing.
+   */
+  public synchronized void record(@CheckForNull String imsOrg, @Nonnull CloudManagerSubscriberEvent event) {
+    if (failed) {
+      return;
+    }
+    JSONObject line = new JSONObject()
+        .element(RECEIVED, System.currentTimeMillis())
+        .element(IMS_ORG, StringUtils.defaultString(imsOrg))
+        .element(TYPE, event.getType().name())
+        .element(PAYLOAD, event.getPayload());
+    try {
+      if (writer == null) {
+        writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+      }
+      writer.write(line.toString());
+      writer.write('\n');
+      writer.flush();
+    } catch (IOException e) {
+      failed = true;
+      LOGGER.error(Messages.TrafficRecorder_error_write(file, e.getLocalizedMessage()));
+    }
+  }
+
+  /**
+   * Close the file; a later event reopens it.
+   */
+  public synchronized void close() {
+    if (writer != null) {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        LOGGER.warn(Messages.TrafficRecorder_error_close(file, e.getLocalizedMessage()));
+      } finally {
+        writer = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package io.jenkins.plugins.adobe.cloudmanager.webhook;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import io.jenkins.plugins.adobe.cloudmanager.util.LatencyHistogram;
+
+/**
+ * Ingest statistics for the {@link CloudManagerWebHook}, from receipt of a request until its events are handed to the subscribers.
+ */
+public final class WebHookMetrics {
+
+  /**
+   * Request type for challenge requests.
+   */
+  public static final String CHALLENGE = "CHALLENGE";
+
+  /**
+   * Request type for batched deliveries.
+   */
+  public static final String BATCH = "BATCH";
+
+  /**
+   * Request type when the payload could not be parsed.
+   */
+  public static final String UNKNOWN = "UNKNOWN";
+
+  private static final ConcurrentMap<String, Map<Result, LongAdder>> REQUESTS = new ConcurrentHashMap<>();
+  private static final LatencyHistogram PARSE = new LatencyHistogram();
+  private static final LatencyHistogram SIGNATURE = new LatencyHistogram();
+  private static final LongAdder SIGNATURE_FAILURES = new LongAdder();
+  private static final LatencyHistogram QUEUE_WAIT = new LatencyHistogram();
+  private static final AtomicLong QUEUE_DEPTH = new AtomicLong();
+  private static final LongAdder SHED = new LongAdder();
+  private static final LongAdder COALESCED = new LongAdder();
+
+  private WebHookMetrics() {
+  }
+
+  /**
+   * Outcome of a request, or of an event within a batched delivery.
+   */
+  public enum Result {
+    ACCEPTED,
+    DISABLED,
+    INVALID,
+    INVALID_SIGNATURE,
+    NO_PROJECT,
+    UNPARSEABLE
+  }
+
+  /**
+   * The type under which the request is recorded.
+   */
+  @Nonnull
+  public static String typeOf(@CheckForNull CMEvent event) {
+    if (event == null) {
+      return UNKNOWN;
+    }
+    if (event.isBatch()) {
+      return BATCH;
+    }
+    return event.getEventType() == null ? CHALLENGE : event.getEventType().name();
+  }
+
+  /**
+   * Record the outcome of a request, or an event in a batch.
+   */
+  public static void request(@Nonnull String type, @Nonnull Result result) {
+    REQUESTS.computeIfAbsent(type, k -> {
+      Map<Result, LongAdder> counts = new EnumMap<>(Result.class);
+      for (Result r : Result.values()) {
+        counts.put(r, new LongAdder());
+      }
+      return Collections.unmodifiableMap(counts);
+    }).get(result).increment();
+  }
+
+  /**
+   * Number of requests, by type and result. Types are sorted by name.
+   */
+  @Nonnull
+  public static Map<String, Map<Result, Long>> getRequests() {
+    Map<String, Map<Result, Long>> result = new TreeMap<>();
+    REQUESTS.forEach((type, counts) -> {
+      Map<Result, Long> sums = new EnumMap<>(Result.class);
+      counts.forEach((r, count) -> sums.put(r, count.sum()));
+      result.put(type, Collections.unmodifiableMap(sums));
+    });
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * Time taken to parse the request body.
+   */
+  @Nonnull
+  public static LatencyHistogram getParseTime() {
+    return PARSE;
+  }
+
+  /**
+   * Time taken to validate the request signature.
+   */
+  @Nonnull
+  public static LatencyHistogram getSignatureTime() {
+    return SIGNATURE;
+  }
+
+  public static long getSignatureFailures() {
+    return SIGNATURE_FAILURES.sum();
+  }
+
+  static void signatureFailed() {
+    SIGNATURE_FAILURES.increment();
+  }
+
+  /**
+   * Time events wait between being queued and being dispatched to the subscribers.
+   */
+  @Nonnull
+  public static LatencyHistogram getQueueWait() {
+    return QUEUE_WAIT;
+  }
+
+  /**
+   * Number of events queued, but not yet dispatched to the subscribers.
+   */
+  public static long getQueueDepth() {
+    return QUEUE_DEPTH.get();
+  }
+
+  /**
+   * Number of low priority events dropped because the queue was too deep.
+   */
+  public static long getShed() {
+    return SHED.sum();
+  }
+
+  /**
+   * Number of low priority events merged into an earlier, not yet dispatched, event for the same execution.
+   */
+  public static long getCoalesced() {
+    return COALESCED.sum();
+  }
+
+  static void shed() {
+    SHED.increment();
+  }
+
+  static void coalesced() {
+    COALESCED.increment();
+  }
+
+  // Record an event being queued, returns the time from which its wait is measured.
+  static long queued() {
+    QUEUE_DEPTH.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  // Record an event leaving the queue.
+  static void dequeued(long queuedAt) {
+    QUEUE_DEPTH.decrementAndGet();
+    QUEUE_WAIT.observeSince(queuedAt);
+  }
+}
@@ -0,0 +1,167 @@
+package io.jenkins.plugins.adobe.cloudmanager.webhook;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.util.Map;
+
+import hudson.Extension;
+import hudson.model.RootAction;
+import io.jenkins.plugins.adobe.cloudmanager.state.ExecutionSnapshots;
+import io.jenkins.plugins.adobe.cloudmanager.util.LatencyHistogram;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.SubscriberDispatcher;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.SubscriberMetrics;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+/**
+ * Exposes the {@link WebHookMetrics}, {@link SubscriberMetrics} and {@link ExecutionSnapshots} counts in the Prometheus
+ * text exposition format.
+ * <p>
+ *   Requires the Administer permission; intended to be read by monitoring systems using an API token.
+ * </p>
+ */
+@Extension
+public class WebHookMetricsAction implements RootAction {
+
+  public static final String URL_NAME = "aio-cloud-manager-metrics";
+
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=UTF-8";
+  private static final String PREFIX = "aio_cloud_manager_";
+
+  @Override
+  public String getIconFileName() {
+    return null;
+  }
+
+  @Override
+  public String getDisplayName() {
+    return null;
+  }
+
+  @Override
+  public String getUrlName() {
+    return URL_NAME;
+  }
+
+  /**
+   * Write all metrics.
+   */
+  public void doIndex(StaplerRequest request, StaplerResponse response) throws IOException {
+    Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+    response.setContentType(CONTENT_TYPE);
+    PrintWriter writer = response.getWriter();
+
+    type(writer, "webhook_requests_total", "counter");
+    for (Map.Entry<String, Map<WebHookMetrics.Result, Long>> type : WebHookMetrics.getRequests().entrySet()) {
+      for (Map.Entry<WebHookMetrics.Result, Long> result : type.getValue().entrySet()) {
+        if (result.getValue() > 0) {
+          sample(writer, "webhook_requests_total", labels("type", type.getKey(), "result", result.getKey().name().toLowerCase()), result.getValue());
+        }
+      }
+    }
+    histogram(writer, "webhook_parse_seconds", "", WebHookMetrics.getParseTime());
+    histogram(writer, "webhook_signature_seconds", "", WebHookMetrics.getSignatureTime());
+    type(writer, "webhook_signature_failures_total", "counter");
+    sample(writer, "webhook_signature_failures_total", "", WebHookMetrics.getSignatureFailures());
+
+    type(writer, "webhook_queue_depth", "gauge");
+    sample(writer, "webhook_queue_depth", "", WebHookMetrics.getQueueDepth());
+    type(writer, "webhook_queue_executions", "gauge");
+    sample(writer, "webhook_queue_executions", "", CloudManagerWebHook.get().getActiveExecutions());
+    histogram(writer, "webhook_queue_wait_seconds", "", WebHookMetrics.getQueueWait());
+    type(writer, "webhook_shed_total", "counter");
+    sample(writer, "webhook_shed_total", "", WebHookMetrics.getShed());
+    type(writer, "webhook_coalesced_total", "counter");
+    sample(writer, "webhook_coalesced_total", "", WebHookMetrics.getCoalesced());
+
+    type(writer, "subscriber_pending", "gauge");
+    sample(writer, "subscriber_pending", "", SubscriberDispatcher.getPending());
+    Map<String, SubscriberMetrics.Stats> subscribers = SubscriberMetrics.all();
+    type(writer, "subscriber_seconds", "histogram");
+    subscribers.forEach((name, stats) -> buckets(writer, "subscriber_seconds", labels("subscriber", name), stats.getLatency()));
+    type(writer, "subscriber_failures_total", "counter");
+    subscribers.forEach((name, stats) -> sample(writer, "subscriber_failures_total", labels("subscriber", name), stats.getFailures()));
+    type(writer, "subscriber_timeouts_total", "counter");
+    subscribers.forEach((name, stats) -> sample(writer, "subscriber_timeouts_total", labels("subscriber", name), stats.getTimeouts()));
+    type(writer, "subscriber_not_interested_total", "counter");
+    subscribers.forEach((name, stats) -> sample(writer, "subscriber_not_interested_total", labels("subscriber", name), stats.getNotInterested()));
+
+    ExecutionSnapshots snapshots = ExecutionSnapshots.get();
+    type(writer, "snapshot_loads_total", "counter");
+    sample(writer, "snapshot_loads_total", labels("cache", "execution"), snapshots.getExecutions().getLoads());
+    sample(writer, "snapshot_loads_total", labels("cache", "step_state"), snapshots.getStepStates().getLoads());
+    type(writer, "snapshot_hits_total", "counter");
+    sample(writer, "snapshot_hits_total", labels("cache", "execution"), snapshots.getExecutions().getHits());
+    sample(writer, "snapshot_hits_total", labels("cache", "step_state"), snapshots.getStepStates().getHits());
+    writer.flush();
+  }
+
+  private static void type(PrintWriter writer, String name, String type) {
+    writer.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void sample(PrintWriter writer, String name, String labels, Number value) {
+    writer.append(PREFIX).append(name).append(labels).append(' ').append(String.valueOf(value)).append('\n');
+  }
+
+  private static void histogram(PrintWriter writer, String name, String labels, LatencyHistogram histogram) {
+    type(writer, name, "histogram");
+    buckets(writer, name, labels, histogram);
+  }
+
+  // Histogram samples, converting the microsecond buckets to seconds.
+  private static void buckets(PrintWriter writer, String name, String labels, LatencyHistogram histogram) {
+    long[] counts = histogram.getBuckets();
+    String base = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+    for (int i = 0; i < LatencyHistogram.BOUNDS.length; i++) {
+      sample(writer, name + "_bucket", base + "le=\"" + seconds(LatencyHistogram.BOUNDS[i]) + "\"}", counts[i]);
+    }
+    sample(writer, name + "_bucket", base + "le=\"+Inf\"}", histogram.getCount());
+    sample(writer, name + "_sum", labels, histogram.getSum() / 1000000.0);
+    sample(writer, name + "_count", labels, histogram.getCount());
+  }
+
+  // Bucket bounds as plain decimal seconds, e.g. 0.00005 rather than 5.0E-5.
+  private static String seconds(long micros) {
+    return BigDecimal.valueOf(micros, 6).stripTrailingZeros().toPlainString();
+  }
+
+  private static String labels(String... pairs) {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < pairs.length; i += 2) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(pairs[i]).append("=\"").append(pairs[i + 1].replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+    }
+    return sb.append('}').toString();
+  }
+}
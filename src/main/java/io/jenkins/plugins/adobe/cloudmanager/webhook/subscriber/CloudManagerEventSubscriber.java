@@ -26,15 +26,31 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber;
  * #L%
  */
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
 import hudson.ExtensionList;
 import hudson.ExtensionPoint;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.adobe.cloudmanager.PipelineExecutionStepState;
 import io.adobe.cloudmanager.event.CloudManagerEvent;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.state.ExecutionStateView;
+import io.jenkins.plugins.adobe.cloudmanager.state.FinishedExecutionStore;
+import io.jenkins.plugins.adobe.cloudmanager.step.execution.AbstractStepExecution;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerEventUtil;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +59,13 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class CloudManagerEventSubscriber implements ExtensionPoint {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(CloudManagerEventSubscriber.class);
+
+  /**
+   * Default time an event may be processed by a subscriber before it is abandoned.
+   */
+  static final long DEFAULT_TIMEOUT = SystemProperties.getLong(CloudManagerEventSubscriber.class.getName() + ".timeout", 60000L); // 60 seconds
+
   /**
    * Lists of all Cloud Manager Event Subscribers
    */
@@ -68,12 +91,73 @@ public abstract class CloudManagerEventSubscriber implements ExtensionPoint {
     };
   }
 
+  /**
+   * Find the running step executions of the specified type whose run is associated with the event's Cloud Manager pipeline execution.
+   * <p>
+   *   Matching uses the execution link in the raw payload, so no authentication or API calls are made. If the payload
+   *   does not reference an execution, all running step executions of the type are returned.
+   * </p>
+   */
+  @Nonnull
+  protected static <T extends AbstractStepExecution> List<T> waitingFor(Class<T> type, CloudManagerSubscriberEvent event) {
+    final Optional<CloudManagerPipelineExecution> cmExecution = CloudManagerEventUtil.executionFor(event.getPayload());
+    final List<T> found = Collections.synchronizedList(new ArrayList<>());
+    try {
+      StepExecution.applyAll(type, (execution) -> {
+        try {
+          if (!cmExecution.isPresent() || execution.isFor(cmExecution.get())) {
+            found.add(execution);
+          }
+        } catch (IOException | InterruptedException ex) {
+          LOGGER.debug(Messages.CloudManagerEventSubscriber_debug_match(execution.getId(), ex.getLocalizedMessage()));
+        }
+        return null;
+      }).get();
+    } catch (ExecutionException e) {
+      LOGGER.error(Messages.CloudManagerEventSubscriber_error_notifyExecution(e.getLocalizedMessage()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return new ArrayList<>(found);
+  }
+
+  /**
+   * The {@link ExecutionStateView} generation of the event's Cloud Manager pipeline execution; capture it before fetching
+   * the state passed to {@link #updateState}.
+   */
+  protected static long generationOf(CloudManagerSubscriberEvent event) {
+    return CloudManagerEventUtil.executionFor(event.getPayload()).map(cmExecution -> ExecutionStateView.get().generation(cmExecution)).orElse(0L);
+  }
+
+  /**
+   * Record an API response for the event's Cloud Manager pipeline execution, so steps can use it without another call.
+   * Finished executions are also kept in the {@link FinishedExecutionStore}.
+   *
+   * @param generation the result of {@link #generationOf} before the response was fetched
+   */
+  protected static void updateState(CloudManagerSubscriberEvent event, long generation, @CheckForNull PipelineExecution pe, @CheckForNull PipelineExecutionStepState stepState) {
+    if (pe == null) {
+      return;
+    }
+    CloudManagerEventUtil.executionFor(event.getPayload()).ifPresent(cmExecution -> {
+      ExecutionStateView.get().update(cmExecution, generation, pe, stepState);
+      FinishedExecutionStore.get().put(cmExecution, pe);
+    });
+  }
+
   /**
    * List of event types that this subscriber can process.
    */
   @Nonnull
   protected abstract Set<CloudManagerEvent.EventType> types();
 
+  /**
+   * Maximum time, in milliseconds, that processing a single event may take. Slow subscribers are interrupted.
+   */
+  protected long timeout() {
+    return DEFAULT_TIMEOUT;
+  }
+
   /**
    * Processes the event.
    */
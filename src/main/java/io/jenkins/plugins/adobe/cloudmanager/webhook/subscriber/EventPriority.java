@@ -0,0 +1,70 @@
+package io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import io.adobe.cloudmanager.event.CloudManagerEvent;
+
+/**
+ * Priority classes of Cloud Manager events, highest first.
+ */
+public enum EventPriority {
+  /**
+   * Events which may unblock a waiting build: {@code STEP_WAITING}, {@code STEP_ENDED} and {@code PIPELINE_ENDED}.
+   */
+  HIGH,
+  /**
+   * Events which start builds: {@code PIPELINE_STARTED}.
+   */
+  NORMAL,
+  /**
+   * Informational events, which may be coalesced or shed under load: {@code STEP_STARTED}.
+   */
+  LOW;
+
+  /**
+   * Priority of the event type.
+   */
+  @Nonnull
+  public static EventPriority of(@CheckForNull CloudManagerEvent.EventType type) {
+    if (type == null) {
+      return NORMAL;
+    }
+    switch (type) {
+      case STEP_WAITING:
+      case STEP_ENDED:
+      case PIPELINE_ENDED:
+        return HIGH;
+      case STEP_STARTED:
+        return LOW;
+      default:
+        return NORMAL;
+    }
+  }
+}
@@ -28,8 +28,10 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 
 import hudson.Extension;
@@ -38,9 +40,9 @@ import io.adobe.cloudmanager.CloudManagerApiException;
 import io.adobe.cloudmanager.PipelineExecution;
 import io.adobe.cloudmanager.event.CloudManagerEvent;
 import io.adobe.cloudmanager.event.PipelineExecutionEndEvent;
+import io.jenkins.plugins.adobe.cloudmanager.state.ExecutionSnapshots;
 import io.jenkins.plugins.adobe.cloudmanager.step.execution.PipelineEndExecution;
 import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
-import org.jenkinsci.plugins.workflow.steps.StepExecution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import static io.adobe.cloudmanager.event.CloudManagerEvent.EventType.*;
@@ -65,14 +67,25 @@ public class PipelineEndEventSubscriber extends CloudManagerEventSubscriber {
    */
   @Override
   protected void onEvent(CloudManagerSubscriberEvent event) {
+    final List<PipelineEndExecution> executions = waitingFor(PipelineEndExecution.class, event).stream()
+        .filter(execution -> !execution.isFinished())
+        .collect(Collectors.toList());
+    if (executions.isEmpty()) {
+      SubscriberMetrics.of(this).notInterested();
+      LOGGER.debug(Messages.CloudManagerEventSubscriber_debug_notInterested(event.getType()));
+      return;
+    }
     Optional<CloudManagerApi> api = CloudManagerApiUtil.createApi().apply(event.getAioProjectName());
     if (!api.isPresent()) {
       LOGGER.error(Messages.CloudManagerEventSubscriber_error_createApi());
       return;
     }
     try {
-      final PipelineExecution pe = api.get().getExecution(CloudManagerEvent.parseEvent(event.getPayload(), PipelineExecutionEndEvent.class));
-      StepExecution.applyAll(PipelineEndExecution.class, (execution) -> {
+      final long generation = generationOf(event);
+      final PipelineExecution pe = ExecutionSnapshots.get().execution(event.getPayload(), generation,
+          () -> api.get().getExecution(CloudManagerEvent.parseEvent(event.getPayload(), PipelineExecutionEndEvent.class)));
+      updateState(event, generation, pe, null);
+      for (PipelineEndExecution execution : executions) {
         try {
           if (execution.isApplicable(pe) && !execution.isFinished()) {
             execution.occurred(pe);
@@ -80,10 +93,11 @@ public class PipelineEndEventSubscriber extends CloudManagerEventSubscriber {
         } catch (IOException | InterruptedException ex) {
           LOGGER.error(Messages.CloudManagerEventSubscriber_error_notifyExecution(ex.getLocalizedMessage()));
         }
-        return null;
-      });
+      }
     } catch (CloudManagerApiException e) {
       LOGGER.error(Messages.CloudManagerEventSubscriber_error_api(e.getLocalizedMessage()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
   }
 }
@@ -45,6 +45,7 @@ import io.adobe.cloudmanager.CloudManagerApiException;
 import io.adobe.cloudmanager.PipelineExecution;
 import io.adobe.cloudmanager.event.CloudManagerEvent;
 import io.adobe.cloudmanager.event.PipelineExecutionStartEvent;
+import io.jenkins.plugins.adobe.cloudmanager.state.ExecutionSnapshots;
 import io.jenkins.plugins.adobe.cloudmanager.trigger.PipelineStartEvent;
 import io.jenkins.plugins.adobe.cloudmanager.trigger.PipelineStartTrigger;
 import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
@@ -113,7 +114,9 @@ public class PipelineStartEventSubscriber extends CloudManagerEventSubscriber {
     }
     try {
       PipelineExecutionStartEvent startEvent = getPipelineExecutionStartEvent(subscriberEvent);
-      final PipelineExecution pe = getPipelineExecution(api.get(), startEvent);
+      final long generation = generationOf(subscriberEvent);
+      final PipelineExecution pe = ExecutionSnapshots.get().execution(subscriberEvent.getPayload(), generation, () -> getPipelineExecution(api.get(), startEvent));
+      updateState(subscriberEvent, generation, pe, null);
       PipelineStartEvent pse = getPipelineStartEvent(subscriberEvent, startEvent, pe);
 
       List collection = Jenkins.get().getAllItems().stream()
@@ -128,6 +131,8 @@ public class PipelineStartEventSubscriber extends CloudManagerEventSubscriber {
 
     } catch (CloudManagerApiException e) {
       LOGGER.error(Messages.CloudManagerEventSubscriber_error_api(e.getLocalizedMessage()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
   }
 
@@ -27,11 +27,12 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber;
  */
 
 import java.io.IOException;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.TimeoutException;
 import javax.annotation.Nonnull;
 
 import hudson.Extension;
@@ -43,9 +44,11 @@ import io.adobe.cloudmanager.event.CloudManagerEvent;
 import io.adobe.cloudmanager.event.PipelineExecutionStepEndEvent;
 import io.adobe.cloudmanager.event.PipelineExecutionStepStartEvent;
 import io.adobe.cloudmanager.event.PipelineExecutionStepWaitingEvent;
+import io.jenkins.plugins.adobe.cloudmanager.state.ExecutionSnapshots;
+import io.jenkins.plugins.adobe.cloudmanager.state.SnapshotCache;
 import io.jenkins.plugins.adobe.cloudmanager.step.execution.PipelineStepStateExecution;
 import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
-import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerEventUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import static io.adobe.cloudmanager.event.CloudManagerEvent.EventType.*;
@@ -70,6 +73,12 @@ public class PipelineStepEventSubscriber extends CloudManagerEventSubscriber {
    */
   @Override
   protected void onEvent(final CloudManagerSubscriberEvent event) {
+    final List<PipelineStepStateExecution> executions = waitingFor(PipelineStepStateExecution.class, event);
+    if (executions.isEmpty()) {
+      SubscriberMetrics.of(this).notInterested();
+      LOGGER.debug(Messages.CloudManagerEventSubscriber_debug_notInterested(event.getType()));
+      return;
+    }
     Optional<CloudManagerApi> api = CloudManagerApiUtil.createApi().apply(event.getAioProjectName());
     if (!api.isPresent()) {
       LOGGER.error(Messages.CloudManagerEventSubscriber_error_createApi());
@@ -77,33 +86,38 @@ public class PipelineStepEventSubscriber extends CloudManagerEventSubscriber {
     }
     try {
 
-      final PipelineExecutionStepState stepState;
+      final SnapshotCache.Loader<PipelineExecutionStepState> loader;
       switch (event.getType()) {
         case STEP_STARTED:
-          stepState = api.get().getExecutionStepState(CloudManagerEvent.parseEvent(event.getPayload(), PipelineExecutionStepStartEvent.class));
+          loader = () -> api.get().getExecutionStepState(CloudManagerEvent.parseEvent(event.getPayload(), PipelineExecutionStepStartEvent.class));
           break;
         case STEP_WAITING:
-          stepState = api.get().getExecutionStepState(CloudManagerEvent.parseEvent(event.getPayload(), PipelineExecutionStepWaitingEvent.class));
+          loader = () -> api.get().getExecutionStepState(CloudManagerEvent.parseEvent(event.getPayload(), PipelineExecutionStepWaitingEvent.class));
           break;
         case STEP_ENDED:
-          stepState = api.get().getExecutionStepState(CloudManagerEvent.parseEvent(event.getPayload(), PipelineExecutionStepEndEvent.class));
+          loader = () -> api.get().getExecutionStepState(CloudManagerEvent.parseEvent(event.getPayload(), PipelineExecutionStepEndEvent.class));
           break;
         default:
           LOGGER.warn(Messages.PipelineStepEventSubscriber_warn_invalidStepState(event.getType()));
           return;
       }
+      final long generation = generationOf(event);
+      final PipelineExecutionStepState stepState = ExecutionSnapshots.get().stepState(event.getPayload(), generation, loader);
 
       final PipelineExecution pipelineExecution = stepState.getExecution();
-      StepExecution.applyAll(PipelineStepStateExecution.class, (execution) -> {
+      final OffsetDateTime published = CloudManagerEventUtil.publishedFor(event.getPayload()).orElse(null);
+      updateState(event, generation, pipelineExecution, stepState);
+      for (PipelineStepStateExecution execution : executions) {
         try {
-          execution.process(pipelineExecution, stepState);
-        } catch (IOException | InterruptedException | TimeoutException ex) {
+          execution.process(pipelineExecution, stepState, published);
+        } catch (IOException | InterruptedException ex) {
           LOGGER.error(Messages.CloudManagerEventSubscriber_error_notifyExecution(ex.getLocalizedMessage()));
         }
-        return null;
-      });
+      }
     } catch (CloudManagerApiException e) {
       LOGGER.error(Messages.CloudManagerEventSubscriber_error_api(e.getLocalizedMessage()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
   }
 }
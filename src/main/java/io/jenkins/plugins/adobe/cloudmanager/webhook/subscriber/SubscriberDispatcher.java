@@ -0,0 +1,168 @@
+package io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.jenkins.plugins.adobe.cloudmanager.util.IoExecutors;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fans an event out to all interested {@link CloudManagerEventSubscriber}s.
+ * <p>
+ *   Each subscriber is invoked as its own task, so a slow subscriber does not delay the others. Failures are isolated
+ *   to the subscriber which raised them, and each invocation is limited by the subscriber's {@link CloudManagerEventSubscriber#timeout()},
+ *   measured from when it starts running.
+ * </p>
+ * <p>
+ *   When all threads are busy, waiting invocations are started in order of their event's {@link EventPriority}. When
+ *   running on virtual threads (see {@link IoExecutors}), invocations start immediately and never wait.
+ * </p>
+ */
+public final class SubscriberDispatcher {
+
+  /**
+   * Maximum number of subscriber invocations which run at the same time, on platform threads.
+   */
+  static final int POOL_SIZE = SystemProperties.getInteger(SubscriberDispatcher.class.getName() + ".poolSize", 10);
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SubscriberDispatcher.class);
+
+  private static final ExecutorService EXECUTOR = IoExecutors.create(SubscriberDispatcher.class.getSimpleName(), POOL_SIZE, new PriorityBlockingQueue<>());
+
+  private static final AtomicLong SEQUENCE = new AtomicLong();
+
+  private SubscriberDispatcher() {
+  }
+
+  /**
+   * Number of subscriber invocations waiting to run.
+   */
+  public static int getPending() {
+    return IoExecutors.getQueued(EXECUTOR);
+  }
+
+  /**
+   * Invoke all interested subscribers with the event.
+   * <p>
+   *   The returned future completes once every invocation has completed or timed out, so the caller can keep its
+   *   ordering guarantees, e.g. events for one execution are not processed concurrently, without holding a thread.
+   * </p>
+   */
+  @Nonnull
+  public static CompletableFuture<Void> dispatch(@Nonnull final CloudManagerSubscriberEvent event) {
+    EventPriority priority = EventPriority.of(event.getType());
+    List<CompletableFuture<Void>> invocations = new ArrayList<>();
+    for (CloudManagerEventSubscriber subscriber : CloudManagerEventSubscriber.all()) {
+      if (CloudManagerEventSubscriber.interested(event.getType()).test(subscriber)) {
+        Invocation invocation = new Invocation(priority, subscriber, event);
+        EXECUTOR.execute(invocation);
+        invocations.add(invocation.completion);
+      }
+    }
+    return CompletableFuture.allOf(invocations.toArray(new CompletableFuture<?>[0]));
+  }
+
+  // Run the subscriber, recording its latency and any failure.
+  private static void invoke(CloudManagerEventSubscriber subscriber, CloudManagerSubscriberEvent event) {
+    SubscriberMetrics.Stats stats = SubscriberMetrics.of(subscriber);
+    long start = System.nanoTime();
+    try {
+      subscriber.onEvent(event);
+    } catch (RuntimeException e) {
+      stats.failed();
+      LOGGER.error(Messages.SubscriberDispatcher_error_failed(subscriber.getClass().getName(), e.getLocalizedMessage()), e);
+    } finally {
+      stats.getLatency().observeSince(start);
+    }
+  }
+
+  /**
+   * A subscriber invocation, ordered by priority then submission.
+   * <p>
+   *   The timeout runs from when the invocation starts, so time spent waiting for a thread does not count against it.
+   * </p>
+   */
+  @SuppressFBWarnings(value = "EQ_COMPARETO_USE_OBJECT_EQUALS", justification = "Ordering is only used by the work queue.")
+  private static final class Invocation extends FutureTask<Void> implements Comparable<Invocation> {
+    private final EventPriority priority;
+    private final long sequence;
+    private final CloudManagerEventSubscriber subscriber;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile ScheduledFuture<?> timer;
+
+    private Invocation(EventPriority priority, CloudManagerEventSubscriber subscriber, CloudManagerSubscriberEvent event) {
+      super(() -> invoke(subscriber, event), null);
+      this.priority = priority;
+      this.sequence = SEQUENCE.getAndIncrement();
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void run() {
+      if (!isDone()) {
+        timer = Timer.get().schedule(this::timeout, subscriber.timeout(), TimeUnit.MILLISECONDS);
+      }
+      super.run();
+    }
+
+    private void timeout() {
+      if (cancel(true)) {
+        SubscriberMetrics.of(subscriber).timedOut();
+        LOGGER.warn(Messages.SubscriberDispatcher_warn_timeout(subscriber.getClass().getName(), subscriber.timeout()));
+      }
+    }
+
+    @Override
+    protected void done() {
+      ScheduledFuture<?> t = timer;
+      if (t != null) {
+        t.cancel(false);
+      }
+      completion.complete(null); // Failures are logged by the invocation itself.
+    }
+
+    @Override
+    public int compareTo(Invocation other) {
+      int result = priority.compareTo(other.priority);
+      return result != 0 ? result : Long.compare(sequence, other.sequence);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+
+import io.jenkins.plugins.adobe.cloudmanager.util.LatencyHistogram;
+
+/**
+ * Processing statistics for each {@link CloudManagerEventSubscriber}, by class name.
+ */
+public final class SubscriberMetrics {
+
+  private static final ConcurrentMap<String, Stats> STATS = new ConcurrentHashMap<>();
+
+  private SubscriberMetrics() {
+  }
+
+  /**
+   * Statistics for the subscriber, created on first use.
+   */
+  @Nonnull
+  public static Stats of(@Nonnull CloudManagerEventSubscriber subscriber) {
+    return STATS.computeIfAbsent(subscriber.getClass().getName(), k -> new Stats());
+  }
+
+  /**
+   * Statistics of all subscribers which have processed an event, sorted by class name.
+   */
+  @Nonnull
+  public static Map<String, Stats> all() {
+    return Collections.unmodifiableMap(new TreeMap<>(STATS));
+  }
+
+  /**
+   * Statistics for a single subscriber.
+   */
+  public static final class Stats {
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder notInterested = new LongAdder();
+
+    /**
+     * Time taken by each invocation, including those which failed or timed out.
+     */
+    @Nonnull
+    public LatencyHistogram getLatency() {
+      return latency;
+    }
+
+    public long getFailures() {
+      return failures.sum();
+    }
+
+    public long getTimeouts() {
+      return timeouts.sum();
+    }
+
+    /**
+     * Number of events for which no running step was waiting.
+     */
+    public long getNotInterested() {
+      return notInterested.sum();
+    }
+
+    void failed() {
+      failures.increment();
+    }
+
+    void timedOut() {
+      timeouts.increment();
+    }
+
+    void notInterested() {
+      notInterested.increment();
+    }
+  }
+}
@@ -59,6 +59,10 @@ f.entry(title: _("privateKey.title"), field: "privateKeyCredentialsId") {
   c.select(context:app, includeUser:false, expressionAllowed:false)
 }
 
+f.entry(title: _("journalUrl.title"), field: "journalUrl") {
+  f.textbox()
+}
+
 f.block() {
   f.validateButton(
       title: _("validate.title"),
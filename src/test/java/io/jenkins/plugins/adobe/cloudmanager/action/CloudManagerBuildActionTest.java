@@ -0,0 +1,118 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.util.List;
+
+import hudson.model.FreeStyleBuild;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import mockit.Expectations;
+import mockit.Mocked;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static io.adobe.cloudmanager.PipelineExecutionStepState.Status.*;
+import static io.jenkins.plugins.adobe.cloudmanager.test.TestHelper.*;
+import static org.junit.Assert.*;
+
+public class CloudManagerBuildActionTest {
+
+  private static final CloudManagerBuildAction.PipelineStep BUILD = new CloudManagerBuildAction.PipelineStep(StepAction.build, FINISHED, true);
+  private static final CloudManagerBuildAction.PipelineStep DEPLOY = new CloudManagerBuildAction.PipelineStep(StepAction.deploy, RUNNING, false);
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Mocked
+  private FreeStyleBuild run;
+
+  @Test
+  public void unattachedSteps() {
+    CloudManagerBuildAction action = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "2", "3"));
+    CloudManagerBuildAction.PipelineStep published = new CloudManagerBuildAction.PipelineStep(StepAction.build, FINISHED, true, 1000L);
+    assertTrue(action.addStep(published));
+    assertFalse(action.addStep(new CloudManagerBuildAction.PipelineStep(StepAction.build, FINISHED, true, 1000L)));
+    List<CloudManagerBuildAction.PipelineStep> steps = action.getSteps();
+    action.addStep(DEPLOY);
+    assertTrue(action.addStep(DEPLOY)); // Publish time unknown, can't tell it from a redelivery.
+
+    assertEquals(1, steps.size());
+    assertSame(published, steps.get(0));
+    assertEquals(3, action.getStepCount());
+    assertSame(DEPLOY, action.getStep("1"));
+    assertSame(DEPLOY, action.getStep("2"));
+    assertNull(action.getStep("3"));
+    assertNull(action.getStep("nope"));
+  }
+
+  @Test
+  public void stepsReadFromHistory() throws Exception {
+    File dir = tmp.newFolder();
+    new Expectations() {{
+      run.getRootDir();
+      result = dir;
+    }};
+    CloudManagerBuildAction action = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "2", "3"));
+    action.onAttached(run);
+    action.addStep(BUILD);
+    action.addStep(DEPLOY);
+    assertTrue(new File(dir, StepHistory.FILE_NAME).isFile());
+
+    CloudManagerBuildAction loaded = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "2", "3"));
+    loaded.onLoad(run);
+    List<CloudManagerBuildAction.PipelineStep> steps = loaded.getSteps();
+    assertEquals(2, steps.size());
+    assertEquals(DEPLOY, steps.get(1));
+    assertSame(steps.get(1), loaded.getStep("1"));
+    assertEquals(BUILD, loaded.getStep("0"));
+  }
+
+  @Test
+  public void heldStepsMovedWithNextStep() throws Exception {
+    File dir = tmp.newFolder();
+    new Expectations() {{
+      run.getRootDir();
+      result = dir;
+    }};
+    CloudManagerBuildAction action = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "2", "3"));
+    action.addStep(BUILD);
+    action.onLoad(run);
+    assertFalse(new File(dir, StepHistory.FILE_NAME).exists());
+    assertEquals(BUILD, action.getStep("0"));
+
+    assertTrue(action.addStep(DEPLOY));
+    assertTrue(new File(dir, StepHistory.FILE_NAME).isFile());
+    assertEquals(2, action.getStepCount());
+
+    CloudManagerBuildAction loaded = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "2", "3"));
+    loaded.addStep(BUILD); // Moved, but the run wasn't saved since.
+    loaded.onLoad(run);
+    assertEquals(2, loaded.getStepCount());
+  }
+}
@@ -0,0 +1,312 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.apache.commons.io.IOUtils;
+
+import com.sun.net.httpserver.HttpServer;
+import io.adobe.cloudmanager.StepAction;
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import static org.junit.Assert.*;
+
+public class LogCacheTest {
+
+  private static final String LOG = "first line\nsecond line\n";
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private HttpServer server;
+  private String url;
+  private final AtomicInteger downloads = new AtomicInteger();
+
+  @Mocked
+  private StaplerRequest req;
+
+  @Mocked
+  private StaplerResponse rsp;
+
+  @Before
+  public void before() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/log", (exchange) -> {
+      downloads.incrementAndGet();
+      byte[] body = LOG.getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(body);
+      }
+      exchange.close();
+    });
+    server.start();
+    url = String.format("http://localhost:%d/log", server.getAddress().getPort());
+  }
+
+  @After
+  public void after() {
+    server.stop(0);
+  }
+
+  @Test
+  public void names() {
+    assertEquals("build", LogCache.nameOf(StepAction.build, null));
+    assertEquals("codeQuality-sonarLogFile", LogCache.nameOf(StepAction.codeQuality, CloudManagerBuildAction.SONAR_LOG));
+  }
+
+  @Test
+  public void storedOnce() throws Exception {
+    File dir = new File(tmp.getRoot(), LogCache.DIR_NAME);
+    LogCache cache = new LogCache(dir);
+    assertNull(cache.get("build"));
+
+    LogCache.Log stored = cache.put("build", url);
+    assertEquals(LOG.length(), stored.getLength());
+    assertTrue(new File(dir, "build.log.gz").isFile());
+    assertEquals(1, dir.list().length); // No temporary files left.
+
+    LogCache.Log cached = new LogCache(dir).get("build");
+    assertNotNull(cached);
+    assertEquals(stored.getEtag(), cached.getEtag());
+    cache.put("build", url);
+    assertEquals(1, downloads.get());
+
+    try (InputStream is = cached.open(11)) {
+      assertEquals("second line\n", IOUtils.toString(is, StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void storedInBackgroundOnce() throws Exception {
+    File dir = new File(tmp.getRoot(), LogCache.DIR_NAME);
+    LogCache cache = new LogCache(dir);
+    CompletableFuture<LogCache.Log> first = cache.store("build", url);
+    CompletableFuture<LogCache.Log> second = cache.store("build", url);
+    LogCache.Log stored = first.get(10, TimeUnit.SECONDS);
+    assertEquals(stored.getEtag(), second.get(10, TimeUnit.SECONDS).getEtag());
+    assertEquals(1, downloads.get());
+    assertNotNull(cache.get("build"));
+  }
+
+  @Test
+  public void etagPerEncoding() throws Exception {
+    LogCache.Log stored = new LogCache(new File(tmp.getRoot(), LogCache.DIR_NAME)).put("build", url);
+    assertNotEquals(stored.getEtag(), stored.getGzipEtag());
+    assertTrue(LogCache.Log.matches(stored.getEtag(), stored.getEtag()));
+    assertFalse(LogCache.Log.matches(stored.getEtag(), stored.getGzipEtag()));
+    assertTrue(LogCache.Log.matches("\"other\", W/" + stored.getGzipEtag(), stored.getGzipEtag()));
+    assertTrue(LogCache.Log.matches("*", stored.getEtag()));
+    assertFalse(LogCache.Log.matches(null, stored.getEtag()));
+  }
+
+  @Test
+  public void acceptsGzip() {
+    assertTrue(LogCache.Log.acceptsGzip("gzip"));
+    assertTrue(LogCache.Log.acceptsGzip("deflate, GZIP;q=0.5"));
+    assertTrue(LogCache.Log.acceptsGzip("x-gzip"));
+    assertTrue(LogCache.Log.acceptsGzip("*"));
+    assertFalse(LogCache.Log.acceptsGzip(null));
+    assertFalse(LogCache.Log.acceptsGzip("identity"));
+    assertFalse(LogCache.Log.acceptsGzip("gzip;q=0"));
+    assertFalse(LogCache.Log.acceptsGzip("gzip; q=0.0, *"));
+    assertFalse(LogCache.Log.acceptsGzip("*;q=0"));
+  }
+
+  @Test
+  public void ranges() {
+    assertNull(LogCache.Log.range(null, 100));
+    assertNull(LogCache.Log.range("bytes=-", 100));
+    assertNull(LogCache.Log.range("bytes=0-1,5-6", 100));
+    assertNull(LogCache.Log.range("bytes=10-5", 100));
+    assertNull(LogCache.Log.range("items=0-5", 100));
+    assertArrayEquals(new long[] { 0, 9 }, LogCache.Log.range("bytes=0-9", 100));
+    assertArrayEquals(new long[] { 50, 99 }, LogCache.Log.range("bytes=50-", 100));
+    assertArrayEquals(new long[] { 90, 99 }, LogCache.Log.range("bytes=90-200", 100));
+    assertArrayEquals(new long[] { 80, 99 }, LogCache.Log.range("bytes=-20", 100));
+    assertArrayEquals(new long[] { 0, 99 }, LogCache.Log.range("bytes=-200", 100));
+
+    long[] unsatisfiable = LogCache.Log.range("bytes=100-", 100);
+    assertNotNull(unsatisfiable);
+    assertTrue(unsatisfiable[1] < unsatisfiable[0]);
+  }
+
+  // Serve the log for a request with the headers, as name and value pairs; returns the body.
+  private byte[] serve(LogCache.Log log, String... headers) throws Exception {
+    Map<String, String> values = new HashMap<>();
+    for (int i = 0; i < headers.length; i += 2) {
+      values.put(headers[i], headers[i + 1]);
+    }
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    new Expectations() {{
+      req.getHeader(anyString);
+      minTimes = 0;
+      result = new Delegate<String>() {
+        @SuppressWarnings("unused")
+        String getHeader(String name) {
+          return values.get(name);
+        }
+      };
+      rsp.getOutputStream();
+      minTimes = 0;
+      result = new ServletOutputStream() {
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+        }
+
+        @Override
+        public void write(int b) {
+          body.write(b);
+        }
+      };
+    }};
+    log.generateResponse(req, rsp, null);
+    return body.toByteArray();
+  }
+
+  @Test
+  public void servesWholeLog() throws Exception {
+    LogCache.Log log = new LogCache(new File(tmp.getRoot(), LogCache.DIR_NAME)).put("build", url);
+    assertEquals(LOG, new String(serve(log), StandardCharsets.UTF_8));
+    new Verifications() {{
+      rsp.setHeader("ETag", log.getEtag());
+      rsp.setHeader("Vary", "Accept-Encoding");
+      rsp.setContentLengthLong(LOG.length());
+      rsp.setHeader("Content-Encoding", anyString);
+      times = 0;
+      rsp.setStatus(anyInt);
+      times = 0;
+    }};
+  }
+
+  @Test
+  public void servesCompressedLog() throws Exception {
+    LogCache.Log log = new LogCache(new File(tmp.getRoot(), LogCache.DIR_NAME)).put("build", url);
+    byte[] body = serve(log, "Accept-Encoding", "gzip, deflate");
+    try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      assertEquals(LOG, IOUtils.toString(is, StandardCharsets.UTF_8));
+    }
+    new Verifications() {{
+      rsp.setHeader("ETag", log.getGzipEtag());
+      rsp.setHeader("Vary", "Accept-Encoding");
+      rsp.setHeader("Content-Encoding", "gzip");
+    }};
+  }
+
+  @Test
+  public void servesRange() throws Exception {
+    LogCache.Log log = new LogCache(new File(tmp.getRoot(), LogCache.DIR_NAME)).put("build", url);
+    // Ranges are of the uncompressed log, even if the client accepts gzip.
+    byte[] body = serve(log, "Range", "bytes=11-", "If-Range", log.getEtag(), "Accept-Encoding", "gzip");
+    assertEquals("second line\n", new String(body, StandardCharsets.UTF_8));
+    new Verifications() {{
+      rsp.setStatus(206);
+      rsp.setHeader("Content-Range", "bytes 11-22/23");
+      rsp.setHeader("ETag", log.getEtag());
+      rsp.setContentLengthLong(12);
+      rsp.setHeader("Content-Encoding", anyString);
+      times = 0;
+    }};
+  }
+
+  @Test
+  public void ignoresRangeOfChangedLog() throws Exception {
+    LogCache.Log log = new LogCache(new File(tmp.getRoot(), LogCache.DIR_NAME)).put("build", url);
+    byte[] body = serve(log, "Range", "bytes=11-", "If-Range", "\"other\"");
+    assertEquals(LOG, new String(body, StandardCharsets.UTF_8));
+    new Verifications() {{
+      rsp.setStatus(anyInt);
+      times = 0;
+      rsp.setHeader("Content-Range", anyString);
+      times = 0;
+    }};
+  }
+
+  @Test
+  public void rejectsRangeAfterEnd() throws Exception {
+    LogCache.Log log = new LogCache(new File(tmp.getRoot(), LogCache.DIR_NAME)).put("build", url);
+    assertEquals(0, serve(log, "Range", "bytes=23-").length);
+    new Verifications() {{
+      rsp.setStatus(416);
+      rsp.setHeader("Content-Range", "bytes */23");
+    }};
+  }
+
+  @Test
+  public void notModified() throws Exception {
+    LogCache.Log log = new LogCache(new File(tmp.getRoot(), LogCache.DIR_NAME)).put("build", url);
+    assertEquals(0, serve(log, "If-None-Match", log.getGzipEtag(), "Accept-Encoding", "gzip").length);
+    new Verifications() {{
+      rsp.setStatus(304);
+      rsp.setHeader("Vary", "Accept-Encoding");
+      rsp.getOutputStream();
+      times = 0;
+    }};
+  }
+
+  @Test
+  public void modifiedForOtherEncoding() throws Exception {
+    LogCache.Log log = new LogCache(new File(tmp.getRoot(), LogCache.DIR_NAME)).put("build", url);
+    // The uncompressed copy's ETag doesn't match the compressed one.
+    byte[] body = serve(log, "If-None-Match", log.getEtag(), "Accept-Encoding", "gzip");
+    assertTrue(body.length > 0);
+    new Verifications() {{
+      rsp.setStatus(anyInt);
+      times = 0;
+      rsp.setHeader("Content-Encoding", "gzip");
+    }};
+  }
+}
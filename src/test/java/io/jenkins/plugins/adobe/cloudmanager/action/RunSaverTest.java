@@ -0,0 +1,92 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import hudson.model.FreeStyleBuild;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RunSaverTest {
+
+  @Mocked
+  private FreeStyleBuild run;
+  @Mocked
+  private FreeStyleBuild other;
+
+  @Test
+  public void coalescesSaves() throws Exception {
+    new Expectations() {{
+      run.getExternalizableId();
+      result = "test#1";
+      other.getExternalizableId();
+      result = "test#2";
+    }};
+    RunSaver saver = new RunSaver();
+    saver.save(run);
+    saver.save(run);
+    saver.save(other);
+    saver.save(run);
+    assertEquals(2, saver.getPending());
+
+    saver.flush();
+    assertEquals(0, saver.getPending());
+    assertEquals(4, saver.getRequests());
+    assertEquals(2, saver.getSaves());
+    new Verifications() {{
+      run.save();
+      times = 1;
+      other.save();
+      times = 1;
+    }};
+  }
+
+  @Test
+  public void flushesSingleRun() throws Exception {
+    new Expectations() {{
+      run.getExternalizableId();
+      result = "test#1";
+      other.getExternalizableId();
+      result = "test#2";
+    }};
+    RunSaver saver = new RunSaver();
+    saver.save(run);
+    saver.save(other);
+
+    saver.flush(run);
+    assertEquals(1, saver.getPending());
+    saver.flush(run);
+    new Verifications() {{
+      run.save();
+      times = 1;
+      other.save();
+      times = 0;
+    }};
+  }
+}
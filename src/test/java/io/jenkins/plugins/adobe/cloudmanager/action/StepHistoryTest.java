@@ -0,0 +1,144 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import io.adobe.cloudmanager.StepAction;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static io.adobe.cloudmanager.PipelineExecutionStepState.Status.*;
+import static org.junit.Assert.*;
+
+public class StepHistoryTest {
+
+  private static final CloudManagerBuildAction.PipelineStep BUILD = new CloudManagerBuildAction.PipelineStep(StepAction.build, FINISHED, true);
+  private static final CloudManagerBuildAction.PipelineStep QUALITY = new CloudManagerBuildAction.PipelineStep(StepAction.codeQuality, WAITING, true);
+  private static final CloudManagerBuildAction.PipelineStep DEPLOY = new CloudManagerBuildAction.PipelineStep(StepAction.deploy, RUNNING, false);
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void empty() throws Exception {
+    StepHistory history = new StepHistory(new File(tmp.getRoot(), StepHistory.FILE_NAME));
+    assertEquals(0, history.size());
+    assertNull(history.get(0));
+    assertTrue(history.list().isEmpty());
+  }
+
+  @Test
+  public void randomAccess() throws Exception {
+    File file = new File(tmp.getRoot(), StepHistory.FILE_NAME);
+    StepHistory history = new StepHistory(file);
+    history.append(BUILD);
+    history.append(QUALITY);
+    assertEquals(2, history.size());
+    history.append(DEPLOY);
+
+    StepHistory reloaded = new StepHistory(file);
+    assertEquals(3, reloaded.size());
+    assertEquals(DEPLOY, reloaded.get(2));
+    assertEquals(BUILD, reloaded.get(0));
+    assertNull(reloaded.get(3));
+    assertEquals(Arrays.asList(BUILD, QUALITY, DEPLOY), reloaded.list());
+  }
+
+  @Test
+  public void readsBeyondCache() throws Exception {
+    StepHistory history = new StepHistory(new File(tmp.getRoot(), StepHistory.FILE_NAME));
+    int count = StepHistory.CACHE_SIZE * 2;
+    for (int i = 0; i < count; i++) {
+      history.append(new CloudManagerBuildAction.PipelineStep(StepAction.build, RUNNING, false, i));
+    }
+    for (int i = 0; i < count; i++) {
+      assertEquals(i, history.get(i).getPublished());
+    }
+    assertEquals(count, history.list().size());
+
+    StepHistory reloaded = new StepHistory(new File(tmp.getRoot(), StepHistory.FILE_NAME));
+    for (int i = count - 1; i >= 0; i--) {
+      assertEquals(i, reloaded.get(i).getPublished());
+    }
+    assertEquals(history.list(), reloaded.list());
+  }
+
+  @Test
+  public void partialLineReplaced() throws Exception {
+    File file = new File(tmp.getRoot(), StepHistory.FILE_NAME);
+    new StepHistory(file).append(BUILD);
+    Files.write(file.toPath(), "codeQuality WAI".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+    StepHistory history = new StepHistory(file);
+    assertEquals(1, history.size());
+    history = new StepHistory(file);
+    history.append(DEPLOY);
+    assertEquals(Arrays.asList(BUILD, DEPLOY), new StepHistory(file).list());
+  }
+
+  @Test
+  public void unreadableStepSkipped() throws Exception {
+    File file = new File(tmp.getRoot(), StepHistory.FILE_NAME);
+    Files.write(file.toPath(), "build FINISHED true\nunknownAction FINISHED false\n".getBytes(StandardCharsets.UTF_8));
+
+    StepHistory history = new StepHistory(file);
+    assertEquals(2, history.size());
+    assertNull(history.get(1));
+    assertEquals(Arrays.asList(BUILD), history.list());
+  }
+
+  @Test
+  public void duplicatesIgnored() throws Exception {
+    File file = new File(tmp.getRoot(), StepHistory.FILE_NAME);
+    CloudManagerBuildAction.PipelineStep first = new CloudManagerBuildAction.PipelineStep(StepAction.deploy, RUNNING, false, 1000L);
+    CloudManagerBuildAction.PipelineStep again = new CloudManagerBuildAction.PipelineStep(StepAction.deploy, RUNNING, false, 2000L);
+    StepHistory history = new StepHistory(file);
+    assertTrue(history.append(first));
+    assertFalse(history.append(new CloudManagerBuildAction.PipelineStep(StepAction.deploy, RUNNING, false, 1000L)));
+    assertTrue(history.append(again));
+
+    StepHistory reloaded = new StepHistory(file);
+    assertFalse(reloaded.append(first));
+    assertFalse(reloaded.append(again));
+    assertEquals(Arrays.asList(first, again), reloaded.list());
+  }
+
+  @Test
+  public void unpublishedRepeatsKept() throws Exception {
+    File file = new File(tmp.getRoot(), StepHistory.FILE_NAME);
+    StepHistory history = new StepHistory(file);
+    assertTrue(history.append(DEPLOY));
+    assertTrue(history.append(DEPLOY));
+    assertTrue(new StepHistory(file).append(DEPLOY));
+    assertEquals(Arrays.asList(DEPLOY, DEPLOY, DEPLOY), new StepHistory(file).list());
+  }
+}
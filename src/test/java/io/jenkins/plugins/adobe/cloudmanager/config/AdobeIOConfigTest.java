@@ -27,6 +27,8 @@ package io.jenkins.plugins.adobe.cloudmanager.config;
  */
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Rule;
@@ -67,4 +69,38 @@ public class AdobeIOConfigTest {
 
     assertNull(aio.projectConfigFor("Not Found"));
   }
+
+  @Test
+  public void projectConfigsForImsOrg() {
+
+    AdobeIOConfig aio = AdobeIOConfig.configuration();
+
+    List<AdobeIOProjectConfig> configs = new ArrayList<>();
+    AdobeIOProjectConfig first = new AdobeIOProjectConfig();
+    first.setName("First");
+    first.setImsOrganizationId("Org");
+    configs.add(first);
+
+    AdobeIOProjectConfig other = new AdobeIOProjectConfig();
+    other.setName("Other");
+    other.setImsOrganizationId("Other Org");
+    configs.add(other);
+
+    AdobeIOProjectConfig second = new AdobeIOProjectConfig();
+    second.setName("Second");
+    second.setImsOrganizationId("Org");
+    configs.add(second);
+
+    aio.setProjectConfigs(configs);
+
+    assertEquals(Arrays.asList(first, second), AdobeIOConfig.projectConfigsFor("Org"));
+    assertEquals(Collections.singletonList(other), AdobeIOConfig.projectConfigsFor("Other Org"));
+    assertTrue(AdobeIOConfig.projectConfigsFor("Not Found").isEmpty());
+    assertTrue(AdobeIOConfig.projectConfigsFor(null).isEmpty());
+
+    aio.setProjectConfigs(Collections.singletonList(other));
+    assertTrue(AdobeIOConfig.projectConfigsFor("Org").isEmpty());
+    assertNull(AdobeIOConfig.projectConfigFor("First"));
+    assertEquals(other, AdobeIOConfig.projectConfigFor("Other"));
+  }
 }
@@ -0,0 +1,181 @@
+package io.jenkins.plugins.adobe.cloudmanager.journal;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.io.IOUtils;
+
+import com.sun.net.httpserver.HttpServer;
+import hudson.util.Secret;
+import io.adobe.cloudmanager.event.CloudManagerEvent;
+import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
+import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.CloudManagerEventSubscriber;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.CloudManagerSubscriberEvent;
+import mockit.Mock;
+import mockit.MockUp;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+import static io.jenkins.plugins.adobe.cloudmanager.test.TestHelper.*;
+import static org.junit.Assert.*;
+
+public class JournalConsumerTest {
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+
+  private HttpServer server;
+  private String journalUrl;
+  private final List<String> queries = new CopyOnWriteArrayList<>();
+  private final List<String> authorizations = new CopyOnWriteArrayList<>();
+  private String stepStarted;
+  private String pipelineEnded;
+
+  @Before
+  public void before() throws Exception {
+    stepStarted = IOUtils.resourceToString("events/step-started.json", Charset.defaultCharset(), JournalConsumerTest.class.getClassLoader());
+    pipelineEnded = IOUtils.resourceToString("events/pipeline-ended.json", Charset.defaultCharset(), JournalConsumerTest.class.getClassLoader());
+
+    // Stub journal: returns both events until they are consumed.
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/journal", (exchange) -> {
+      String query = exchange.getRequestURI().getQuery();
+      queries.add(query);
+      authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+      if (query.contains("since=2")) {
+        exchange.sendResponseHeaders(204, -1);
+      } else {
+        JSONArray events = new JSONArray();
+        events.add(new JSONObject().element("position", "1").element("event", JSONObject.fromObject(stepStarted)));
+        events.add(new JSONObject().element("position", "2").element("event", JSONObject.fromObject(pipelineEnded)));
+        byte[] body = new JSONObject().element("events", events).element("_page", new JSONObject().element("last", "2").element("count", 2))
+            .toString().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+          os.write(body);
+        }
+      }
+      exchange.close();
+    });
+    server.start();
+    journalUrl = String.format("http://localhost:%d/journal", server.getAddress().getPort());
+
+    List<AdobeIOProjectConfig> configs = new ArrayList<>(AIO_PROJECT_CONFIGS);
+    AdobeIOProjectConfig config = new AdobeIOProjectConfig();
+    config.setName("Journal Project");
+    config.setImsOrganizationId(IMS_ORG_ID);
+    config.setClientId(CLIENT_ID);
+    config.setJournalUrl(journalUrl);
+    configs.add(config);
+    AdobeIOConfig.configuration().setProjectConfigs(configs);
+
+    new MockUp<AdobeIOProjectConfig>() {
+      @Mock
+      public Secret authenticate() {
+        return Secret.fromString(ACCESS_TOKEN);
+      }
+    };
+  }
+
+  @After
+  public void after() {
+    server.stop(0);
+  }
+
+  @Test
+  public void consumesJournal() throws Exception {
+    JournalConsumer consumer = rule.jenkins.getExtensionList(JournalConsumer.class).get(0);
+    consumer.poll();
+
+    RecordingSubscriber subscriber = rule.jenkins.getExtensionList(RecordingSubscriber.class).get(0);
+    long deadline = System.currentTimeMillis() + 10000;
+    while (subscriber.events.size() < 2 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(100);
+    }
+    assertEquals("Events delivered before timeout", 2, subscriber.events.size());
+    List<CloudManagerEvent.EventType> types = new ArrayList<>();
+    subscriber.events.forEach(e -> {
+      assertEquals("Journal Project", e.getAioProjectName());
+      types.add(e.getType());
+    });
+    assertTrue(types.contains(CloudManagerEvent.EventType.STEP_STARTED));
+    assertTrue(types.contains(CloudManagerEvent.EventType.PIPELINE_ENDED));
+    assertEquals("Bearer " + ACCESS_TOKEN, authorizations.get(0));
+    assertFalse(queries.get(0).contains("since="));
+
+    // Cursor is persisted, and used for the next read.
+    assertEquals("2", JournalCursors.load().get(journalUrl));
+    consumer.poll();
+    assertTrue(queries.get(queries.size() - 1).contains("since=2"));
+    assertEquals(2, subscriber.events.size());
+  }
+
+  @Test
+  public void parseWrappedEvents() throws Exception {
+    String body = "{\"events\":[{\"position\":\"a\",\"event\":{\"header\":{},\"body\":{\"event_id\":\"1\"}}}],\"_page\":{\"last\":\"a\",\"count\":1}}";
+    JournalClient.Batch batch = JournalClient.parse(body, null);
+    assertEquals(Collections.singletonList("{\"event_id\":\"1\"}"), batch.getEvents());
+    assertEquals("a", batch.getCursor());
+
+    batch = JournalClient.parse("{\"events\":[]}", "a");
+    assertTrue(batch.isEmpty());
+    assertEquals("a", batch.getCursor());
+  }
+
+  @TestExtension("consumesJournal")
+  public static class RecordingSubscriber extends CloudManagerEventSubscriber {
+    public final List<CloudManagerSubscriberEvent> events = new CopyOnWriteArrayList<>();
+
+    @Nonnull
+    @Override
+    protected Set<CloudManagerEvent.EventType> types() {
+      return Collections.unmodifiableSet(EnumSet.of(CloudManagerEvent.EventType.STEP_STARTED, CloudManagerEvent.EventType.PIPELINE_ENDED));
+    }
+
+    @Override
+    protected void onEvent(CloudManagerSubscriberEvent event) {
+      events.add(event);
+    }
+  }
+}
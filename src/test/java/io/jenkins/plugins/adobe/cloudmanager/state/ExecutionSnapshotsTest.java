@@ -0,0 +1,93 @@
+package io.jenkins.plugins.adobe.cloudmanager.state;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ExecutionSnapshotsTest {
+
+  private String started;
+  private String ended;
+
+  @Before
+  public void before() throws Exception {
+    started = IOUtils.resourceToString("events/step-started.json", StandardCharsets.UTF_8, ExecutionSnapshotsTest.class.getClassLoader());
+    ended = IOUtils.resourceToString("events/step-ended.json", StandardCharsets.UTF_8, ExecutionSnapshotsTest.class.getClassLoader());
+  }
+
+  @Test
+  public void sharedPerGeneration() throws Exception {
+    ExecutionSnapshots snapshots = new ExecutionSnapshots();
+    AtomicInteger loads = new AtomicInteger();
+
+    // Subscribers for events of the same execution share the snapshot.
+    snapshots.execution(started, 1, () -> {
+      loads.incrementAndGet();
+      return null;
+    });
+    snapshots.execution(ended, 1, () -> {
+      loads.incrementAndGet();
+      return null;
+    });
+    assertEquals(1, loads.get());
+
+    // A new event moves the execution to a new generation.
+    snapshots.execution(ended, 2, () -> {
+      loads.incrementAndGet();
+      return null;
+    });
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void stepStatesPerStep() throws Exception {
+    ExecutionSnapshots snapshots = new ExecutionSnapshots();
+    AtomicInteger loads = new AtomicInteger();
+    snapshots.stepState(started, 1, () -> {
+      loads.incrementAndGet();
+      return null;
+    });
+    snapshots.stepState(started, 1, () -> {
+      loads.incrementAndGet();
+      return null;
+    });
+    assertEquals(1, loads.get());
+
+    snapshots.stepState(ended, 1, () -> {
+      loads.incrementAndGet();
+      return null;
+    });
+    assertEquals(2, loads.get());
+  }
+}
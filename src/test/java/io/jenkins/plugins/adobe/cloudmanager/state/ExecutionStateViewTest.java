@@ -0,0 +1,156 @@
+package io.jenkins.plugins.adobe.cloudmanager.state;
+
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.OffsetDateTime;
+
+import io.adobe.cloudmanager.PipelineExecution;
+import io.adobe.cloudmanager.PipelineExecutionStepState;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import mockit.Expectations;
+import mockit.Mocked;
+import org.junit.Test;
+import static io.adobe.cloudmanager.event.CloudManagerEvent.EventType.*;
+import static org.junit.Assert.*;
+
+public class ExecutionStateViewTest {
+
+  private static final CloudManagerPipelineExecution EXECUTION = new CloudManagerPipelineExecution("1", "2", "3");
+
+  @Mocked
+  private PipelineExecution pipelineExecution;
+  @Mocked
+  private PipelineExecutionStepState stepState;
+
+  @Test
+  public void unknownExecution() {
+    ExecutionStateView view = new ExecutionStateView();
+    assertNull(view.get(EXECUTION));
+    assertNull(view.fresh(EXECUTION));
+  }
+
+  @Test
+  public void eventOnlyIsStale() {
+    ExecutionStateView view = new ExecutionStateView();
+    OffsetDateTime published = OffsetDateTime.now();
+    view.onEvent(EXECUTION, STEP_STARTED, published);
+
+    ExecutionState state = view.get(EXECUTION);
+    assertNotNull(state);
+    assertEquals(STEP_STARTED, state.getLastEvent());
+    assertEquals(published, state.getLastEventPublished());
+    assertNull(view.fresh(EXECUTION));
+  }
+
+  @Test
+  public void apiResponseIsFresh() {
+    new Expectations() {{
+      stepState.getAction();
+      result = "approval";
+      stepState.getStatusState();
+      result = PipelineExecutionStepState.Status.WAITING;
+      pipelineExecution.getStatusState();
+      result = PipelineExecution.Status.RUNNING;
+    }};
+    ExecutionStateView view = new ExecutionStateView();
+    view.onEvent(EXECUTION, STEP_WAITING, null);
+    view.update(EXECUTION, view.generation(EXECUTION), pipelineExecution, stepState);
+
+    ExecutionState state = view.fresh(EXECUTION);
+    assertNotNull(state);
+    assertEquals("approval", state.getCurrentAction());
+    assertEquals(PipelineExecution.Status.RUNNING, state.getStatus());
+    assertEquals(STEP_WAITING, state.getLastEvent());
+  }
+
+  @Test
+  public void eventAfterResponseIsStale() {
+    new Expectations() {{
+      stepState.getStatusState();
+      result = PipelineExecutionStepState.Status.RUNNING;
+    }};
+    ExecutionStateView view = new ExecutionStateView();
+    view.update(EXECUTION, 0, pipelineExecution, stepState);
+    assertNotNull(view.fresh(EXECUTION));
+
+    view.onEvent(EXECUTION, STEP_ENDED, null);
+    assertNull(view.fresh(EXECUTION));
+    assertSame(stepState, view.get(EXECUTION).getCurrentStep());
+  }
+
+  @Test
+  public void invalidateIsStale() {
+    ExecutionStateView view = new ExecutionStateView();
+    view.update(EXECUTION, 0, pipelineExecution, stepState);
+    view.invalidate(EXECUTION);
+    assertNull(view.fresh(EXECUTION));
+  }
+
+  @Test
+  public void executionResponseDropsStep() {
+    ExecutionStateView view = new ExecutionStateView();
+    view.update(EXECUTION, 0, pipelineExecution, stepState);
+    view.update(EXECUTION, 0, pipelineExecution);
+    assertNull(view.get(EXECUTION).getCurrentStep());
+  }
+
+  @Test
+  public void eventDuringFetchIsStale() {
+    ExecutionStateView view = new ExecutionStateView();
+    view.onEvent(EXECUTION, STEP_STARTED, null);
+    long generation = view.generation(EXECUTION);
+    view.onEvent(EXECUTION, STEP_ENDED, null);
+    view.update(EXECUTION, generation, pipelineExecution);
+    assertNotNull(view.get(EXECUTION).getPipelineExecution());
+    assertNull(view.fresh(EXECUTION));
+
+    view.update(EXECUTION, view.generation(EXECUTION), pipelineExecution);
+    assertNotNull(view.fresh(EXECUTION));
+  }
+
+  @Test
+  public void finishedStepIsNotCurrent() {
+    new Expectations() {{
+      stepState.getStatusState();
+      result = PipelineExecutionStepState.Status.FINISHED;
+    }};
+    ExecutionStateView view = new ExecutionStateView();
+    view.update(EXECUTION, 0, pipelineExecution, stepState);
+    assertNull(view.get(EXECUTION).getCurrentStep());
+  }
+
+  @Test
+  public void bounded() {
+    ExecutionStateView view = new ExecutionStateView();
+    for (int i = 0; i <= ExecutionStateView.MAX_ENTRIES; i++) {
+      view.onEvent(new CloudManagerPipelineExecution("1", "2", String.valueOf(i)), STEP_STARTED, null);
+    }
+    assertEquals(ExecutionStateView.MAX_ENTRIES, view.size());
+    assertNull(view.get(new CloudManagerPipelineExecution("1", "2", "0")));
+  }
+}
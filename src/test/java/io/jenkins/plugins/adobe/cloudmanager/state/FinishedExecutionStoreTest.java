@@ -0,0 +1,147 @@
+package io.jenkins.plugins.adobe.cloudmanager.state;
+
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import io.adobe.cloudmanager.PipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import mockit.Expectations;
+import mockit.Mocked;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+public class FinishedExecutionStoreTest {
+
+  private static final CloudManagerPipelineExecution EXECUTION = new CloudManagerPipelineExecution("1", "2", "3");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Mocked
+  private PipelineExecution pipelineExecution;
+
+  @Test
+  public void ignoresRunning() throws Exception {
+    new Expectations() {{
+      pipelineExecution.getStatusState();
+      result = PipelineExecution.Status.RUNNING;
+    }};
+    FinishedExecutionStore store = loaded(new FinishedExecutionStore(folder.getRoot(), 10));
+    store.put(EXECUTION, pipelineExecution);
+    assertNull(store.getStatus(EXECUTION));
+    assertEquals(0, store.size());
+  }
+
+  @Test
+  public void storesFinished() throws Exception {
+    new Expectations() {{
+      pipelineExecution.getStatusState();
+      result = PipelineExecution.Status.FAILED;
+    }};
+    FinishedExecutionStore store = loaded(new FinishedExecutionStore(folder.getRoot(), 10));
+    store.put(EXECUTION, pipelineExecution);
+    assertEquals(PipelineExecution.Status.FAILED, store.getStatus(EXECUTION));
+    assertEquals(1, store.size());
+
+    // Survives a restart, once the index is loaded.
+    store = new FinishedExecutionStore(folder.getRoot(), 10);
+    assertNull(store.getStatus(EXECUTION));
+    loaded(store);
+    assertEquals(PipelineExecution.Status.FAILED, store.getStatus(EXECUTION));
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() throws Exception {
+    new Expectations() {{
+      pipelineExecution.getStatusState();
+      result = PipelineExecution.Status.FINISHED;
+    }};
+    FinishedExecutionStore store = loaded(new FinishedExecutionStore(folder.getRoot(), 10));
+    store.put(EXECUTION, pipelineExecution);
+
+    store = loaded(new FinishedExecutionStore(folder.getRoot(), 1));
+    CloudManagerPipelineExecution other = new CloudManagerPipelineExecution("1", "2", "4");
+    store.put(other, pipelineExecution);
+    assertNull(store.getStatus(EXECUTION));
+    assertEquals(PipelineExecution.Status.FINISHED, store.getStatus(other));
+    assertEquals(1, store.size());
+    assertEquals(1, Objects.requireNonNull(folder.getRoot().listFiles()).length);
+  }
+
+  @Test
+  public void readKeepsRecentlyUsed() throws Exception {
+    new Expectations() {{
+      pipelineExecution.getStatusState();
+      result = PipelineExecution.Status.FINISHED;
+    }};
+    FinishedExecutionStore store = loaded(new FinishedExecutionStore(folder.getRoot(), 10));
+    store.put(EXECUTION, pipelineExecution);
+
+    store = loaded(new FinishedExecutionStore(folder.getRoot(), 2));
+    CloudManagerPipelineExecution second = new CloudManagerPipelineExecution("1", "2", "4");
+    CloudManagerPipelineExecution third = new CloudManagerPipelineExecution("1", "2", "5");
+    store.put(second, pipelineExecution);
+    assertNotNull(store.getStatus(EXECUTION));
+    store.put(third, pipelineExecution);
+    assertNotNull(store.getStatus(EXECUTION));
+    assertNull(store.getStatus(second));
+    assertNotNull(store.getStatus(third));
+  }
+
+  @Test
+  public void ignoresCorrupted() throws Exception {
+    new Expectations() {{
+      pipelineExecution.getStatusState();
+      result = PipelineExecution.Status.CANCELLED;
+    }};
+    FinishedExecutionStore store = loaded(new FinishedExecutionStore(folder.getRoot(), 10));
+    store.put(EXECUTION, pipelineExecution);
+    corrupt(Objects.requireNonNull(folder.getRoot().listFiles())[0]);
+
+    // Documents are only read after a restart, their status is kept once read.
+    store = loaded(new FinishedExecutionStore(folder.getRoot(), 10));
+    assertNull(store.getStatus(EXECUTION));
+    assertEquals(0, store.size());
+  }
+
+  private static FinishedExecutionStore loaded(FinishedExecutionStore store) throws Exception {
+    store.loading().get(5, TimeUnit.SECONDS);
+    return store;
+  }
+
+  private static void corrupt(File file) throws IOException {
+    Files.write(file.toPath(), new byte[]{ 1, 2, 3 });
+  }
+}
@@ -0,0 +1,175 @@
+package io.jenkins.plugins.adobe.cloudmanager.state;
+
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.adobe.cloudmanager.CloudManagerApiException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SnapshotCacheTest {
+
+  @Test
+  public void sharesInFlightLoad() throws Exception {
+    SnapshotCache<String, String> cache = new SnapshotCache<>(60000, 60000, 10, v -> false);
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService service = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = service.submit(() -> cache.get("key", () -> {
+        loads.incrementAndGet();
+        loading.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return "value";
+      }));
+      assertTrue(loading.await(5, TimeUnit.SECONDS));
+      Future<String> second = service.submit(() -> cache.get("key", () -> {
+        loads.incrementAndGet();
+        return "other";
+      }));
+      release.countDown();
+      assertEquals("value", first.get(5, TimeUnit.SECONDS));
+      assertEquals("value", second.get(5, TimeUnit.SECONDS));
+      assertEquals(1, loads.get());
+      assertEquals(1, cache.getLoads());
+      assertEquals(1, cache.getHits());
+    } finally {
+      service.shutdownNow();
+    }
+  }
+
+  @Test
+  public void expiresAfterTtl() throws Exception {
+    SnapshotCache<String, String> cache = new SnapshotCache<>(0, 60000, 10, v -> false);
+    assertEquals("first", cache.get("key", () -> "first"));
+    Thread.sleep(1);
+    assertEquals("second", cache.get("key", () -> "second"));
+    assertEquals(2, cache.getLoads());
+  }
+
+  @Test
+  public void keepsFinishedLonger() throws Exception {
+    SnapshotCache<String, String> cache = new SnapshotCache<>(0, 60000, 10, "done"::equals);
+    assertEquals("done", cache.get("key", () -> "done"));
+    Thread.sleep(1);
+    assertEquals("done", cache.get("key", () -> "second"));
+    assertEquals(1, cache.getLoads());
+  }
+
+  @Test
+  public void failuresNotCached() throws Exception {
+    SnapshotCache<String, String> cache = new SnapshotCache<>(60000, 60000, 10, v -> false);
+    assertThrows(CloudManagerApiException.class, () -> cache.get("key", () -> {
+      throw new CloudManagerApiException(CloudManagerApiException.ErrorType.FIND_PROGRAM, "1");
+    }));
+    assertEquals(0, cache.size());
+    assertEquals("value", cache.get("key", () -> "value"));
+  }
+
+  @Test
+  public void errorReleasesWaiting() throws Exception {
+    SnapshotCache<String, String> cache = new SnapshotCache<>(60000, 60000, 10, v -> false);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService service = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = service.submit(() -> cache.get("key", () -> {
+        loading.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        throw new AssertionError("load");
+      }));
+      assertTrue(loading.await(5, TimeUnit.SECONDS));
+      Future<String> second = service.submit(() -> cache.get("key", () -> "other"));
+      Thread.sleep(100);
+      release.countDown();
+      ExecutionException failed = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+      assertTrue(failed.getCause() instanceof AssertionError);
+      // Either shares the failed load, or loads once it was removed; it must not wait forever.
+      try {
+        assertEquals("other", second.get(5, TimeUnit.SECONDS));
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof AssertionError);
+      }
+    } finally {
+      service.shutdownNow();
+    }
+  }
+
+  @Test
+  public void stopsWaitingAfterTimeout() throws Exception {
+    SnapshotCache<String, String> cache = new SnapshotCache<>(60000, 60000, 100, 10, v -> false);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService service = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = service.submit(() -> cache.get("key", () -> {
+        loading.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return "stuck";
+      }));
+      assertTrue(loading.await(5, TimeUnit.SECONDS));
+      assertEquals("own", cache.get("key", () -> "own"));
+      assertEquals(2, cache.getLoads());
+      assertEquals(0, cache.getHits());
+      release.countDown();
+      assertEquals("stuck", first.get(5, TimeUnit.SECONDS));
+    } finally {
+      service.shutdownNow();
+    }
+  }
+
+  @Test
+  public void purgesExpired() throws Exception {
+    SnapshotCache<String, String> cache = new SnapshotCache<>(0, 0, 2, v -> false);
+    for (int i = 0; i < 5; i++) {
+      cache.get("key" + i, () -> "value");
+      Thread.sleep(1);
+    }
+    assertTrue(cache.size() <= 2);
+  }
+}
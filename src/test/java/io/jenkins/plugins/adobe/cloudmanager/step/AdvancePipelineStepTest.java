@@ -36,6 +36,7 @@ import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
 import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
+import io.jenkins.plugins.adobe.cloudmanager.state.ExecutionStateView;
 import io.jenkins.plugins.adobe.cloudmanager.step.execution.Messages;
 import mockit.Expectations;
 import mockit.Mock;
@@ -52,6 +53,7 @@ import org.junit.Test;
 import org.jvnet.hudson.test.BuildWatcher;
 import org.jvnet.hudson.test.RestartableJenkinsRule;
 import static io.jenkins.plugins.adobe.cloudmanager.test.TestHelper.*;
+import static org.junit.Assert.*;
 
 public class AdvancePipelineStepTest {
 
@@ -148,6 +150,46 @@ public class AdvancePipelineStepTest {
     });
   }
 
+  @Test
+  public void advancesFromStateView() {
+    story.then(rule ->  {
+
+      new Expectations() {{
+        projectConfig.authenticate();
+        result = Secret.fromString(ACCESS_TOKEN);
+        api.getExecution("1", "1", "1");
+        times = 0;
+        api.getCurrentStep(pipelineExecution);
+        times = 0;
+        stepState.getAction();
+        result = "codeQuality";
+        stepState.getStatusState();
+        result = PipelineExecutionStepState.Status.WAITING;
+        api.advanceExecution(pipelineExecution);
+      }};
+
+      CloudManagerPipelineExecution cmExecution = new CloudManagerPipelineExecution("1", "1", "1");
+      ExecutionStateView.get().update(cmExecution, ExecutionStateView.get().generation(cmExecution), pipelineExecution, stepState);
+
+      WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+      CpsFlowDefinition flow = new CpsFlowDefinition(
+          "node {\n" +
+              "    semaphore 'before'\n" +
+              "    acmAdvancePipeline(actions:['codeQuality'])\n" +
+              "}",
+          true);
+      job.setDefinition(flow);
+      WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+      SemaphoreStep.waitForStart("before/1", run);
+      run.addAction(new CloudManagerBuildAction(AIO_PROJECT_NAME, cmExecution));
+      SemaphoreStep.success("before/1", true);
+      rule.waitForMessage(Messages.AdvancePipelineExecution_info_advancingPipeline("codeQuality"), run);
+      rule.waitForCompletion(run);
+      rule.assertBuildStatus(Result.SUCCESS, run);
+      assertTrue(ExecutionStateView.get().get(cmExecution).isChanged());
+    });
+  }
+
   @Test
   public void advancesApproval() {
     story.then(rule ->  {
@@ -0,0 +1,238 @@
+package io.jenkins.plugins.adobe.cloudmanager.step;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.sun.net.httpserver.HttpServer;
+import hudson.model.Run;
+import hudson.util.Secret;
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.adobe.cloudmanager.PipelineExecutionStepState;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
+import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
+import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
+import io.jenkins.plugins.adobe.cloudmanager.step.execution.Messages;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
+import mockit.Expectations;
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.Mocked;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.test.steps.SemaphoreStep;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.BuildWatcher;
+import org.jvnet.hudson.test.JenkinsRule;
+import static io.adobe.cloudmanager.PipelineExecutionStepState.Status.*;
+import static io.jenkins.plugins.adobe.cloudmanager.test.TestHelper.*;
+import static org.junit.Assert.*;
+
+public class ArchiveStepLogsStepTest {
+
+  @ClassRule
+  public static BuildWatcher watcher = new BuildWatcher();
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+
+  @Mocked
+  private AdobeIOProjectConfig projectConfig;
+
+  @Mocked
+  private CloudManagerApi api;
+
+  @Mocked
+  private PipelineExecution pe;
+
+  @Mocked
+  private PipelineExecutionStepState state;
+
+  private HttpServer server;
+  private String url;
+
+  @Before
+  public void before() throws Exception {
+    new MockUp<CloudManagerApiUtil>() {
+      @Mock
+      public Function<String, Optional<CloudManagerApi>> createApi() { return (name) -> Optional.of(api); }
+    };
+    new MockUp<AdobeIOConfig>() {
+      @Mock
+      public AdobeIOProjectConfig projectConfigFor(String name) {
+        return projectConfig;
+      }
+    };
+    // Stub log store, the log of each action is its name.
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/log", (exchange) -> {
+      byte[] body = exchange.getRequestURI().getPath().substring("/log/".length()).getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(body);
+      }
+      exchange.close();
+    });
+    server.start();
+    url = String.format("http://localhost:%d/log/", server.getAddress().getPort());
+  }
+
+  @After
+  public void after() {
+    server.stop(0);
+  }
+
+  @Test
+  public void downloadsFinishedLogs() throws Exception {
+    new Expectations() {{
+      projectConfig.authenticate();
+      result = Secret.fromString(ACCESS_TOKEN);
+      api.getExecutionStepLogDownloadUrl("1", "1", "1", "build", null);
+      result = url + "build";
+      api.getExecutionStepLogDownloadUrl("1", "1", "1", "codeQuality", null);
+      result = url + "codeQuality";
+      api.getExecutionStepLogDownloadUrl("1", "1", "1", "codeQuality", CloudManagerBuildAction.SONAR_LOG);
+      result = new CloudManagerApiException(CloudManagerApiException.ErrorType.FIND_PROGRAM, "1");
+    }};
+
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "node {\n" +
+            "    semaphore 'before'\n" +
+            "    acmArchiveStepLogs(archive: true, parallelism: 2)\n" +
+            "    echo readFile('cloudmanager-logs/build.log')\n" +
+            "}",
+        true);
+    job.setDefinition(flow);
+    WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+    SemaphoreStep.waitForStart("before/1", run);
+    CloudManagerBuildAction action = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "1", "1"));
+    run.addAction(action);
+    action.addStep(new CloudManagerBuildAction.PipelineStep(StepAction.build, FINISHED, true));
+    action.addStep(new CloudManagerBuildAction.PipelineStep(StepAction.codeQuality, FINISHED, true));
+    action.addStep(new CloudManagerBuildAction.PipelineStep(StepAction.deploy, RUNNING, true));
+    SemaphoreStep.success("before/1", true);
+    rule.waitForCompletion(run);
+    rule.assertBuildStatusSuccess(run);
+    rule.assertLogContains(Messages.ArchiveStepLogsExecution_complete(2, 3), run);
+
+    List<String> artifacts = run.getArtifacts().stream().map(Run.Artifact::getFileName).sorted().collect(Collectors.toList());
+    assertEquals(2, artifacts.size());
+    assertEquals("build.log", artifacts.get(0));
+    assertEquals("codeQuality.log", artifacts.get(1));
+  }
+
+  @Test
+  public void afterPollingLooksUpLogs() throws Exception {
+    new Expectations() {{
+      projectConfig.authenticate();
+      result = Secret.fromString(ACCESS_TOKEN);
+      api.isExecutionRunning("1", "1", "1");
+      result = false;
+      api.getExecution("1", "1", "1");
+      result = pe;
+      pe.getStatusState();
+      result = PipelineExecution.Status.FINISHED;
+      for (StepAction action : StepAction.values()) {
+        api.getExecutionStepState(pe, action.name());
+        result = action == StepAction.build ? state : new CloudManagerApiException(CloudManagerApiException.ErrorType.FIND_PROGRAM, "1");
+      }
+      state.hasLogs();
+      result = true;
+      state.getStatusState();
+      result = FINISHED;
+      api.getExecutionStepLogDownloadUrl("1", "1", "1", "build", null);
+      result = url + "build";
+    }};
+
+    // The documented flow: no step waits on step events, so none are recorded on the build.
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "node {\n" +
+            "    semaphore 'before'\n" +
+            "    acmPollPipeline()\n" +
+            "    acmArchiveStepLogs()\n" +
+            "    echo readFile('cloudmanager-logs/build.log')\n" +
+            "}",
+        true);
+    job.setDefinition(flow);
+    WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+    SemaphoreStep.waitForStart("before/1", run);
+    run.addAction(new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "1", "1")));
+    SemaphoreStep.success("before/1", true);
+    rule.waitForCompletion(run);
+    rule.assertBuildStatusSuccess(run);
+    rule.assertLogContains(Messages.ArchiveStepLogsExecution_discover(), run);
+    rule.assertLogContains(Messages.ArchiveStepLogsExecution_complete(1, 1), run);
+  }
+
+  @Test
+  public void runningWithoutStepsDownloadsNothing() throws Exception {
+    new Expectations() {{
+      projectConfig.authenticate();
+      result = Secret.fromString(ACCESS_TOKEN);
+      api.getExecution("1", "1", "1");
+      result = pe;
+      pe.getStatusState();
+      result = PipelineExecution.Status.RUNNING;
+      api.getExecutionStepLogDownloadUrl(anyString, anyString, anyString, anyString, anyString);
+      times = 0;
+    }};
+
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "node {\n" +
+            "    semaphore 'before'\n" +
+            "    acmArchiveStepLogs()\n" +
+            "}",
+        true);
+    job.setDefinition(flow);
+    WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+    SemaphoreStep.waitForStart("before/1", run);
+    run.addAction(new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "1", "1")));
+    SemaphoreStep.success("before/1", true);
+    rule.waitForCompletion(run);
+    rule.assertBuildStatusSuccess(run);
+    rule.assertLogContains(Messages.ArchiveStepLogsExecution_warn_running(), run);
+    rule.assertLogContains(Messages.ArchiveStepLogsExecution_complete(0, 0), run);
+  }
+}
@@ -46,6 +46,7 @@ import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
 import io.jenkins.plugins.adobe.cloudmanager.step.execution.Messages;
 import io.jenkins.plugins.adobe.cloudmanager.step.execution.PipelineEndExecution;
 import io.jenkins.plugins.adobe.cloudmanager.step.execution.PipelineStepStateExecution;
+import io.jenkins.plugins.adobe.cloudmanager.step.execution.StepStateExecutions;
 import io.jenkins.plugins.adobe.cloudmanager.test.RestartTest;
 import mockit.Expectations;
 import mockit.Mock;
@@ -233,10 +234,12 @@ public class PipelineEndStepTest {
       SemaphoreStep.success("before/1", true);
 
       rule.waitForMessage(Messages.PipelineStepStateExecution_waiting(), run);
+      assertEquals(1, StepStateExecutions.get().size());
       PipelineEndExecution execution = (PipelineEndExecution) run.getExecution().getCurrentExecutions(false).get().stream().filter(e -> e instanceof PipelineEndExecution).findFirst().orElse(null);
       execution.occurred(pipelineExecution);
 
       rule.waitForCompletion(run);
+      assertEquals(0, StepStateExecutions.get().size());
 
       String xml = FileUtils.readFileToString(new File(run.getRootDir(), "build.xml"), Charset.defaultCharset());
       assertFalse(xml.contains(PipelineEndExecution.class.getName()));
@@ -333,6 +336,7 @@ public class PipelineEndStepTest {
       while ((execution = (PipelineEndExecution) run.getExecution().getCurrentExecutions(false).get().stream().filter(e -> e instanceof PipelineEndExecution).findFirst().orElse(null)) == null) {
         Thread.sleep(100);
       }
+      assertEquals(1, StepStateExecutions.get().size());
       execution.occurred(pipelineExecution);
 
       rule.waitForCompletion(run);
@@ -723,6 +723,8 @@ public class PipelineStepStateStepTest {
       }
       PipelineStepStateExecution execution = (PipelineStepStateExecution) run.getExecution().getCurrentExecutions(false).get().stream().filter(e -> e instanceof PipelineStepStateExecution).findFirst().orElse(null);
       PipelineWaitingAction action = run.getAction(PipelineWaitingAction.class);
+      assertFalse(action.isLoading());
+      assertEquals(execution, action.getExecution(execution.getId()));
       JenkinsRule.WebClient client = rule.createWebClient();
       HtmlPage page = client.getPage(run, action.getUrlName());
       rule.submit(page.getFormByName(execution.getId()), "proceed");
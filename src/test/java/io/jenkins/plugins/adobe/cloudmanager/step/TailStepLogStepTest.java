@@ -0,0 +1,204 @@
+package io.jenkins.plugins.adobe.cloudmanager.step;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.sun.net.httpserver.HttpServer;
+import hudson.model.Result;
+import hudson.util.Secret;
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
+import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
+import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
+import io.jenkins.plugins.adobe.cloudmanager.step.execution.Messages;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
+import mockit.Expectations;
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.Mocked;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.test.steps.SemaphoreStep;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.BuildWatcher;
+import org.jvnet.hudson.test.JenkinsRule;
+import static io.jenkins.plugins.adobe.cloudmanager.test.TestHelper.*;
+
+public class TailStepLogStepTest {
+
+  private static final String LOG = "Build step log line.";
+
+  @ClassRule
+  public static BuildWatcher watcher = new BuildWatcher();
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+
+  @Mocked
+  private AdobeIOProjectConfig projectConfig;
+
+  @Mocked
+  private CloudManagerApi api;
+
+  @Mocked
+  private PipelineExecution pe;
+
+  private HttpServer server;
+  private String url;
+
+  @Before
+  public void before() throws Exception {
+    new MockUp<CloudManagerApiUtil>() {
+      @Mock
+      public Function<String, Optional<CloudManagerApi>> createApi() { return (name) -> Optional.of(api); }
+    };
+    new MockUp<AdobeIOConfig>() {
+      @Mock
+      public AdobeIOProjectConfig projectConfigFor(String name) {
+        return projectConfig;
+      }
+    };
+    // Stub log store, always returns the whole log.
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/log", (exchange) -> {
+      byte[] body = LOG.getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(body);
+      }
+      exchange.close();
+    });
+    server.start();
+    url = String.format("http://localhost:%d/log", server.getAddress().getPort());
+  }
+
+  @After
+  public void after() {
+    server.stop(0);
+  }
+
+  private WorkflowRun run() throws Exception {
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "node {\n" +
+            "    semaphore 'before'\n" +
+            "    acmTailStepLog(action: 'build', recurrencePeriod: 1000)\n" +
+            "}",
+        true);
+    job.setDefinition(flow);
+    WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+    SemaphoreStep.waitForStart("before/1", run);
+    run.addAction(new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "1", "1")));
+    SemaphoreStep.success("before/1", true);
+    return run;
+  }
+
+  @Test
+  public void executionCheckFails() throws Exception {
+    new Expectations() {{
+      projectConfig.authenticate();
+      result = Secret.fromString(ACCESS_TOKEN);
+      api.getExecution("1", "1", "1");
+      result = new CloudManagerApiException(CloudManagerApiException.ErrorType.FIND_PROGRAM, "1");
+    }};
+    WorkflowRun run = run();
+    rule.waitForMessage("An API exception occurred:", run);
+    rule.assertBuildStatus(Result.FAILURE, run);
+  }
+
+  @Test
+  public void streamsRestOfLog() throws Exception {
+    new Expectations() {{
+      projectConfig.authenticate();
+      result = Secret.fromString(ACCESS_TOKEN);
+      api.getExecution("1", "1", "1");
+      result = pe;
+      pe.getStatusState();
+      result = PipelineExecution.Status.FINISHED;
+      api.getExecutionStepLogDownloadUrl("1", "1", "1", "build", null);
+      result = url;
+    }};
+    WorkflowRun run = run();
+    rule.waitForCompletion(run);
+    rule.assertBuildStatusSuccess(run);
+    rule.assertLogContains(LOG, run);
+    rule.assertLogContains(Messages.TailStepLogExecution_complete(StepAction.build), run);
+  }
+
+  @Test
+  public void noLog() throws Exception {
+    new Expectations() {{
+      projectConfig.authenticate();
+      result = Secret.fromString(ACCESS_TOKEN);
+      api.getExecution("1", "1", "1");
+      result = pe;
+      pe.getStatusState();
+      result = PipelineExecution.Status.FAILED;
+      api.getExecutionStepLogDownloadUrl("1", "1", "1", "build", null);
+      result = new CloudManagerApiException(CloudManagerApiException.ErrorType.FIND_PROGRAM, "1");
+    }};
+    WorkflowRun run = run();
+    rule.waitForCompletion(run);
+    rule.assertBuildStatusSuccess(run);
+    rule.assertLogContains(Messages.TailStepLogExecution_noLog(StepAction.build), run);
+  }
+
+  @Test
+  public void currentStepUnknownRetries() throws Exception {
+    new Expectations() {{
+      projectConfig.authenticate();
+      result = Secret.fromString(ACCESS_TOKEN);
+      api.getExecution("1", "1", "1");
+      result = pe;
+      pe.getStatusState();
+      returns(PipelineExecution.Status.RUNNING, PipelineExecution.Status.FINISHED);
+      api.getCurrentStep(pe);
+      result = new CloudManagerApiException(CloudManagerApiException.ErrorType.FIND_PROGRAM, "1");
+      api.getExecutionStepLogDownloadUrl("1", "1", "1", "build", null);
+      result = url;
+    }};
+    WorkflowRun run = run();
+    rule.waitForCompletion(run);
+    rule.assertBuildStatusSuccess(run);
+    rule.assertLogContains("Unable to find the current step", run);
+    rule.assertLogContains(Messages.TailStepLogExecution_complete(StepAction.build), run);
+  }
+}
@@ -0,0 +1,176 @@
+package io.jenkins.plugins.adobe.cloudmanager.test;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.HttpMethod;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.entity.ContentType;
+
+import io.adobe.cloudmanager.event.CloudManagerEvent;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerEventUtil;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.CloudManagerWebHook;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.TrafficRecorder;
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jvnet.hudson.test.JenkinsRule;
+import static org.junit.Assert.*;
+
+/**
+ * Replays WebHook traffic recorded by the {@link TrafficRecorder} against a {@link JenkinsRule} instance, and measures the outcome.
+ * <p>
+ *   Each event is signed and sent to the WebHook at a fixed rate. Latency is measured from sending the event that unblocks
+ *   a build, until that build completes.
+ * </p>
+ */
+public class ReplayHarness {
+
+  private final JenkinsRule rule;
+  private final String secret;
+  private final Map<String, Long> sent = new ConcurrentHashMap<>();
+
+  public ReplayHarness(JenkinsRule rule, String secret) {
+    this.rule = rule;
+    this.secret = secret;
+  }
+
+  /**
+   * Read a recording.
+   */
+  public static List<JSONObject> read(Path file) throws IOException {
+    List<JSONObject> events = new ArrayList<>();
+    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+      if (StringUtils.isNotBlank(line)) {
+        events.add(JSONObject.fromObject(line));
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Heap in use after a garbage collection, in bytes.
+   */
+  public static long usedHeap() {
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  /**
+   * Send all events at the specified rate.
+   *
+   * @param events recorded events
+   * @param rate   events per second
+   * @return the time taken to send all events, in nanoseconds
+   */
+  public long replay(List<JSONObject> events, double rate) throws Exception {
+    long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+    long start = System.nanoTime();
+    for (int i = 0; i < events.size(); i++) {
+      long wait = start + i * interval - System.nanoTime();
+      if (wait > 0) {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      }
+      String payload = events.get(i).getString(TrafficRecorder.PAYLOAD);
+      String type = events.get(i).getString(TrafficRecorder.TYPE);
+      send(payload);
+      CloudManagerEventUtil.executionFor(payload).ifPresent(e -> sent.put(key(e, type), System.currentTimeMillis()));
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Wait for the builds to complete, and collect their latency.
+   *
+   * @param runs builds, with the event type which unblocks each
+   * @return latency of each build, in milliseconds, sorted
+   */
+  public List<Long> await(Map<WorkflowRun, CloudManagerEvent.EventType> runs) throws Exception {
+    List<Long> latencies = new ArrayList<>();
+    for (Map.Entry<WorkflowRun, CloudManagerEvent.EventType> entry : runs.entrySet()) {
+      WorkflowRun run = rule.waitForCompletion(entry.getKey());
+      rule.assertBuildStatusSuccess(run);
+      CloudManagerPipelineExecution execution = run.getAction(CloudManagerBuildAction.class).getCmExecution();
+      Long sentAt = sent.get(key(execution, entry.getValue().name()));
+      assertNotNull(sentAt);
+      latencies.add(run.getStartTimeInMillis() + run.getDuration() - sentAt);
+    }
+    Collections.sort(latencies);
+    return latencies;
+  }
+
+  /**
+   * Value at the percentile of sorted values.
+   */
+  public static long percentile(List<Long> sorted, double percentile) {
+    if (sorted.isEmpty()) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+    return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+  }
+
+  private void send(String payload) throws Exception {
+    String url = String.format("%s%s/", rule.getURL().toString(), CloudManagerWebHook.URL_NAME);
+    HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
+    con.setRequestMethod(HttpMethod.POST);
+    con.setRequestProperty(CloudManagerEvent.SIGNATURE_HEADER, sign(payload));
+    con.setRequestProperty("Content-Type", ContentType.APPLICATION_JSON.getMimeType());
+    con.setDoOutput(true);
+    IOUtils.write(payload, con.getOutputStream(), StandardCharsets.UTF_8);
+    assertEquals(HttpServletResponse.SC_OK, con.getResponseCode());
+  }
+
+  private String sign(String toSign) throws Exception {
+    Mac mac = Mac.getInstance("HmacSHA256");
+    mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+    return Base64.getEncoder().encodeToString(mac.doFinal(toSign.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static String key(CloudManagerPipelineExecution execution, String type) {
+    return String.join("/", execution.getProgramId(), execution.getPipelineId(), execution.getExecutionId(), type);
+  }
+}
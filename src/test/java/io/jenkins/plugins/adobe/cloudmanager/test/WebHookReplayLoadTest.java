@@ -0,0 +1,261 @@
+package io.jenkins.plugins.adobe.cloudmanager.test;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.commons.io.IOUtils;
+
+import hudson.model.Run;
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.adobe.cloudmanager.PipelineExecutionStepState;
+import io.adobe.cloudmanager.StepAction;
+import io.adobe.cloudmanager.event.CloudManagerEvent;
+import io.adobe.cloudmanager.event.PipelineExecutionEndEvent;
+import io.adobe.cloudmanager.event.PipelineExecutionStepEndEvent;
+import io.adobe.cloudmanager.event.PipelineExecutionStepStartEvent;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerEventUtil;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.TrafficRecorder;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.CloudManagerSubscriberEvent;
+import mockit.Expectations;
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.Mocked;
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.jenkinsci.plugins.workflow.steps.SynchronousStepExecution;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static io.adobe.cloudmanager.PipelineExecutionStepState.Status.*;
+import static io.jenkins.plugins.adobe.cloudmanager.test.TestHelper.*;
+import static org.junit.Assert.*;
+
+/**
+ * Replays WebHook traffic against builds waiting on {@code acmPipelineStepState} and {@code acmPipelineEnd}.
+ * <p>
+ *   This only reports measurements, so it is excluded from the regular build; run it with the {@code load-tests} profile.
+ *   By default a small synthetic recording is used. For sizing a controller, run it with:
+ *   <ul>
+ *     <li>{@code -Dreplay.file=<recording.jsonl>} - a recording from {@link TrafficRecorder}, builds are created for each execution in it</li>
+ *     <li>{@code -Dreplay.builds=<count>} - number of synthetic executions, when no file is specified</li>
+ *     <li>{@code -Dreplay.rate=<events per second>}</li>
+ *   </ul>
+ * </p>
+ */
+@Category(LoadTest.class)
+public class WebHookReplayLoadTest {
+
+  private static final String FILE = System.getProperty("replay.file");
+  private static final int BUILDS = Integer.getInteger("replay.builds", 10);
+  private static final double RATE = Double.parseDouble(System.getProperty("replay.rate", "50"));
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WebHookReplayLoadTest.class);
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Mocked
+  private CloudManagerApi api;
+  @Mocked
+  private PipelineExecution pipelineExecution;
+  @Mocked
+  private PipelineExecutionStepState startState;
+  @Mocked
+  private PipelineExecutionStepState endState;
+
+  // Synthesize a recording, each execution has a step start, step end and pipeline end event.
+  private Path synthesize(int executions) throws Exception {
+    Path file = tmp.newFile("replay.jsonl").toPath();
+    TrafficRecorder recorder = TrafficRecorder.forFile(file.toString());
+    String[] fixtures = { "events/step-started.json", "events/step-ended.json", "events/pipeline-ended.json" };
+    CloudManagerEvent.EventType[] types = { CloudManagerEvent.EventType.STEP_STARTED, CloudManagerEvent.EventType.STEP_ENDED, CloudManagerEvent.EventType.PIPELINE_ENDED };
+    for (int i = 0; i < executions; i++) {
+      for (int f = 0; f < fixtures.length; f++) {
+        String payload = IOUtils.resourceToString(fixtures[f], StandardCharsets.UTF_8, WebHookReplayLoadTest.class.getClassLoader())
+            .replace("/execution/3", "/execution/" + (1000 + i));
+        recorder.record(IMS_ORG_ID, new CloudManagerSubscriberEvent(AIO_PROJECT_NAME, types[f], payload));
+      }
+    }
+    return file;
+  }
+
+  @Test
+  public void replay() throws Exception {
+    setupAdobeIOConfigs(rule.jenkins);
+    setupCredentials(rule.jenkins);
+    new MockUp<CloudManagerApiUtil>() {
+      @Mock
+      public Function<String, Optional<CloudManagerApi>> createApi() {
+        return (name) -> Optional.of(api);
+      }
+    };
+    // Events are routed by the execution links in their payloads; the API stub returns the same execution for all.
+    new MockUp<CloudManagerPipelineExecution>() {
+      @Mock
+      public boolean equalTo(PipelineExecution pe) {
+        return true;
+      }
+    };
+
+    new Expectations() {{
+      api.getExecution(withInstanceOf(PipelineExecutionEndEvent.class));
+      result = pipelineExecution;
+      minTimes = 0;
+      api.getExecutionStepState(withInstanceOf(PipelineExecutionStepStartEvent.class));
+      result = startState;
+      minTimes = 0;
+      api.getExecutionStepState(withInstanceOf(PipelineExecutionStepEndEvent.class));
+      result = endState;
+      minTimes = 0;
+      pipelineExecution.getStatusState();
+      result = PipelineExecution.Status.FINISHED;
+      minTimes = 0;
+      startState.getExecution();
+      result = pipelineExecution;
+      minTimes = 0;
+      startState.getAction();
+      result = StepAction.codeQuality.toString();
+      minTimes = 0;
+      startState.getStatusState();
+      result = RUNNING;
+      minTimes = 0;
+      endState.getExecution();
+      result = pipelineExecution;
+      minTimes = 0;
+      endState.getAction();
+      result = StepAction.codeQuality.toString();
+      minTimes = 0;
+      endState.getStatusState();
+      result = FINISHED;
+      minTimes = 0;
+    }};
+
+    Path file = FILE == null ? synthesize(BUILDS) : Paths.get(FILE);
+    List<JSONObject> events = ReplayHarness.read(file);
+    Set<CloudManagerPipelineExecution> executions = new LinkedHashSet<>();
+    events.forEach(e -> CloudManagerEventUtil.executionFor(e.getString(TrafficRecorder.PAYLOAD)).ifPresent(executions::add));
+
+    long heapBefore = ReplayHarness.usedHeap();
+    Map<WorkflowRun, CloudManagerEvent.EventType> runs = new LinkedHashMap<>();
+    int i = 0;
+    for (CloudManagerPipelineExecution execution : executions) {
+      boolean end = i % 2 == 0;
+      WorkflowJob job = rule.createProject(WorkflowJob.class, "replay-" + i++);
+      String script = String.format("testCmExecution program: '%s', pipeline: '%s', execution: '%s'\n", execution.getProgramId(), execution.getPipelineId(), execution.getExecutionId()) +
+          (end ? "acmPipelineEnd(empty: true) {}\n" : "acmPipelineStepState actions: ['codeQuality'], advance: true, waitingPause: false\n");
+      job.setDefinition(new CpsFlowDefinition(script, true));
+      runs.put(job.scheduleBuild2(0).waitForStart(), end ? CloudManagerEvent.EventType.PIPELINE_ENDED : CloudManagerEvent.EventType.STEP_ENDED);
+    }
+    for (WorkflowRun run : runs.keySet()) {
+      rule.waitForMessage("Waiting for an event.", run);
+    }
+    long heapWaiting = ReplayHarness.usedHeap();
+
+    ReplayHarness harness = new ReplayHarness(rule, CLIENT_SECRET);
+    long elapsed = harness.replay(events, RATE);
+    List<Long> latencies = harness.await(runs);
+
+    assertEquals(runs.size(), latencies.size());
+    LOGGER.info(String.format("Replayed %d events for %d builds in %d ms (%.1f events/s).", events.size(), runs.size(),
+        TimeUnit.NANOSECONDS.toMillis(elapsed), events.size() / (elapsed / (double) TimeUnit.SECONDS.toNanos(1))));
+    LOGGER.info("Event to step resume latency (ms): p50={} p95={} p99={} max={}", ReplayHarness.percentile(latencies, 50),
+        ReplayHarness.percentile(latencies, 95), ReplayHarness.percentile(latencies, 99), ReplayHarness.percentile(latencies, 100));
+    LOGGER.info("Heap: {} KiB before builds, {} KiB with builds waiting, {} KiB after replay.", heapBefore / 1024, heapWaiting / 1024, ReplayHarness.usedHeap() / 1024);
+  }
+
+  /**
+   * Associates the run with a Cloud Manager execution, as if it had been started by this build.
+   */
+  public static final class TestCmExecutionStep extends Step {
+    private final String program;
+    private final String pipeline;
+    private final String execution;
+
+    @DataBoundConstructor
+    public TestCmExecutionStep(String program, String pipeline, String execution) {
+      this.program = program;
+      this.pipeline = pipeline;
+      this.execution = execution;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) {
+      return new SynchronousStepExecution<Void>(context) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected Void run() throws Exception {
+          getContext().get(Run.class).addAction(new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution(program, pipeline, execution)));
+          return null;
+        }
+      };
+    }
+
+    @TestExtension("replay")
+    public static final class DescriptorImpl extends StepDescriptor {
+      @Override
+      public Set<? extends Class<?>> getRequiredContext() {
+        return Collections.singleton(Run.class);
+      }
+
+      @Override
+      public String getFunctionName() {
+        return "testCmExecution";
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hudson.AbortException;
+import io.adobe.cloudmanager.CloudManagerApi;
+import mockit.Mocked;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class AsyncCloudManagerApiTest {
+
+  @Mocked
+  private CloudManagerApi api;
+
+  @Test
+  public void composesCalls() throws Exception {
+    AsyncCloudManagerApi async = AsyncCloudManagerApi.of(() -> api);
+    String result = async.call(a -> "first").thenCompose(first -> async.call(a -> first + " second")).get(5, TimeUnit.SECONDS);
+    assertEquals("first second", result);
+  }
+
+  @Test
+  public void createsApiOnce() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    AsyncCloudManagerApi async = AsyncCloudManagerApi.of(() -> {
+      created.incrementAndGet();
+      return api;
+    });
+    async.call(a -> null).get(5, TimeUnit.SECONDS);
+    async.call(a -> null).get(5, TimeUnit.SECONDS);
+    assertEquals(1, created.get());
+  }
+
+  @Test
+  public void retriesFailedCreation() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    AsyncCloudManagerApi async = AsyncCloudManagerApi.of(() -> {
+      if (created.incrementAndGet() == 1) {
+        throw new AbortException("Not yet.");
+      }
+      return api;
+    });
+    ExecutionException e = assertThrows(ExecutionException.class, () -> async.call(a -> "value").get(5, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof AbortException);
+    assertEquals("value", async.call(a -> "value").get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void timeoutInterruptsCall() throws Exception {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    AsyncCloudManagerApi async = AsyncCloudManagerApi.of(() -> api);
+    ExecutionException e = assertThrows(ExecutionException.class, () -> async.call(a -> {
+      try {
+        Thread.sleep(10000);
+      } catch (InterruptedException ex) {
+        interrupted.countDown();
+      }
+      return null;
+    }, 100).get(5, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof TimeoutException);
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void cancelInterruptsCall() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    AsyncCloudManagerApi async = AsyncCloudManagerApi.of(() -> api);
+    async.call(a -> null).get(5, TimeUnit.SECONDS);
+    CompletableFuture<Object> future = async.call(a -> {
+      started.countDown();
+      try {
+        Thread.sleep(10000);
+      } catch (InterruptedException ex) {
+        interrupted.countDown();
+      }
+      return null;
+    });
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    future.cancel(true);
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+  }
+}
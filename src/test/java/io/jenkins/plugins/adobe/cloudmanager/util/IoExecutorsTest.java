@@ -0,0 +1,224 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.jenkins.plugins.adobe.cloudmanager.test.LoadTest;
+import io.jenkins.plugins.adobe.cloudmanager.test.ReplayHarness;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+/**
+ * Compares the platform pool with virtual threads for many concurrent blocking calls.
+ * <p>
+ *   The benchmarks only report measurements, so are in the {@link LoadTest} category; the virtual thread benchmark only
+ *   runs on Java 21+. Tune with:
+ *   <ul>
+ *     <li>{@code -Dbenchmark.tasks=<count>} - number of concurrent calls</li>
+ *     <li>{@code -Dbenchmark.latency=<ms>} - time each call blocks, as if waiting on Cloud Manager</li>
+ *     <li>{@code -Dbenchmark.poolSize=<count>} - size of the platform pool</li>
+ *   </ul>
+ * </p>
+ */
+public class IoExecutorsTest {
+
+  private static final int TASKS = Integer.getInteger("benchmark.tasks", 200);
+  private static final long LATENCY = Long.getLong("benchmark.latency", 20L);
+  private static final int POOL_SIZE = Integer.getInteger("benchmark.poolSize", 10);
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(IoExecutorsTest.class);
+
+  @Test
+  public void platformByDefault() {
+    ExecutorService executor = IoExecutors.create("test", 2);
+    try {
+      assertTrue(executor instanceof ThreadPoolExecutor);
+      assertEquals(2, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+      assertTrue(((ThreadPoolExecutor) executor).allowsCoreThreadTimeOut());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void virtualOnlyWhenAvailable() {
+    ExecutorService executor = IoExecutors.virtual("test");
+    try {
+      assertEquals(IoExecutors.isVirtualThreadsAvailable(), executor != null);
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  @Test
+  public void boundedLimitsConcurrency() throws Exception {
+    ExecutorService executor = new IoExecutors.Bounded(Executors.newCachedThreadPool(), 2, new LinkedBlockingQueue<>());
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger peak = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int i = 0; i < 20; i++) {
+        futures.add(executor.submit(() -> {
+          peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+          try {
+            Thread.sleep(10);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          running.decrementAndGet();
+        }));
+      }
+      for (Future<?> f : futures) {
+        f.get(5, TimeUnit.SECONDS);
+      }
+      assertTrue(peak.get() <= 2);
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void boundedRunsInQueueOrder() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    ExecutorService executor = new IoExecutors.Bounded(Executors.newCachedThreadPool(), 1, new PriorityBlockingQueue<>());
+    List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+    try {
+      executor.execute(new Ordered(0, () -> {
+        try {
+          blocked.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }));
+      for (int priority : new int[]{ 3, 1, 2 }) {
+        executor.execute(new Ordered(priority, () -> order.add(priority)));
+      }
+      assertEquals(3, IoExecutors.getQueued(executor));
+      blocked.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+      assertEquals(Arrays.asList(1, 2, 3), order);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @Category(LoadTest.class)
+  public void platformBenchmark() throws Exception {
+    run("platform", IoExecutors.platform("benchmark", POOL_SIZE, new LinkedBlockingQueue<>()));
+  }
+
+  @Test
+  @Category(LoadTest.class)
+  public void virtualBenchmark() throws Exception {
+    ExecutorService executor = IoExecutors.virtual("benchmark");
+    assumeNotNull(executor);
+    run("virtual", executor);
+  }
+
+  // Task ordered by its priority in a priority queue.
+  private static final class Ordered implements Runnable, Comparable<Ordered> {
+    private final int priority;
+    private final Runnable task;
+
+    private Ordered(int priority, Runnable task) {
+      this.priority = priority;
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      task.run();
+    }
+
+    @Override
+    public int compareTo(Ordered o) {
+      return Integer.compare(priority, o.priority);
+    }
+  }
+
+  // Submit all tasks at once, each blocking for the latency; reports the threads created and the submit to completion time.
+  private static void run(String mode, ExecutorService executor) throws Exception {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    threads.resetPeakThreadCount();
+    int before = threads.getThreadCount();
+    List<CompletableFuture<Long>> futures = new ArrayList<>(TASKS);
+    long start = System.nanoTime();
+    try {
+      for (int i = 0; i < TASKS; i++) {
+        final long submitted = System.nanoTime();
+        futures.add(CompletableFuture.supplyAsync(() -> {
+          try {
+            Thread.sleep(LATENCY);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitted);
+        }, executor));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.MINUTES);
+    } finally {
+      executor.shutdownNow();
+    }
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    List<Long> latencies = new ArrayList<>(TASKS);
+    for (CompletableFuture<Long> f : futures) {
+      latencies.add(f.get());
+    }
+    Collections.sort(latencies);
+
+    assertEquals(TASKS, latencies.size());
+    LOGGER.info("{}: {} calls of {} ms in {} ms, {} additional platform threads at peak.", mode, TASKS, LATENCY, elapsed,
+        threads.getPeakThreadCount() - before);
+    LOGGER.info("{}: submit to completion latency (ms): p50={} p95={} p99={} max={}", mode, ReplayHarness.percentile(latencies, 50),
+        ReplayHarness.percentile(latencies, 95), ReplayHarness.percentile(latencies, 99), ReplayHarness.percentile(latencies, 100));
+  }
+}
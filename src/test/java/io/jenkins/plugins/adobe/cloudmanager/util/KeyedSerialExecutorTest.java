@@ -0,0 +1,144 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class KeyedSerialExecutorTest {
+
+  private ScheduledExecutorService service;
+
+  @Before
+  public void before() {
+    service = Executors.newScheduledThreadPool(4);
+  }
+
+  @After
+  public void after() {
+    service.shutdownNow();
+  }
+
+  @Test
+  public void reordersWithinWindow() throws Exception {
+    KeyedSerialExecutor<String> executor = new KeyedSerialExecutor<>(service, 200);
+    List<Long> order = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch latch = new CountDownLatch(3);
+    for (long ts : new long[]{ 3, 1, 2 }) {
+      executor.submit("key", ts, () -> {
+        order.add(ts);
+        latch.countDown();
+      });
+    }
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertEquals(3, order.size());
+    assertEquals(Long.valueOf(1), order.get(0));
+    assertEquals(Long.valueOf(2), order.get(1));
+    assertEquals(Long.valueOf(3), order.get(2));
+  }
+
+  @Test
+  public void serialPerKey() throws Exception {
+    KeyedSerialExecutor<String> executor = new KeyedSerialExecutor<>(service, 0);
+    CountDownLatch first = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch second = new CountDownLatch(1);
+    executor.submit("key", 1, () -> {
+      first.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    assertTrue(first.await(5, TimeUnit.SECONDS));
+    executor.submit("key", 2, second::countDown);
+    assertFalse(second.await(500, TimeUnit.MILLISECONDS));
+    release.countDown();
+    assertTrue(second.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void parallelAcrossKeys() throws Exception {
+    KeyedSerialExecutor<String> executor = new KeyedSerialExecutor<>(service, 0);
+    CountDownLatch other = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(1);
+    executor.submit("blocked", 1, () -> {
+      try {
+        if (other.await(5, TimeUnit.SECONDS)) {
+          done.countDown();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    executor.submit("other", 1, other::countDown);
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void failingTaskDoesNotBlockKey() throws Exception {
+    KeyedSerialExecutor<String> executor = new KeyedSerialExecutor<>(service, 0);
+    CountDownLatch latch = new CountDownLatch(1);
+    executor.submit("key", 1, () -> {
+      throw new IllegalStateException("Failed");
+    });
+    executor.submit("key", 2, latch::countDown);
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void asyncTaskHoldsKeyNotThread() throws Exception {
+    ScheduledExecutorService single = Executors.newSingleThreadScheduledExecutor();
+    try {
+      KeyedSerialExecutor<String> executor = new KeyedSerialExecutor<>(single, 0);
+      CompletableFuture<Void> first = new CompletableFuture<>();
+      CountDownLatch second = new CountDownLatch(1);
+      CountDownLatch other = new CountDownLatch(1);
+      executor.submitAsync("key", 1, () -> first);
+      executor.submit("key", 2, second::countDown);
+      executor.submit("other", 1, other::countDown);
+      assertTrue(other.await(5, TimeUnit.SECONDS)); // The only thread is free while the first task is pending.
+      assertFalse(second.await(200, TimeUnit.MILLISECONDS));
+      first.complete(null);
+      assertTrue(second.await(5, TimeUnit.SECONDS));
+    } finally {
+      single.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void subMillisecond() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.observe(40, TimeUnit.MICROSECONDS);
+    histogram.observe(300, TimeUnit.MICROSECONDS);
+    histogram.observe(2, TimeUnit.SECONDS);
+
+    long[] buckets = histogram.getBuckets();
+    assertEquals(0, buckets[0]); // <= 10us
+    assertEquals(1, buckets[1]); // <= 50us
+    assertEquals(2, buckets[4]); // <= 500us
+    assertEquals(3, buckets[LatencyHistogram.BOUNDS.length - 1]);
+    assertEquals(3, histogram.getCount());
+    assertEquals(2000340, histogram.getSum());
+    assertEquals(2000000, histogram.getMax());
+  }
+}
@@ -0,0 +1,118 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.net.httpserver.HttpServer;
+import hudson.FilePath;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+public class LogDownloadTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private HttpServer server;
+  private String url;
+  private volatile byte[] body = new byte[0];
+  private volatile int status = 200;
+
+  @Before
+  public void before() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/log", (exchange) -> {
+      exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+      if (body.length > 0) {
+        try (OutputStream os = exchange.getResponseBody()) {
+          os.write(body);
+        }
+      }
+      exchange.close();
+    });
+    server.start();
+    url = String.format("http://localhost:%d/log", server.getAddress().getPort());
+  }
+
+  @After
+  public void after() {
+    server.stop(0);
+  }
+
+  private static String log(int lines) {
+    StringBuilder log = new StringBuilder();
+    for (int i = 0; i < lines; i++) {
+      log.append("Log line ").append(i).append('\n');
+    }
+    return log.toString();
+  }
+
+  @Test
+  public void plain() throws Exception {
+    String log = log(10000);
+    body = log.getBytes(StandardCharsets.UTF_8);
+    FilePath target = new FilePath(folder.getRoot()).child("logs/build.log");
+    assertEquals(body.length, LogDownload.download(url, target));
+    assertEquals(log, target.readToString());
+  }
+
+  @Test
+  public void decompressed() throws Exception {
+    String log = log(10000);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(log.getBytes(StandardCharsets.UTF_8));
+    }
+    body = compressed.toByteArray();
+    FilePath target = new FilePath(folder.getRoot()).child("build.log");
+    assertEquals(log.length(), LogDownload.download(url, target));
+    assertEquals(log, target.readToString());
+  }
+
+  @Test
+  public void empty() throws Exception {
+    FilePath target = new FilePath(folder.getRoot()).child("build.log");
+    assertEquals(0, LogDownload.download(url, target));
+    assertEquals("", target.readToString());
+  }
+
+  @Test(expected = IOException.class)
+  public void errorStatus() throws Exception {
+    status = 403;
+    LogDownload.download(url, new FilePath(folder.getRoot()).child("build.log"));
+  }
+}
@@ -0,0 +1,158 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LogTailTest {
+
+  private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+  private HttpServer server;
+  private String url;
+  private volatile String log = "";
+  private volatile byte[] raw;
+  private volatile boolean ranges = true;
+  private volatile int status = 0;
+  private final List<String> requested = new CopyOnWriteArrayList<>();
+
+  @Before
+  public void before() throws Exception {
+    // Stub log store: serves the requested range of the log, like S3 does.
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/log", (exchange) -> {
+      byte[] body = raw != null ? raw : log.getBytes(StandardCharsets.UTF_8);
+      String range = exchange.getRequestHeaders().getFirst("Range");
+      requested.add(range);
+      int code = status != 0 ? status : 200;
+      Matcher m = range == null ? null : RANGE.matcher(range);
+      if (status == 0 && ranges && m != null && m.matches()) {
+        int start = Integer.parseInt(m.group(1));
+        int end = Math.min(Integer.parseInt(m.group(2)), body.length - 1);
+        if (start >= body.length) {
+          code = 416;
+          body = new byte[0];
+        } else {
+          code = 206;
+          byte[] part = new byte[end - start + 1];
+          System.arraycopy(body, start, part, 0, part.length);
+          body = part;
+        }
+      }
+      exchange.sendResponseHeaders(code, body.length == 0 ? -1 : body.length);
+      if (body.length > 0) {
+        try (OutputStream os = exchange.getResponseBody()) {
+          os.write(body);
+        }
+      }
+      exchange.close();
+    });
+    server.start();
+    url = String.format("http://localhost:%d/log", server.getAddress().getPort());
+  }
+
+  @After
+  public void after() {
+    server.stop(0);
+  }
+
+  @Test
+  public void readsOnlyNewBytes() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    log = "first line\n";
+    assertEquals(11, LogTail.read(url, 0, 1024, out));
+    log = "first line\nsecond line\n";
+    assertEquals(12, LogTail.read(url, 11, 1024, out));
+    assertEquals("first line\nsecond line\n", out.toString(StandardCharsets.UTF_8.name()));
+    assertEquals("bytes=0-1023", requested.get(0));
+    assertEquals("bytes=11-1034", requested.get(1));
+  }
+
+  @Test
+  public void limitsRead() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    log = "first line\n";
+    assertEquals(5, LogTail.read(url, 0, 5, out));
+    assertEquals(5, LogTail.read(url, 5, 5, out));
+    assertEquals(1, LogTail.read(url, 10, 5, out));
+    assertEquals(log, out.toString(StandardCharsets.UTF_8.name()));
+  }
+
+  @Test
+  public void nothingNew() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    log = "first line\n";
+    assertEquals(0, LogTail.read(url, 11, 1024, out));
+    assertEquals(0, out.size());
+  }
+
+  @Test
+  public void rangeIgnored() throws Exception {
+    ranges = false;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    log = "first line\nsecond line\n";
+    assertEquals(12, LogTail.read(url, 11, 1024, out));
+    assertEquals("second line\n", out.toString(StandardCharsets.UTF_8.name()));
+    assertEquals(0, LogTail.read(url, 30, 1024, out));
+  }
+
+  @Test(expected = LogTail.CompressedLogException.class)
+  public void compressed() throws Exception {
+    ByteArrayOutputStream gz = new ByteArrayOutputStream();
+    try (OutputStream os = new GZIPOutputStream(gz)) {
+      os.write("first line\n".getBytes(StandardCharsets.UTF_8));
+    }
+    raw = gz.toByteArray();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      LogTail.read(url, 0, 1024, out);
+    } finally {
+      assertEquals(0, out.size());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void errorStatus() throws Exception {
+    status = 500;
+    LogTail.read(url, 0, 1024, new ByteArrayOutputStream());
+  }
+}
@@ -212,4 +212,56 @@ public class CMEventPayloadTest {
 
     assertNotNull(handler.parse(request, annotation, CMEvent.class, PARAM_NAME));
   }
+
+  @Test
+  public void batch() throws Exception {
+    String started = IOUtils.resourceToString("events/step-started.json", Charset.defaultCharset(), this.getClass().getClassLoader());
+    String ended = IOUtils.resourceToString("events/pipeline-ended.json", Charset.defaultCharset(), this.getClass().getClassLoader());
+    String body = "[" + started + ",{}," + ended + "]";
+    new MockUp<IOUtils>() {
+      @Mock
+      public String toString(InputStream inputStream, Charset charset) {
+        return body;
+      }
+    };
+
+    new Expectations() {{
+      request.getContentType();
+      result = CONTENT_TYPE;
+      request.getInputStream();
+      result = null;
+    }};
+
+    CMEvent event = (CMEvent) handler.parse(request, annotation, CMEvent.class, PARAM_NAME);
+    assertNotNull(event);
+    assertTrue(event.isBatch());
+    assertNull(event.getEventType());
+    assertEquals("1234567890@AdobeOrg", event.getImsOrg());
+    assertEquals(body, event.getPayload());
+    assertEquals(3, event.getEvents().size());
+    assertEquals(EventType.STEP_STARTED, event.getEvents().get(0).getEventType());
+    assertNull(event.getEvents().get(1).getEventType());
+    assertEquals(EventType.PIPELINE_ENDED, event.getEvents().get(2).getEventType());
+  }
+
+  @Test
+  public void batchMixedImsOrg() throws Exception {
+    String started = IOUtils.resourceToString("events/step-started.json", Charset.defaultCharset(), this.getClass().getClassLoader());
+    String body = "[" + started + "," + started.replace("1234567890@AdobeOrg", "Another@AdobeOrg") + "]";
+    new MockUp<IOUtils>() {
+      @Mock
+      public String toString(InputStream inputStream, Charset charset) {
+        return body;
+      }
+    };
+
+    new Expectations() {{
+      request.getContentType();
+      result = CONTENT_TYPE;
+      request.getInputStream();
+      result = null;
+    }};
+
+    assertNull(handler.parse(request, annotation, CMEvent.class, PARAM_NAME));
+  }
 }
@@ -33,6 +33,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
@@ -45,6 +46,9 @@ import org.apache.http.entity.ContentType;
 import io.adobe.cloudmanager.event.CloudManagerEvent;
 import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.CloudManagerEventSubscriber;
 import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.CloudManagerSubscriberEvent;
+import mockit.Mock;
+import mockit.MockUp;
+import net.sf.json.JSONObject;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -85,6 +89,24 @@ public class CloudManagerWebHookTest {
     assertEquals(challenge, challengeResponse);
   }
 
+  @Test
+  public void challengeSkipsCredentials() throws Exception {
+    new MockUp<SignatureVerifiers>() {
+      @Mock
+      public SignatureVerifiers get() {
+        throw new IllegalStateException("Challenge requests should not load secrets.");
+      }
+    };
+
+    String challenge = "ChallengeParameter";
+    String url = String.format("%s%s/?challenge=%s", rule.getURL().toString(), CloudManagerWebHook.URL_NAME, challenge);
+    HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
+    con.setRequestMethod(HttpMethod.GET);
+    con.connect();
+    assertEquals(HttpURLConnection.HTTP_OK, con.getResponseCode());
+    assertEquals(challenge, IOUtils.toString(con.getInputStream(), Charset.defaultCharset()));
+  }
+
   @Test
   public void testPipelineExecutionStartEvent() throws Exception {
 
@@ -151,6 +173,121 @@ public class CloudManagerWebHookTest {
     assertEquals(expected, subscriber.event);
   }
 
+  @Test
+  public void testBatchedEvents() throws Exception {
+
+    String started = IOUtils.resourceToString("events/pipeline-started.json", Charset.defaultCharset(), this.getClass().getClassLoader());
+    String step = IOUtils.resourceToString("events/step-started.json", Charset.defaultCharset(), this.getClass().getClassLoader());
+    String body = "[" + started + "," + step + ",{\"event\":{}}]";
+    String url = String.format("%s%s/", rule.getURL().toString(), CloudManagerWebHook.URL_NAME);
+    HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
+    con.setRequestMethod(HttpMethod.POST);
+    con.setRequestProperty(CloudManagerEvent.SIGNATURE_HEADER, sign(body));
+    con.setRequestProperty("Content-Type", ContentType.APPLICATION_JSON.getMimeType());
+    con.setDoOutput(true);
+    IOUtils.write(body, con.getOutputStream(), Charset.defaultCharset());
+    assertEquals(HttpServletResponse.SC_OK, con.getResponseCode());
+
+    JSONObject report = JSONObject.fromObject(IOUtils.toString(con.getInputStream(), StandardCharsets.UTF_8)).getJSONObject("data");
+    assertEquals(2, report.getInt("accepted"));
+    assertEquals(1, report.getJSONArray("failed").size());
+    assertEquals(2, report.getJSONArray("failed").getJSONObject(0).getInt("index"));
+
+    PipelineStartEventSubscriber startSubscriber = rule.jenkins.getExtensionList(PipelineStartEventSubscriber.class).get(0);
+    PipelineStepEventSubscriber stepSubscriber = rule.jenkins.getExtensionList(PipelineStepEventSubscriber.class).get(0);
+    while (startSubscriber.event == null || stepSubscriber.event == null) {
+      Thread.sleep(1000);
+    }
+    assertEquals(CloudManagerEvent.EventType.PIPELINE_STARTED, startSubscriber.event.getType());
+    assertEquals(CloudManagerEvent.EventType.STEP_STARTED, stepSubscriber.event.getType());
+  }
+
+  @Test
+  public void shedsLowPriorityUnderLoad() throws Exception {
+    String step = IOUtils.resourceToString("events/step-started.json", Charset.defaultCharset(), this.getClass().getClassLoader());
+    String ended = IOUtils.resourceToString("events/pipeline-ended.json", Charset.defaultCharset(), this.getClass().getClassLoader());
+    PipelineStepEventSubscriber stepSubscriber = rule.jenkins.getExtensionList(PipelineStepEventSubscriber.class).get(0);
+    PipelineEndEventSubscriber endSubscriber = rule.jenkins.getExtensionList(PipelineEndEventSubscriber.class).get(0);
+
+    long shed = WebHookMetrics.getShed();
+    long added = loadQueue(CloudManagerWebHook.SHED_DEPTH);
+    try {
+      CloudManagerWebHook.get().enqueue(new CloudManagerSubscriberEvent(AIO_PROJECT_NAME, CloudManagerEvent.EventType.STEP_STARTED, step));
+      CloudManagerWebHook.get().enqueue(new CloudManagerSubscriberEvent(AIO_PROJECT_NAME, CloudManagerEvent.EventType.PIPELINE_ENDED, ended));
+    } finally {
+      unloadQueue(added);
+    }
+    while (endSubscriber.event == null) {
+      Thread.sleep(100);
+    }
+    assertEquals(shed + 1, WebHookMetrics.getShed());
+    assertNull(stepSubscriber.event);
+  }
+
+  @Test
+  public void coalescesLowPriorityUnderLoad() throws Exception {
+    String first = IOUtils.resourceToString("events/step-started.json", Charset.defaultCharset(), this.getClass().getClassLoader());
+    String second = first.replace("/step/5", "/step/6");
+    PipelineStepEventSubscriber stepSubscriber = rule.jenkins.getExtensionList(PipelineStepEventSubscriber.class).get(0);
+
+    long coalesced = WebHookMetrics.getCoalesced();
+    long added = loadQueue(CloudManagerWebHook.COALESCE_DEPTH);
+    try {
+      CloudManagerWebHook.get().enqueue(new CloudManagerSubscriberEvent(AIO_PROJECT_NAME, CloudManagerEvent.EventType.STEP_STARTED, first));
+      CloudManagerWebHook.get().enqueue(new CloudManagerSubscriberEvent(AIO_PROJECT_NAME, CloudManagerEvent.EventType.STEP_STARTED, second));
+    } finally {
+      unloadQueue(added);
+    }
+    while (stepSubscriber.event == null) {
+      Thread.sleep(100);
+    }
+    Thread.sleep(CloudManagerWebHook.REORDER_WINDOW * 2);
+    assertEquals(coalesced + 1, WebHookMetrics.getCoalesced());
+    assertEquals(1, stepSubscriber.count.get());
+    assertEquals(second, stepSubscriber.event.getPayload());
+  }
+
+  @Test
+  public void coalescingKeepsLaterEvent() throws Exception {
+    String event = IOUtils.resourceToString("events/step-started.json", Charset.defaultCharset(), this.getClass().getClassLoader());
+    String later = event.replace("/step/5", "/step/6").replace("\"activitystreams:published\": \"\"", "\"activitystreams:published\": \"2021-01-01T00:00:02Z\"");
+    String earlier = event.replace("\"activitystreams:published\": \"\"", "\"activitystreams:published\": \"2021-01-01T00:00:01Z\"");
+    PipelineStepEventSubscriber stepSubscriber = rule.jenkins.getExtensionList(PipelineStepEventSubscriber.class).get(0);
+
+    long coalesced = WebHookMetrics.getCoalesced();
+    long added = loadQueue(CloudManagerWebHook.COALESCE_DEPTH);
+    try {
+      // The earlier event arrives late, it must not replace the later one.
+      CloudManagerWebHook.get().enqueue(new CloudManagerSubscriberEvent(AIO_PROJECT_NAME, CloudManagerEvent.EventType.STEP_STARTED, later));
+      CloudManagerWebHook.get().enqueue(new CloudManagerSubscriberEvent(AIO_PROJECT_NAME, CloudManagerEvent.EventType.STEP_STARTED, earlier));
+    } finally {
+      unloadQueue(added);
+    }
+    while (stepSubscriber.event == null) {
+      Thread.sleep(100);
+    }
+    Thread.sleep(CloudManagerWebHook.REORDER_WINDOW * 2);
+    assertEquals(coalesced + 1, WebHookMetrics.getCoalesced());
+    assertEquals(1, stepSubscriber.count.get());
+    assertEquals(later, stepSubscriber.event.getPayload());
+  }
+
+  // Simulate a backlog of the specified depth, returns the number of simulated events.
+  private static long loadQueue(long depth) {
+    long added = 0;
+    while (WebHookMetrics.getQueueDepth() < depth) {
+      WebHookMetrics.queued();
+      added++;
+    }
+    return added;
+  }
+
+  private static void unloadQueue(long added) {
+    for (long i = 0; i < added; i++) {
+      WebHookMetrics.dequeued(System.nanoTime());
+    }
+  }
+
   @TestExtension
   public static class PipelineStepEventSubscriber extends TestSubscriber {
     public PipelineStepEventSubscriber() {
@@ -176,6 +313,7 @@ public class CloudManagerWebHookTest {
 
     private final Set<CloudManagerEvent.EventType> type;
     public CloudManagerSubscriberEvent event;
+    public final AtomicInteger count = new AtomicInteger();
 
     public TestSubscriber(CloudManagerEvent.EventType type) {
       this.type = Collections.singleton(type);
@@ -189,6 +327,7 @@ public class CloudManagerWebHookTest {
     @Override
     protected void onEvent(CloudManagerSubscriberEvent event) {
       this.event = event;
+      count.incrementAndGet();
     }
   }
 }
@@ -27,13 +27,15 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook;
  */
 
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 
-import io.adobe.cloudmanager.CloudManagerApiException;
-import io.adobe.cloudmanager.CloudManagerApiException.ErrorType;
 import io.adobe.cloudmanager.event.CloudManagerEvent;
+import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
 import mockit.Expectations;
-import mockit.Mock;
-import mockit.MockUp;
 import mockit.Mocked;
 import mockit.Tested;
 import org.junit.Rule;
@@ -119,16 +121,10 @@ public class RequireCMEventPayloadTest {
 
   @Test
   public void failOnNoMatchedProjectSignature() throws Exception {
-
-    new MockUp<CloudManagerEvent>() {
-      @Mock
-      public boolean isValidSignature(String payload, String digest, String secret) throws CloudManagerApiException {
-        throw new CloudManagerApiException(ErrorType.VALIDATE_EVENT, "Error");
-      }
-    };
+    final String signature = sign(PAYLOAD, "Another Secret");
     new Expectations() {{
       request.getHeader(CloudManagerEvent.SIGNATURE_HEADER);
-      result = "Signed";
+      result = signature;
     }};
 
     setupAdobeIOConfigs(rule.jenkins);
@@ -137,17 +133,10 @@ public class RequireCMEventPayloadTest {
   }
 
   @Test
-  public void failOnValidateSignatureErrors() throws Exception {
-
-    new MockUp<CloudManagerEvent>() {
-      @Mock
-      public boolean isValidSignature(String payload, String digest, String slientSecret) throws CloudManagerApiException {
-        return false;
-      }
-    };
+  public void failOnInvalidSignatureHeader() throws Exception {
     new Expectations() {{
       request.getHeader(CloudManagerEvent.SIGNATURE_HEADER);
-      result = "Signed";
+      result = "Not Base64 !";
     }};
 
     setupAdobeIOConfigs(rule.jenkins);
@@ -157,16 +146,10 @@ public class RequireCMEventPayloadTest {
 
   @Test
   public void validChallengeSignature() throws Exception {
-
-    new MockUp<CloudManagerEvent>() {
-      @Mock
-      public boolean isValidSignature(String payload, String digest, String secret) throws CloudManagerApiException {
-        return true;
-      }
-    };
+    final String signature = sign(PAYLOAD, CLIENT_SECRET);
     new Expectations() {{
       request.getHeader(CloudManagerEvent.SIGNATURE_HEADER);
-      result = "Signed";
+      result = signature;
     }};
 
     setupAdobeIOConfigs(rule.jenkins);
@@ -176,20 +159,31 @@ public class RequireCMEventPayloadTest {
 
   @Test
   public void validEventSignature() throws Exception {
-
-    new MockUp<CloudManagerEvent>() {
-      @Mock
-      public boolean isValidSignature(String payload, String digest, String secret) throws CloudManagerApiException {
-        return true;
-      }
-    };
+    final String signature = sign(PAYLOAD, CLIENT_SECRET);
     new Expectations() {{
       request.getHeader(CloudManagerEvent.SIGNATURE_HEADER);
-      result = "Signed";
+      result = signature;
     }};
 
     setupAdobeIOConfigs(rule.jenkins);
     setupCredentials(rule.jenkins);
     processor.requiresValidSignature(new Object[]{ request, EVENT });
   }
+
+  @Test
+  public void verifiersRebuiltOnConfigChange() throws Exception {
+    setupAdobeIOConfigs(rule.jenkins);
+    setupCredentials(rule.jenkins);
+    SignatureVerifiers verifiers = SignatureVerifiers.get();
+    assertTrue(verifiers.hasVerifiers(IMS_ORG_ID));
+
+    AdobeIOConfig.configuration().setProjectConfigs(Collections.emptyList());
+    assertFalse(verifiers.hasVerifiers(IMS_ORG_ID));
+  }
+
+  private static String sign(String toSign, String secret) throws Exception {
+    Mac mac = Mac.getInstance("HmacSHA256");
+    mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+    return Base64.getEncoder().encodeToString(mac.doFinal(toSign.getBytes(StandardCharsets.UTF_8)));
+  }
 }
@@ -0,0 +1,71 @@
+package io.jenkins.plugins.adobe.cloudmanager.webhook;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import io.adobe.cloudmanager.event.CloudManagerEvent;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.CloudManagerSubscriberEvent;
+import net.sf.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static io.jenkins.plugins.adobe.cloudmanager.test.TestHelper.*;
+import static org.junit.Assert.*;
+
+public class TrafficRecorderTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void disabledWithoutFile() {
+    assertNull(TrafficRecorder.forFile(null));
+    assertNull(TrafficRecorder.forFile(" "));
+  }
+
+  @Test
+  public void recordsEvents() throws Exception {
+    File file = new File(tmp.getRoot(), "traffic.jsonl");
+    TrafficRecorder recorder = TrafficRecorder.forFile(file.getPath());
+    String payload = "{\"event\":{\"@id\":\"1\"}}";
+    recorder.record(IMS_ORG_ID, new CloudManagerSubscriberEvent(AIO_PROJECT_NAME, CloudManagerEvent.EventType.STEP_STARTED, payload));
+    recorder.record(IMS_ORG_ID, new CloudManagerSubscriberEvent(AIO_PROJECT_NAME, CloudManagerEvent.EventType.PIPELINE_ENDED, payload));
+
+    List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    assertEquals(2, lines.size());
+    JSONObject line = JSONObject.fromObject(lines.get(0));
+    assertEquals(IMS_ORG_ID, line.getString(TrafficRecorder.IMS_ORG));
+    assertEquals("STEP_STARTED", line.getString(TrafficRecorder.TYPE));
+    assertEquals(payload, line.getString(TrafficRecorder.PAYLOAD));
+    assertTrue(line.getLong(TrafficRecorder.RECEIVED) > 0);
+    assertEquals("PIPELINE_ENDED", JSONObject.fromObject(lines.get(1)).getString(TrafficRecorder.TYPE));
+  }
+}
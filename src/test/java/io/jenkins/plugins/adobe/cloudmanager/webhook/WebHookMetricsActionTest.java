@@ -0,0 +1,65 @@
+package io.jenkins.plugins.adobe.cloudmanager.webhook;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import jenkins.model.Jenkins;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+import static org.junit.Assert.*;
+
+public class WebHookMetricsActionTest {
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+
+  @Test
+  public void exposesMetrics() throws Exception {
+    WebHookMetrics.request("STEP_STARTED", WebHookMetrics.Result.ACCEPTED);
+    WebHookMetrics.getSignatureTime().observe(3, TimeUnit.MILLISECONDS);
+    long queued = WebHookMetrics.queued();
+    WebHookMetrics.dequeued(queued);
+
+    String content = rule.createWebClient().goTo(WebHookMetricsAction.URL_NAME + "/", "text/plain").getWebResponse().getContentAsString();
+    assertTrue(content.contains("# TYPE aio_cloud_manager_webhook_requests_total counter"));
+    assertTrue(content.matches("(?s).*aio_cloud_manager_webhook_requests_total\\{type=\"STEP_STARTED\",result=\"accepted\"} [1-9][0-9]*\n.*"));
+    assertTrue(content.matches("(?s).*aio_cloud_manager_webhook_signature_seconds_bucket\\{le=\"0.005\"} [1-9][0-9]*\n.*"));
+    assertTrue(content.contains("aio_cloud_manager_webhook_queue_depth 0\n"));
+    assertTrue(content.matches("(?s).*aio_cloud_manager_webhook_queue_wait_seconds_count [1-9][0-9]*\n.*"));
+    assertTrue(content.contains("aio_cloud_manager_subscriber_pending 0\n"));
+  }
+
+  @Test
+  public void requiresAdminister() throws Exception {
+    rule.jenkins.setSecurityRealm(rule.createDummySecurityRealm());
+    rule.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy().grant(Jenkins.READ).everywhere().toEveryone());
+    rule.createWebClient().assertFails(WebHookMetricsAction.URL_NAME + "/", 403);
+  }
+}
@@ -127,7 +127,7 @@ public class PipelineEndEventSubscriberTest {
     job.setDefinition(flow);
     WorkflowRun run = job.scheduleBuild2(0).waitForStart();
     SemaphoreStep.waitForStart("before/1", run);
-    CloudManagerBuildAction action = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "1", "1"));
+    CloudManagerBuildAction action = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "2", "3"));
     run.addAction(action);
     SemaphoreStep.success("before/1", true);
     rule.waitForMessage(MESSAGE, run);
@@ -141,6 +141,50 @@ public class PipelineEndEventSubscriberTest {
     assertEquals(pipelineExecution, ex.step.execution);
   }
 
+  @Test
+  public void skipsUntrackedExecution() throws Exception {
+    String payload = IOUtils.resourceToString("events/pipeline-ended.json", Charset.defaultCharset(), PipelineEndEventSubscriberTest.class.getClassLoader());
+    CloudManagerEvent.EventType type = CloudManagerEvent.EventType.from(payload);
+    CloudManagerSubscriberEvent subscriberEvent = new CloudManagerSubscriberEvent(AIO_PROJECT_NAME, type, payload);
+
+    new MockUp<AdobeIOConfig>() {
+      @Mock
+      public AdobeIOProjectConfig projectConfigFor(String name) {
+        return projectConfig;
+      }
+    };
+
+    new Expectations() {{
+      projectConfig.authenticate();
+      times = 0;
+      api.getExecution((PipelineExecutionEndEvent) any);
+      times = 0;
+    }};
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "node {\n" +
+            "    semaphore 'before'\n" +
+            "    testEndSubscriberStep()\n" +
+            "}",
+        true);
+    job.setDefinition(flow);
+    WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+    SemaphoreStep.waitForStart("before/1", run);
+    CloudManagerBuildAction action = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "2", "4"));
+    run.addAction(action);
+    SemaphoreStep.success("before/1", true);
+    rule.waitForMessage(MESSAGE, run);
+    List<StepExecution> executions = run.getExecution().getCurrentExecutions(false).get();
+    TestRecordEventStep.Execution ex = (TestRecordEventStep.Execution) executions.stream().filter(e -> e instanceof TestRecordEventStep.Execution).findFirst().orElse(null);
+
+    tested.onEvent(subscriberEvent);
+
+    assertNull(ex.step.execution);
+    run.doStop();
+    rule.waitForCompletion(run);
+    rule.assertBuildStatus(Result.ABORTED, run);
+  }
+
   public static final class TestRecordEventStep extends Step {
     public PipelineExecution execution;
 
@@ -27,6 +27,7 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber;
  */
 
 import java.nio.charset.Charset;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -137,7 +138,7 @@ public class PipelineStepEventSubscriberTest {
     job.setDefinition(flow);
     WorkflowRun run = job.scheduleBuild2(0).waitForStart();
     SemaphoreStep.waitForStart("before/1", run);
-    CloudManagerBuildAction action = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "1", "1"));
+    CloudManagerBuildAction action = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "2", "3"));
     run.addAction(action);
     SemaphoreStep.success("before/1", true);
     rule.waitForMessage(MESSAGE, run);
@@ -190,7 +191,7 @@ public class PipelineStepEventSubscriberTest {
     job.setDefinition(flow);
     WorkflowRun run = job.scheduleBuild2(0).waitForStart();
     SemaphoreStep.waitForStart("before/1", run);
-    CloudManagerBuildAction action = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "1", "1"));
+    CloudManagerBuildAction action = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "2", "3"));
     run.addAction(action);
     SemaphoreStep.success("before/1", true);
     rule.waitForMessage(MESSAGE, run);
@@ -243,7 +244,7 @@ public class PipelineStepEventSubscriberTest {
     job.setDefinition(flow);
     WorkflowRun run = job.scheduleBuild2(0).waitForStart();
     SemaphoreStep.waitForStart("before/1", run);
-    CloudManagerBuildAction action = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "1", "1"));
+    CloudManagerBuildAction action = new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "2", "3"));
     run.addAction(action);
     SemaphoreStep.success("before/1", true);
     rule.waitForMessage(MESSAGE, run);
@@ -285,7 +286,7 @@ public class PipelineStepEventSubscriberTest {
       }
 
       @Override
-      public void process(PipelineExecution pe, PipelineExecutionStepState stepState) {
+      public void process(PipelineExecution pe, PipelineExecutionStepState stepState, OffsetDateTime published) {
         step.state = stepState;
         getContext().onSuccess(null);
       }
@@ -0,0 +1,122 @@
+package io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+import io.adobe.cloudmanager.event.CloudManagerEvent;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+import static io.jenkins.plugins.adobe.cloudmanager.test.TestHelper.*;
+import static org.junit.Assert.*;
+
+public class SubscriberDispatcherTest {
+
+  private static final Set<CloudManagerEvent.EventType> TYPES = Collections.singleton(CloudManagerEvent.EventType.STEP_STARTED);
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+
+  @Test
+  public void isolatesSubscribers() throws Exception {
+    CloudManagerSubscriberEvent event = new CloudManagerSubscriberEvent(AIO_PROJECT_NAME, CloudManagerEvent.EventType.STEP_STARTED, "{}");
+    SlowSubscriber slow = rule.jenkins.getExtensionList(SlowSubscriber.class).get(0);
+    FailingSubscriber failing = rule.jenkins.getExtensionList(FailingSubscriber.class).get(0);
+    long timeouts = SubscriberMetrics.of(slow).getTimeouts();
+    long failures = SubscriberMetrics.of(failing).getFailures();
+
+    long start = System.currentTimeMillis();
+    SubscriberDispatcher.dispatch(event).get(5, TimeUnit.SECONDS);
+    assertTrue(System.currentTimeMillis() - start < SlowSubscriber.DURATION);
+
+    RecordingSubscriber recording = rule.jenkins.getExtensionList(RecordingSubscriber.class).get(0);
+    assertEquals(event, recording.event);
+    assertEquals(timeouts + 1, SubscriberMetrics.of(slow).getTimeouts());
+    assertEquals(failures + 1, SubscriberMetrics.of(failing).getFailures());
+    assertTrue(SubscriberMetrics.of(recording).getLatency().getCount() > 0);
+  }
+
+  @TestExtension
+  public static class SlowSubscriber extends CloudManagerEventSubscriber {
+    static final long DURATION = 10000;
+
+    @Nonnull
+    @Override
+    protected Set<CloudManagerEvent.EventType> types() {
+      return TYPES;
+    }
+
+    @Override
+    protected long timeout() {
+      return 100;
+    }
+
+    @Override
+    protected void onEvent(CloudManagerSubscriberEvent event) {
+      try {
+        Thread.sleep(DURATION);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @TestExtension
+  public static class FailingSubscriber extends CloudManagerEventSubscriber {
+    @Nonnull
+    @Override
+    protected Set<CloudManagerEvent.EventType> types() {
+      return TYPES;
+    }
+
+    @Override
+    protected void onEvent(CloudManagerSubscriberEvent event) {
+      throw new IllegalStateException("Failed");
+    }
+  }
+
+  @TestExtension
+  public static class RecordingSubscriber extends CloudManagerEventSubscriber {
+    public volatile CloudManagerSubscriberEvent event;
+
+    @Nonnull
+    @Override
+    protected Set<CloudManagerEvent.EventType> types() {
+      return TYPES;
+    }
+
+    @Override
+    protected void onEvent(CloudManagerSubscriberEvent event) {
+      this.event = event;
+    }
+  }
+}